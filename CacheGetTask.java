@@ -0,0 +1,25 @@
+import java.util.concurrent.*;
+
+
+// gets a kruskal maze from a cache, so that several threads can ask a cache for mazes at once
+class CacheGetTask implements Callable<CachedMaze> {
+  MazeCache cache;
+  int width;
+  int height;
+  long seed;
+
+
+
+  CacheGetTask(MazeCache cache, int width, int height, long seed) {
+    this.cache = cache;
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+  }
+
+
+  // gets the maze
+  public CachedMaze call() {
+    return this.cache.get(this.width, this.height, this.seed, Maze.KRUSKAL);
+  }
+}
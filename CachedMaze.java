@@ -0,0 +1,50 @@
+import java.nio.LongBuffer;
+
+
+// a maze kept by a MazeCache, in the form of the walls of a grid along with its solution. Every
+// caller that gets the same maze from the cache shares it, so none of it may be changed; a caller
+// searches the shared walls with a solver that keeps its search in a state of its own, or loads
+// the walls into a grid of its own to change them
+class CachedMaze {
+  String key;
+  long seed;
+  String generator;
+  MazeGrid grid; // the walls of the maze, shared by all of its solvers. It has no search state
+  // of its own, since every solver brings one
+  int[] solution; // the cells of the solution from the top left cell to the bottom right one
+  long bytes; // the bytes the walls and the solution take up, which is all the cache keeps
+
+
+
+  // keeps the given grid of a maze generated by the given generator from the given seed, which
+  // is no longer used by whatever generated it, and the given solution of it
+  CachedMaze(String key, long seed, String generator, MazeGrid grid, int[] solution) {
+    this.key = key;
+    this.seed = seed;
+    this.generator = generator;
+    this.grid = grid;
+    this.solution = solution;
+    this.bytes = 8L * this.grid.walls.length + 4L * solution.length;
+  }
+
+
+  // a solver of the shared walls of the maze with a search state of its own, so that any number
+  // of threads can solve the maze at once without copying it
+  MazeSolver solver() {
+    return new MazeSolver(this.grid);
+  }
+
+
+  // loads the walls of the maze into a new grid, which can then be searched or changed
+  MazeGrid toGrid() {
+    MazeGrid grid = new MazeGrid(this.grid.width, this.grid.height);
+    this.loadWalls(grid);
+    return grid;
+  }
+
+
+  // copies the walls of the maze into a grid of the same size
+  void loadWalls(MazeGrid grid) {
+    grid.copyWallsFrom(LongBuffer.wrap(this.grid.walls));
+  }
+}
@@ -0,0 +1,118 @@
+import java.util.*;
+
+
+// generates a maze one row at a time with Eller's algorithm. Only the set that every cell of the
+// current row belongs to is remembered, so a maze of any height is generated in memory
+// proportional to its width, and every row is handed to a sink as soon as it is decided
+class EllerGenerator {
+  int width;
+  int height;
+  Random rand;
+  int[] sets; // the set of every cell in the current row, each set is a number below the width
+  int[] parents; // the union-find over the sets of the current row
+  int[] cellsLeft; // the number of cells of each set in the current row that are yet to be decided
+  boolean[] goesDown; // whether each set of the current row has a passage to the next row
+  boolean[] rightWalls; // the right walls of the current row
+  boolean[] bottomWalls; // the bottom walls of the current row
+
+
+
+  EllerGenerator(int width, int height, Random rand) {
+    this.width = new Utils().checkRange(width, 2, Integer.MAX_VALUE, 
+        "Width must be at least 2");
+    this.height = new Utils().checkRange(height, 2, Integer.MAX_VALUE, 
+        "Height must be at least 2");
+    this.rand = rand;
+    this.sets = new int[width];
+    this.parents = new int[width];
+    this.cellsLeft = new int[width];
+    this.goesDown = new boolean[width];
+    this.rightWalls = new boolean[width];
+    this.bottomWalls = new boolean[width];
+  }
+
+
+  // generates the maze and hands every row to the sink
+  void generate(IRowSink sink) {
+
+    // every cell of the first row starts out in its own set
+    for (int x = 0; x < this.width; x++) {
+      this.sets[x] = x;
+    }
+
+    for (int y = 0; y < this.height; y++) {
+      boolean lastRow = y == this.height - 1;
+      for (int x = 0; x < this.width; x++) {
+        this.parents[x] = x;
+      }
+
+      // joining adjacent cells of different sets at random, and all of them on the last row so
+      // that every set ends up connected
+      for (int x = 0; x < this.width - 1; x++) {
+        int set = this.find(this.sets[x]);
+        int nextSet = this.find(this.sets[x + 1]);
+        this.rightWalls[x] = true;
+        if (set != nextSet && (lastRow || this.rand.nextBoolean())) {
+          this.rightWalls[x] = false;
+          this.parents[nextSet] = set;
+        }
+      }
+      this.rightWalls[this.width - 1] = true;
+
+      if (lastRow) {
+        Arrays.fill(this.bottomWalls, true);
+      }
+      else {
+        this.carveDown();
+      }
+      sink.acceptRow(y, this.rightWalls, this.bottomWalls);
+    }
+  }
+
+
+  // opens passages down to the next row at random, at least one for every set so that none of
+  // them is cut off, and gives the cells of the next row their sets
+  void carveDown() {
+    Arrays.fill(this.cellsLeft, 0);
+    Arrays.fill(this.goesDown, false);
+    for (int x = 0; x < this.width; x++) {
+      this.sets[x] = this.find(this.sets[x]);
+      this.cellsLeft[this.sets[x]]++;
+    }
+
+    // the cells that go down keep their set, so the cells with a wall below them are the only
+    // ones that need a new set, and there are always enough sets no cell keeps
+    for (int x = 0; x < this.width; x++) {
+      int set = this.sets[x];
+      this.cellsLeft[set]--;
+      boolean down = this.rand.nextBoolean() || (this.cellsLeft[set] == 0 && !this.goesDown[set]);
+      this.bottomWalls[x] = !down;
+      if (down) {
+        this.goesDown[set] = true;
+      }
+    }
+
+    // handing out the sets no cell kept to the cells that start new sets, where goesDown is
+    // reused to mark the sets that are kept
+    int unusedSet = 0;
+    for (int x = 0; x < this.width; x++) {
+      if (this.bottomWalls[x]) {
+        while (this.goesDown[unusedSet]) {
+          unusedSet++;
+        }
+        this.sets[x] = unusedSet;
+        this.goesDown[unusedSet] = true;
+      }
+    }
+  }
+
+
+  // finds the representative of the given set in the current row
+  int find(int set) {
+    while (this.parents[set] != set) {
+      this.parents[set] = this.parents[this.parents[set]];
+      set = this.parents[set];
+    }
+    return set;
+  }
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.*;
+
+
+// expands a range of the current level of a parallel bfs, splitting it in half until every
+// half is small enough for one thread
+class FrontierTask extends RecursiveAction {
+  // like TileTask, a task is Serializable without ever being serialized
+  static final long serialVersionUID = 1L;
+
+  MazeSolver solver;
+  int from; // the position in the worklist of the first cell of the range
+  int to; // one past the position of the last cell of the range
+
+
+
+  FrontierTask(MazeSolver solver, int from, int to) {
+    this.solver = solver;
+    this.from = from;
+    this.to = to;
+  }
+
+
+  // expands the cells of the range, forking half of them off when there are too many
+  protected void compute() {
+    if (this.to - this.from <= MazeSolver.FRONTIER_CELLS) {
+      this.solver.expandFrontier(this.from, this.to);
+    }
+    else {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new FrontierTask(this.solver, this.from, middle), 
+          new FrontierTask(this.solver, middle, this.to));
+    }
+  }
+}
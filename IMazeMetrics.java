@@ -0,0 +1,35 @@
+import java.util.Map;
+
+
+// the metrics of generating, solving and drawing mazes as they are exposed through JMX, under
+// the name MazeMetrics.OBJECT_NAME. It is public because JMX can only read public interfaces
+public interface IMazeMetrics {
+
+  // whether metrics are being collected
+  boolean isEnabled();
+
+  // starts or stops collecting metrics
+  void setEnabled(boolean enabled);
+
+  // clears every counter and histogram
+  void reset();
+
+  long getUnionFindFinds();
+
+  long getUnionFindUnions();
+
+  long getEdgesExamined();
+
+  long getEdgesAccepted();
+
+  long getNodesExpanded();
+
+  long getPeakFrontier();
+
+  long getFramesRendered();
+
+  long getCellsDrawn();
+
+  // every counter and the count, total, maximum and percentiles of every histogram, by name
+  Map<String, Long> getSnapshot();
+}
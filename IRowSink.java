@@ -0,0 +1,8 @@
+// receives the walls of a maze one row at a time, from the top row to the bottom one
+interface IRowSink {
+
+  // takes the walls of row y, where rightWalls[x] is whether the cell at x has a wall on its
+  // right and bottomWalls[x] is whether it has a wall below it. The arrays are reused for the
+  // next row, so they must be copied to be kept
+  void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls);
+}
@@ -0,0 +1,128 @@
+import java.util.*;
+
+
+// a min-heap of the cells of a maze by a long key, such as the cost of the cheapest path to
+// each of them, where every entry has up to arity children. The position of every cell in the
+// heap is kept in an array, so the key of a cell can be lowered in place instead of the cell
+// being added again. The heap, keys and positions are all primitive arrays over the cell ids,
+// and the key of a cell is kept after it is removed, until it is added again
+class IndexedHeap {
+  int arity;
+  int[] cells; // the cells in the heap, where the children of position p are at arity * p + 1
+  // up to and including arity * p + arity
+  int size;
+  long[] keys; // the key of every cell that is or has been in the heap
+  int[] positions; // the position of every cell in the heap, or -1 if it isn't in it
+
+
+
+  IndexedHeap(int capacity, int arity) {
+    this.arity = new Utils().checkRange(arity, 2, 64, "Arity must be between 2 and 64");
+    this.cells = new int[capacity];
+    this.size = 0;
+    this.keys = new long[capacity];
+    this.positions = new int[capacity];
+    Arrays.fill(this.positions, -1);
+  }
+
+
+  // determines whether the given cell is in the heap
+  boolean contains(int cell) {
+    return this.positions[cell] >= 0;
+  }
+
+
+  // the key of the given cell, which is kept after it is removed from the heap
+  long key(int cell) {
+    return this.keys[cell];
+  }
+
+
+  // adds the given cell, which must not be in the heap, with the given key
+  void insert(int cell, long key) {
+    if (this.contains(cell)) {
+      throw new IllegalArgumentException("Cell " + cell + " is already in the heap");
+    }
+    this.keys[cell] = key;
+    this.size++;
+    this.siftUp(cell, this.size - 1);
+  }
+
+
+  // lowers the key of the given cell, which must be in the heap, to the given key
+  void decreaseKey(int cell, long key) {
+    if (!this.contains(cell) || key > this.keys[cell]) {
+      throw new IllegalArgumentException("Only the key of a cell in the heap can be lowered");
+    }
+    this.keys[cell] = key;
+    this.siftUp(cell, this.positions[cell]);
+  }
+
+
+  // removes the cell with the smallest key from the heap, which must not be empty, and returns it
+  int poll() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("The heap is empty");
+    }
+    int first = this.cells[0];
+    this.positions[first] = -1;
+    this.size--;
+    if (this.size > 0) {
+      this.siftDown(this.cells[this.size], 0);
+    }
+    return first;
+  }
+
+
+  // removes every cell from the heap, which only takes as long as the number of cells in it
+  void clear() {
+    for (int i = 0; i < this.size; i++) {
+      this.positions[this.cells[i]] = -1;
+    }
+    this.size = 0;
+  }
+
+
+  // puts the given cell at the given position, or above it while its parent has a larger key
+  void siftUp(int cell, int position) {
+    long key = this.keys[cell];
+    while (position > 0) {
+      int parent = (position - 1) / this.arity;
+      if (this.keys[this.cells[parent]] <= key) {
+        break;
+      }
+      this.place(this.cells[parent], position);
+      position = parent;
+    }
+    this.place(cell, position);
+  }
+
+
+  // puts the given cell at the given position, or below it while a child has a smaller key
+  void siftDown(int cell, int position) {
+    long key = this.keys[cell];
+    while (this.arity * position + 1 < this.size) {
+      int first = this.arity * position + 1;
+      int last = Math.min(first + this.arity, this.size);
+      int child = first;
+      for (int c = first + 1; c < last; c++) {
+        if (this.keys[this.cells[c]] < this.keys[this.cells[child]]) {
+          child = c;
+        }
+      }
+      if (key <= this.keys[this.cells[child]]) {
+        break;
+      }
+      this.place(this.cells[child], position);
+      position = child;
+    }
+    this.place(cell, position);
+  }
+
+
+  // puts the given cell at the given position of the heap
+  void place(int cell, int position) {
+    this.cells[position] = cell;
+    this.positions[cell] = position;
+  }
+}
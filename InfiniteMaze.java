@@ -0,0 +1,236 @@
+import java.util.*;
+
+
+// an unbounded maze made of square chunks of cells, where each chunk is only generated when it
+// is first needed, from the seed of the maze and the position of the chunk, so that it comes
+// out the same every time. Every chunk is a perfect maze of its own, and the border between
+// two neighboring chunks has a single opening, which both of them agree on because it only
+// depends on the seed and the position of the border. The whole maze is therefore connected.
+// The generated chunks are kept in a cache of the least recently used ones with a budget in
+// bytes, and a chunk that is needed again after being evicted is generated again, so the memory
+// the maze takes depends on the area being explored rather than on its size. Cells are
+// identified by an x and a y that can be any int, packed into a long by pack. A maze is only
+// meant to be used by one thread at a time
+class InfiniteMaze {
+  static final int CHUNK_SIZE = 64;
+  static final long DEFAULT_CAPACITY_BYTES = 16L << 20;
+
+  // the sides of a chunk that have an opening to the next chunk, and the position of the stream
+  // that chooses the seed of every chunk among the streams of its position
+  static final int SEED = 0;
+  static final int RIGHT = 1;
+  static final int BOTTOM = 2;
+
+  long seed;
+  int chunkSize; // the width and height of every chunk in cells
+  long capacityBytes; // the most bytes the walls of the cached chunks may take up
+  LinkedHashMap<Long, MazeGrid> chunks; // the generated chunks by their key, from the least
+  // recently used to the most recently used
+  long bytes; // the bytes taken up by the walls of the cached chunks
+  long generated; // the number of chunks generated, including the ones generated again
+  long evictions; // the number of chunks evicted to keep within the capacity
+  long lastKey; // the key of the chunk used last, which the next cell is usually in too, so it
+  MazeGrid lastChunk; // is kept here to be found without looking it up, or null if there is none
+
+
+
+  InfiniteMaze(long seed) {
+    this(seed, InfiniteMaze.CHUNK_SIZE, InfiniteMaze.DEFAULT_CAPACITY_BYTES);
+  }
+
+
+  InfiniteMaze(long seed, int chunkSize, long capacityBytes) {
+    if (capacityBytes < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative");
+    }
+    this.seed = seed;
+    this.chunkSize = new Utils().checkRange(chunkSize, 2, 4096, 
+        "Chunk size must be between 2 and 4096");
+    this.capacityBytes = capacityBytes;
+    this.chunks = new LinkedHashMap<Long, MazeGrid>(16, 0.75f, true);
+    this.bytes = 0;
+    this.generated = 0;
+    this.evictions = 0;
+  }
+
+
+  // the key of the chunk at the given position
+  static long key(int chunkX, int chunkY) {
+    return (long) chunkX << 32 | (chunkY & 0xFFFFFFFFL);
+  }
+
+
+  // the cell with the given x and y, packed into a long
+  static long pack(int x, int y) {
+    return (long) x << 32 | (y & 0xFFFFFFFFL);
+  }
+
+
+  // the x of a packed cell
+  static int xOf(long cell) {
+    return (int) (cell >> 32);
+  }
+
+
+  // the y of a packed cell
+  static int yOf(long cell) {
+    return (int) cell;
+  }
+
+
+  // mixes the bits of the given value so that nearby values give unrelated results, with the
+  // finalizer of SplitMix64, the generator that SplittableRandom is built on
+  static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+
+
+  // the given stream of random bits of the chunk at the given position, either its SEED or the
+  // choice of the opening on its RIGHT or BOTTOM side
+  long stream(int chunkX, int chunkY, int stream) {
+    return InfiniteMaze.mix(InfiniteMaze.mix(this.seed ^ InfiniteMaze.mix(
+        InfiniteMaze.key(chunkX, chunkY))) + stream);
+  }
+
+
+  // the row of the opening on the right side of the chunk at the given position, or the column
+  // of the opening on its bottom side, which is shared with the chunk on the other side
+  int opening(int chunkX, int chunkY, int side) {
+    return (int) Math.floorMod(this.stream(chunkX, chunkY, side), (long) this.chunkSize);
+  }
+
+
+  // the chunk at the given position, which is generated unless the cache has it. Generating a
+  // chunk evicts the least recently used chunks until the cache is within its capacity again,
+  // though never the chunk that was just generated
+  MazeGrid chunk(int chunkX, int chunkY) {
+    long key = InfiniteMaze.key(chunkX, chunkY);
+    if (this.lastChunk != null && key == this.lastKey) {
+      return this.lastChunk;
+    }
+
+    MazeGrid chunk = this.chunks.get(key);
+    if (chunk == null) {
+      chunk = this.generateChunk(chunkX, chunkY);
+      this.generated++;
+      this.chunks.put(key, chunk);
+      this.bytes += 8L * chunk.walls.length;
+
+      Iterator<MazeGrid> eldest = this.chunks.values().iterator();
+      while (this.bytes > this.capacityBytes && this.chunks.size() > 1) {
+        this.bytes -= 8L * eldest.next().walls.length;
+        eldest.remove();
+        this.evictions++;
+      }
+    }
+    this.lastKey = key;
+    this.lastChunk = chunk;
+    return chunk;
+  }
+
+
+  // generates the chunk at the given position as a single tile of a ParallelGenerator, seeded
+  // from the seed of the maze and the position. The chunk only has walls, since it is never
+  // searched itself
+  MazeGrid generateChunk(int chunkX, int chunkY) {
+    int size = this.chunkSize;
+    MazeGrid chunk = new MazeGrid(size, size, new long[(size * size + 31) / 32]);
+    Arrays.fill(chunk.walls, -1L);
+    new ParallelGenerator(chunk, this.stream(chunkX, chunkY, InfiniteMaze.SEED), size)
+        .generateTile(0);
+    return chunk;
+  }
+
+
+  // determines whether the given cell has a wall on its right, which on the right side of a
+  // chunk is everywhere except for the opening to the next chunk
+  boolean hasRightWall(int x, int y) {
+    int size = this.chunkSize;
+    int chunkX = Math.floorDiv(x, size);
+    int chunkY = Math.floorDiv(y, size);
+    if (Math.floorMod(x, size) == size - 1) {
+      return Math.floorMod(y, size) != this.opening(chunkX, chunkY, InfiniteMaze.RIGHT);
+    }
+    MazeGrid chunk = this.chunk(chunkX, chunkY);
+    return chunk.hasRightWall(chunk.index(Math.floorMod(x, size), Math.floorMod(y, size)));
+  }
+
+
+  // determines whether the given cell has a wall below it, which on the bottom side of a chunk
+  // is everywhere except for the opening to the next chunk
+  boolean hasBottomWall(int x, int y) {
+    int size = this.chunkSize;
+    int chunkX = Math.floorDiv(x, size);
+    int chunkY = Math.floorDiv(y, size);
+    if (Math.floorMod(y, size) == size - 1) {
+      return Math.floorMod(x, size) != this.opening(chunkX, chunkY, InfiniteMaze.BOTTOM);
+    }
+    MazeGrid chunk = this.chunk(chunkX, chunkY);
+    return chunk.hasBottomWall(chunk.index(Math.floorMod(x, size), Math.floorMod(y, size)));
+  }
+
+
+  // determines whether the given cell has a wall on its left, which is the right wall of the
+  // cell to its left
+  boolean hasLeftWall(int x, int y) {
+    return this.hasRightWall(x - 1, y);
+  }
+
+
+  // determines whether the given cell has a wall above it, which is the bottom wall of the
+  // cell above it
+  boolean hasTopWall(int x, int y) {
+    return this.hasBottomWall(x, y - 1);
+  }
+
+
+  // fills out with the packed cells that can be reached from the given cell without crossing a
+  // wall, in the order right, bottom, left, top like MazeGrid, and returns how many there are
+  int openNeighbors(int x, int y, long[] out) {
+    int count = 0;
+    if (!this.hasRightWall(x, y)) {
+      out[count] = InfiniteMaze.pack(x + 1, y);
+      count++;
+    }
+    if (!this.hasBottomWall(x, y)) {
+      out[count] = InfiniteMaze.pack(x, y + 1);
+      count++;
+    }
+    if (!this.hasLeftWall(x, y)) {
+      out[count] = InfiniteMaze.pack(x - 1, y);
+      count++;
+    }
+    if (!this.hasTopWall(x, y)) {
+      out[count] = InfiniteMaze.pack(x, y - 1);
+      count++;
+    }
+    return count;
+  }
+
+
+  // copies the walls of the cells of the maze from the given left and top cell onwards into the
+  // given grid, so that a window of the maze can be drawn or searched like any other grid. The
+  // walls on the outside of the window are always kept, like the walls of every grid
+  void copyWindow(int left, int top, MazeGrid window) {
+    window.resetWalls();
+    for (int x = 0; x < window.width; x++) {
+      for (int y = 0; y < window.height; y++) {
+        int cell = window.index(x, y);
+        if (x + 1 < window.width && !this.hasRightWall(left + x, top + y)) {
+          window.removeWall(cell, cell + window.height);
+        }
+        if (y + 1 < window.height && !this.hasBottomWall(left + x, top + y)) {
+          window.removeWall(cell, cell + 1);
+        }
+      }
+    }
+  }
+
+
+  // the number of chunks in the cache
+  int size() {
+    return this.chunks.size();
+  }
+}
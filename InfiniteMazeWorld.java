@@ -0,0 +1,118 @@
+import java.util.*;
+import javalib.impworld.*;
+
+
+// a view of a window of an InfiniteMaze, which the arrow keys move over the maze. The walls of
+// the window are copied into a grid and drawn with a MazeRaster whenever the window moves, so
+// only the chunks under the window are generated. Pressing "b" solves the maze from the top
+// left cell of the window to its bottom right one, with a search that may leave the window,
+// and draws the part of the path inside the window; "c" clears the path.
+// Run with: java InfiniteMazeWorld [seed]
+class InfiniteMazeWorld extends World {
+  static final int WIDTH = 100;
+  static final int HEIGHT = 60;
+  static final int CELL_SIZE = 10;
+  static final int SCROLL = 10; // the cells the window moves for every arrow key
+  static final int MAX_EXPANDED = 1 << 22; // the most cells a search expands before giving up
+
+  InfiniteMaze maze;
+  int left; // the x of the top left cell of the window
+  int top; // the y of the top left cell of the window
+  MazeGrid window; // the walls of the cells in the window
+  MazeRaster raster;
+  long[] path; // the packed cells of the last path found, or none
+  boolean changed; // whether the window has moved or the path changed since it was last drawn
+
+
+
+  InfiniteMazeWorld(InfiniteMaze maze, int width, int height, int cellSize) {
+    this.maze = maze;
+    this.left = 0;
+    this.top = 0;
+    this.window = new MazeGrid(width, height);
+    this.raster = new MazeRaster(this.window, cellSize);
+    this.path = new long[0];
+    this.changed = true;
+  }
+
+
+  public static void main(String[] args) {
+    long seed = new Random().nextLong();
+    if (args.length > 0) {
+      seed = Long.parseLong(args[0]);
+    }
+    InfiniteMazeWorld world = new InfiniteMazeWorld(new InfiniteMaze(seed), 
+        InfiniteMazeWorld.WIDTH, InfiniteMazeWorld.HEIGHT, InfiniteMazeWorld.CELL_SIZE);
+    world.bigBang(world.raster.pixelWidth, world.raster.pixelHeight, 1.0 / 30.0);
+  }
+
+
+  // draws the window, copying its walls from the maze again first if it has changed
+  public WorldScene makeScene() {
+    if (this.changed) {
+      this.drawWindow();
+    }
+    WorldScene scene = new WorldScene(this.raster.pixelWidth, this.raster.pixelHeight);
+    scene.placeImageXY(this.raster.shown, this.raster.pixelWidth / 2, 
+        this.raster.pixelHeight / 2);
+    return scene;
+  }
+
+
+  // copies the walls of the window from the maze and draws them, with the cells of the path
+  // that are inside the window
+  void drawWindow() {
+    this.maze.copyWindow(this.left, this.top, this.window);
+    Arrays.fill(this.raster.states, MazeExporter.BACKGROUND);
+    for (int i = 0; i < this.path.length; i++) {
+      int x = InfiniteMaze.xOf(this.path[i]) - this.left;
+      int y = InfiniteMaze.yOf(this.path[i]) - this.top;
+      if (x >= 0 && x < this.window.width && y >= 0 && y < this.window.height) {
+        byte state = MazeExporter.SOLUTION;
+        if (i == 0) {
+          state = MazeExporter.START;
+        }
+        else if (i == this.path.length - 1) {
+          state = MazeExporter.END;
+        }
+        this.raster.states[this.window.index(x, y)] = state;
+      }
+    }
+    this.raster.drawAll();
+    this.changed = false;
+  }
+
+
+  // moves the window with the arrow keys, and solves or clears the window with "b" and "c"
+  public void onKeyEvent(String key) {
+    if (key.equals("left")) {
+      this.left -= InfiniteMazeWorld.SCROLL;
+      this.changed = true;
+    }
+    if (key.equals("right")) {
+      this.left += InfiniteMazeWorld.SCROLL;
+      this.changed = true;
+    }
+    if (key.equals("up")) {
+      this.top -= InfiniteMazeWorld.SCROLL;
+      this.changed = true;
+    }
+    if (key.equals("down")) {
+      this.top += InfiniteMazeWorld.SCROLL;
+      this.changed = true;
+    }
+
+    // solves the maze from the top left cell of the window to the bottom right one
+    if (key.equals("b")) {
+      this.path = new InfiniteSolver(this.maze).bfs(this.left, this.top, 
+          this.left + this.window.width - 1, this.top + this.window.height - 1, 
+          InfiniteMazeWorld.MAX_EXPANDED);
+      this.changed = true;
+    }
+
+    if (key.equals("c")) {
+      this.path = new long[0];
+      this.changed = true;
+    }
+  }
+}
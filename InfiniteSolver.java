@@ -0,0 +1,197 @@
+import java.util.*;
+
+
+// a breadth-first-search of an InfiniteMaze, which fetches the chunks of the maze as it reaches
+// them. The visited cells and the side every cell was reached from are kept in a SearchState for
+// each chunk, which is only made once the search reaches the chunk, so the memory of the search
+// depends on the area it explores rather than on the size of the maze. A search for a goal that
+// is far away could explore without end, so it gives up after expanding a given number of cells
+class InfiniteSolver {
+  // the sides a cell can have been reached from, in the order of openNeighbors
+  static final int FROM_RIGHT = 0;
+  static final int FROM_BOTTOM = 1;
+  static final int FROM_LEFT = 2;
+  static final int FROM_TOP = 3;
+
+  InfiniteMaze maze;
+  HashMap<Long, SearchState> states; // the search state of every chunk the search has reached,
+  // by the key of the chunk, where the parent of a cell is the side it was reached from
+  long lastKey; // the key of the chunk whose state was used last, which the next cell is
+  SearchState lastState; // usually in too, or null if there is none
+  long[] worklist; // the packed cells of the queue of the search, which grows as it needs to
+  int head;
+  int tail;
+  long[] neighbors; // the open neighbors of the cell currently being expanded
+  int nodesExpanded;
+  int peakFrontier;
+
+
+
+  InfiniteSolver(InfiniteMaze maze) {
+    this.maze = maze;
+    this.states = new HashMap<Long, SearchState>();
+    this.worklist = new long[1024];
+    this.neighbors = new long[4];
+  }
+
+
+  // searches the maze from the start cell to the goal cell and returns the packed cells of the
+  // path between them, or no cells if the goal wasn't found within the given number of expanded
+  // cells
+  long[] bfs(int startX, int startY, int goalX, int goalY, int maxExpanded) {
+    this.states.clear();
+    this.lastState = null;
+    this.head = 0;
+    this.tail = 0;
+    this.nodesExpanded = 0;
+    this.peakFrontier = 1;
+
+    long start = InfiniteMaze.pack(startX, startY);
+    long goal = InfiniteMaze.pack(goalX, goalY);
+    this.visit(start, InfiniteSolver.FROM_RIGHT);
+    this.add(start);
+    while (this.head < this.tail && this.nodesExpanded < maxExpanded) {
+      long next = this.worklist[this.head];
+      this.head++;
+      this.nodesExpanded++;
+      if (next == goal) {
+        return this.retrace(start, goal);
+      }
+
+      // adding this cell's unvisited neighbors to the worklist, remembering which side of them
+      // this cell is on
+      int count = this.maze.openNeighbors(InfiniteMaze.xOf(next), InfiniteMaze.yOf(next), 
+          this.neighbors);
+      for (int i = 0; i < count; i++) {
+        long v = this.neighbors[i];
+        if (!this.isVisited(v)) {
+          this.visit(v, InfiniteSolver.sideOf(v, next));
+          this.add(v);
+        }
+      }
+      this.peakFrontier = Math.max(this.peakFrontier, this.tail - this.head);
+    }
+    return new long[0];
+  }
+
+
+  // the side of the given cell that its adjacent cell is on
+  static int sideOf(long cell, long adjacent) {
+    int dx = InfiniteMaze.xOf(adjacent) - InfiniteMaze.xOf(cell);
+    int dy = InfiniteMaze.yOf(adjacent) - InfiniteMaze.yOf(cell);
+    if (dx == 1) {
+      return InfiniteSolver.FROM_RIGHT;
+    }
+    else if (dy == 1) {
+      return InfiniteSolver.FROM_BOTTOM;
+    }
+    else if (dx == -1) {
+      return InfiniteSolver.FROM_LEFT;
+    }
+    else {
+      return InfiniteSolver.FROM_TOP;
+    }
+  }
+
+
+  // the cell on the given side of the given cell
+  static long neighbor(long cell, int side) {
+    int x = InfiniteMaze.xOf(cell);
+    int y = InfiniteMaze.yOf(cell);
+    if (side == InfiniteSolver.FROM_RIGHT) {
+      return InfiniteMaze.pack(x + 1, y);
+    }
+    else if (side == InfiniteSolver.FROM_BOTTOM) {
+      return InfiniteMaze.pack(x, y + 1);
+    }
+    else if (side == InfiniteSolver.FROM_LEFT) {
+      return InfiniteMaze.pack(x - 1, y);
+    }
+    else {
+      return InfiniteMaze.pack(x, y - 1);
+    }
+  }
+
+
+  // the search state of the chunk of the given cell, which is made the first time the search
+  // reaches the chunk
+  SearchState stateOf(long cell) {
+    int size = this.maze.chunkSize;
+    long key = InfiniteMaze.key(Math.floorDiv(InfiniteMaze.xOf(cell), size), 
+        Math.floorDiv(InfiniteMaze.yOf(cell), size));
+    if (this.lastState != null && key == this.lastKey) {
+      return this.lastState;
+    }
+
+    SearchState state = this.states.get(key);
+    if (state == null) {
+      state = new SearchState(size * size);
+      this.states.put(key, state);
+    }
+    this.lastKey = key;
+    this.lastState = state;
+    return state;
+  }
+
+
+  // the index of the given cell within its chunk
+  int localIndex(long cell) {
+    int size = this.maze.chunkSize;
+    return Math.floorMod(InfiniteMaze.xOf(cell), size) * size 
+        + Math.floorMod(InfiniteMaze.yOf(cell), size);
+  }
+
+
+  // determines whether the search has visited the given cell
+  boolean isVisited(long cell) {
+    return this.stateOf(cell).isVisited(this.localIndex(cell));
+  }
+
+
+  // marks the given cell as visited from the cell on the given side of it
+  void visit(long cell, int side) {
+    SearchState state = this.stateOf(cell);
+    state.markVisited(this.localIndex(cell));
+    state.setParent(this.localIndex(cell), side);
+  }
+
+
+  // adds the given cell to the back of the worklist, first moving the cells still in it to its
+  // front or, if that doesn't make room, doubling it
+  void add(long cell) {
+    if (this.tail == this.worklist.length) {
+      System.arraycopy(this.worklist, this.head, this.worklist, 0, this.tail - this.head);
+      this.tail -= this.head;
+      this.head = 0;
+      if (this.tail == this.worklist.length) {
+        this.worklist = Arrays.copyOf(this.worklist, 2 * this.worklist.length);
+      }
+    }
+    this.worklist[this.tail] = cell;
+    this.tail++;
+  }
+
+
+  // follows the sides every cell was reached from back from the goal to the start and returns
+  // the cells in between in order
+  long[] retrace(long start, long goal) {
+    int length = 1;
+    for (long cell = goal; cell != start; cell = this.parent(cell)) {
+      length++;
+    }
+
+    long[] path = new long[length];
+    long cell = goal;
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = cell;
+      cell = this.parent(cell);
+    }
+    return path;
+  }
+
+
+  // the cell the search reached the given cell from
+  long parent(long cell) {
+    return InfiniteSolver.neighbor(cell, this.stateOf(cell).parent(this.localIndex(cell)));
+  }
+}
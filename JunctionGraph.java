@@ -0,0 +1,285 @@
+import java.util.*;
+
+
+// a maze reduced to its junctions, where every corridor of cells with exactly two open neighbors
+// is collapsed into a single edge weighted by its length. Only the junctions, the dead ends and
+// the start and goal are nodes, so a bfs or dfs of the graph expands a fraction of the cells a
+// search of the grid does, and the corridors are only walked again to turn the path it finds
+// back into cells. The nodes are numbered in the order of their cells, and the edges of each
+// node are stored next to each other in the edge arrays
+class JunctionGraph {
+  MazeGrid grid;
+  int start;
+  int goal;
+  int[] nodeCells; // the cell of every node, from the smallest cell to the largest
+  int[] edgeOffsets; // the edges of node i are edgeOffsets[i] to edgeOffsets[i + 1] - 1
+  int[] edgeTargets; // the node at the other end of each edge
+  int[] edgeLengths; // the number of passages along each edge
+  int[] edgeFirstCells; // the cell next to the node an edge starts from along its corridor
+  int[] neighbors; // the open neighbors of the cell currently being walked
+
+  String algorithm; // the search currently being performed, either a bfs or a dfs
+  int[] worklist; // a queue of nodes for a bfs and a stack for a dfs
+  int head; // the front of the worklist, always 0 for a stack
+  int tail; // one past the back of the worklist
+  long[] visited; // bit node is set once the search has reached the node
+  int[] parentEdges; // the edge each node the search has reached was reached along
+  int[] parentNodes; // the node each node the search has reached was reached from
+  int nodesExpanded;
+  int peakFrontier;
+  boolean done;
+  boolean found; // whether the search reached the goal
+
+
+
+  // builds the graph of the given grid, in which the start and goal are always nodes
+  JunctionGraph(MazeGrid grid, int start, int goal) {
+    int cells = grid.width * grid.height;
+    new Utils().checkRange(start, 0, cells - 1, "Start must be a cell of the maze");
+    new Utils().checkRange(goal, 0, cells - 1, "Goal must be a cell of the maze");
+    this.grid = grid;
+    this.start = start;
+    this.goal = goal;
+
+    // finding the nodes and how many edges each of them has
+    int[] neighbors = new int[4];
+    int nodes = 0;
+    int edges = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      int count = grid.openNeighbors(cell, neighbors);
+      if (this.isNode(cell, count)) {
+        nodes++;
+        edges += count;
+      }
+    }
+    this.nodeCells = new int[nodes];
+    this.edgeOffsets = new int[nodes + 1];
+    int node = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      int count = grid.openNeighbors(cell, neighbors);
+      if (this.isNode(cell, count)) {
+        this.nodeCells[node] = cell;
+        this.edgeOffsets[node + 1] = this.edgeOffsets[node] + count;
+        node++;
+      }
+    }
+
+    // walking along the corridor of every edge to the node at its other end
+    this.edgeTargets = new int[edges];
+    this.edgeLengths = new int[edges];
+    this.edgeFirstCells = new int[edges];
+    int[] corridor = new int[4];
+    for (node = 0; node < nodes; node++) {
+      int cell = this.nodeCells[node];
+      int count = grid.openNeighbors(cell, neighbors);
+      for (int i = 0; i < count; i++) {
+        int edge = this.edgeOffsets[node] + i;
+        this.edgeFirstCells[edge] = neighbors[i];
+        int previous = cell;
+        int current = neighbors[i];
+        int length = 1;
+        int corridorCount = grid.openNeighbors(current, corridor);
+        while (!this.isNode(current, corridorCount)) {
+          int next = corridor[0];
+          if (next == previous) {
+            next = corridor[1];
+          }
+          previous = current;
+          current = next;
+          length++;
+          corridorCount = grid.openNeighbors(current, corridor);
+        }
+        this.edgeTargets[edge] = Arrays.binarySearch(this.nodeCells, current);
+        this.edgeLengths[edge] = length;
+      }
+    }
+
+    this.neighbors = neighbors;
+    this.worklist = new int[nodes];
+    this.visited = new long[(nodes + 63) / 64];
+    this.parentEdges = new int[nodes];
+    this.parentNodes = new int[nodes];
+  }
+
+
+  // determines whether the given cell, which has the given number of open neighbors, is a node
+  boolean isNode(int cell, int openNeighbors) {
+    return openNeighbors != 2 || cell == this.start || cell == this.goal;
+  }
+
+
+  // the number of nodes in the graph
+  int nodeCount() {
+    return this.nodeCells.length;
+  }
+
+
+  // the number of edges in the graph, each of which joins two nodes
+  int edgeCount() {
+    return this.edgeTargets.length / 2;
+  }
+
+
+  // how many times more cells the maze has than the graph has nodes
+  double compressionRatio() {
+    return (double) (this.grid.width * this.grid.height) / this.nodeCount();
+  }
+
+
+  // performs the given search of the graph from the start to the goal, returning the path it
+  // finds as cells. The nodes expanded and the peak frontier are counted in nodes
+  SolveResult solve(String algorithm) {
+    long startTime = System.nanoTime();
+    this.begin(algorithm);
+    while (!this.done) {
+      this.step();
+    }
+
+    int[] path;
+    if (this.found) {
+      path = this.path();
+    }
+    else {
+      path = new int[0];
+    }
+    return new SolveResult(path, this.nodesExpanded, this.peakFrontier, 
+        System.nanoTime() - startTime);
+  }
+
+
+  // sets up the given search from the start to the goal, which is then performed by step
+  void begin(String algorithm) {
+    if (!algorithm.equals(MazeSolver.BFS) && !algorithm.equals(MazeSolver.DFS)) {
+      throw new IllegalArgumentException("Unknown search " + algorithm);
+    }
+    int start = Arrays.binarySearch(this.nodeCells, this.start);
+    this.algorithm = algorithm;
+    Arrays.fill(this.visited, 0L);
+    this.visited[start >>> 6] |= 1L << start;
+    this.parentEdges[start] = -1;
+    this.parentNodes[start] = start;
+    this.worklist[0] = start;
+    this.head = 0;
+    this.tail = 1;
+    this.nodesExpanded = 0;
+    this.peakFrontier = 1;
+    this.done = false;
+    this.found = false;
+  }
+
+
+  // expands the next node of the search, and returns it or -1 once the search is done
+  int step() {
+    if (this.done || this.head == this.tail) {
+      this.done = true;
+      return -1;
+    }
+
+    int next;
+    if (this.algorithm.equals(MazeSolver.BFS)) {
+      next = this.worklist[this.head];
+      this.head++;
+    }
+    else {
+      this.tail--;
+      next = this.worklist[this.tail];
+    }
+    this.nodesExpanded++;
+
+    if (this.nodeCells[next] == this.goal) {
+      this.done = true;
+      this.found = true;
+      return next;
+    }
+
+    // adding this node's unvisited neighbors to the worklist
+    for (int edge = this.edgeOffsets[next]; edge < this.edgeOffsets[next + 1]; edge++) {
+      int target = this.edgeTargets[edge];
+      if ((this.visited[target >>> 6] & (1L << target)) == 0) {
+        this.visited[target >>> 6] |= 1L << target;
+        this.parentEdges[target] = edge;
+        this.parentNodes[target] = next;
+        this.worklist[this.tail] = target;
+        this.tail++;
+      }
+    }
+    this.peakFrontier = Math.max(this.peakFrontier, this.tail - this.head);
+    return next;
+  }
+
+
+  // the cells along the corridor of the given edge, from the cell after the node it starts from
+  // up to and including the cell of the node at its other end
+  int[] corridor(int edge) {
+    int[] cells = new int[this.edgeLengths[edge]];
+    int source = this.sourceOf(edge);
+    this.walk(this.nodeCells[source], edge, cells, 0);
+    return cells;
+  }
+
+
+  // the node the given edge starts from
+  int sourceOf(int edge) {
+    int node = Arrays.binarySearch(this.edgeOffsets, edge);
+    if (node < 0) {
+      return -node - 2;
+    }
+
+    // nodes without edges share their offset with the next node
+    while (this.edgeOffsets[node + 1] == edge) {
+      node++;
+    }
+    return node;
+  }
+
+
+  // fills out with the cells along the corridor of the given edge starting at index, where from
+  // is the cell of the node the edge starts from, and returns the index after the last one
+  int walk(int from, int edge, int[] out, int index) {
+    int target = this.nodeCells[this.edgeTargets[edge]];
+    int previous = from;
+    int current = this.edgeFirstCells[edge];
+    out[index] = current;
+    index++;
+    while (current != target) {
+      this.grid.openNeighbors(current, this.neighbors);
+      int next = this.neighbors[0];
+      if (next == previous) {
+        next = this.neighbors[1];
+      }
+      previous = current;
+      current = next;
+      out[index] = current;
+      index++;
+    }
+    return index;
+  }
+
+
+  // the cells on the path the search found from the start to the goal, found by walking the
+  // corridor of every edge between the nodes on it
+  int[] path() {
+    int goal = Arrays.binarySearch(this.nodeCells, this.goal);
+    int length = 1;
+    int edges = 0;
+    for (int node = goal; this.parentEdges[node] >= 0; node = this.parentNodes[node]) {
+      length += this.edgeLengths[this.parentEdges[node]];
+      edges++;
+    }
+
+    // the edges from the goal back to the start, walked from the start to the goal
+    int[] order = new int[edges];
+    for (int node = goal; this.parentEdges[node] >= 0; node = this.parentNodes[node]) {
+      edges--;
+      order[edges] = node;
+    }
+    int[] path = new int[length];
+    path[0] = this.start;
+    int index = 1;
+    for (int node : order) {
+      index = this.walk(this.nodeCells[this.parentNodes[node]], this.parentEdges[node], 
+          path, index);
+    }
+    return path;
+  }
+}
@@ -0,0 +1,87 @@
+import java.util.*;
+
+
+// generates a maze with Kruskal's algorithm on a grid alone, without any Vertex objects. Every
+// edge is equally likely to be next, so instead of sorting the edges by random weights they are
+// shuffled with a Fisher-Yates shuffle, which only runs until the spanning tree is complete
+class KruskalGenerator {
+  MazeGrid grid;
+  Random rand;
+  int[] order; // the index in the grid of every possible edge, shuffled as they are considered
+  UnionFind sets; // the cells that are already connected to each other
+  int next; // the position in the order of the last edge that is yet to be considered
+  int edgesExamined; // the number of edges considered so far
+  int edgesAdded; // the number of passages opened so far
+
+
+
+  // generates a maze in the given grid, whose walls must all be in place, with the given random
+  KruskalGenerator(MazeGrid grid, Random rand) {
+    this(grid, rand, KruskalGenerator.allEdges(grid), new UnionFind(grid.width * grid.height));
+  }
+
+
+  // generates a maze in the given grid with the given random, shuffling the given edges, which
+  // must be every edge of the grid in order, and joining the cells of the given union-find,
+  // which must have every cell in a set of its own
+  KruskalGenerator(MazeGrid grid, Random rand, int[] order, UnionFind sets) {
+    this.grid = grid;
+    this.rand = rand;
+    this.order = order;
+    this.sets = sets;
+    this.next = order.length - 1;
+  }
+
+
+  // starts generating again with the given random, once the order has been put back in order and
+  // every cell of the union-find back in a set of its own
+  void restart(Random rand) {
+    this.rand = rand;
+    this.next = this.order.length - 1;
+    this.edgesExamined = 0;
+    this.edgesAdded = 0;
+  }
+
+
+  // every edge of the given grid, in order of its index
+  static int[] allEdges(MazeGrid grid) {
+    int[] order = new int[grid.edgeCount()];
+    for (int e = 0; e < order.length; e++) {
+      order[e] = e;
+    }
+    return order;
+  }
+
+
+  // generates the whole maze, removing the wall of every passage from the grid
+  void generate() {
+    long start = MazeMetrics.start();
+    for (int edge = this.nextPassage(); edge >= 0; edge = this.nextPassage()) {
+      this.grid.removeWall(this.grid.edgeFrom(edge), this.grid.edgeTo(edge));
+    }
+    MazeMetrics.METRICS.recordGeneration(start, this.edgesExamined, this.edgesAdded, this.sets);
+  }
+
+
+  // considers edges in a random order until one of them joins two cells that aren't connected
+  // yet, where each step swaps a random edge out of the ones not yet considered into the back of
+  // the order and considers it, and returns that edge, or -1 once the spanning tree is complete.
+  // The wall of the edge is left for the caller to remove
+  int nextPassage() {
+    int cells = this.grid.width * this.grid.height;
+    while (this.edgesAdded < cells - 1) {
+      this.edgesExamined++;
+      int swap = this.rand.nextInt(this.next + 1);
+      int edge = this.order[swap];
+      this.order[swap] = this.order[this.next];
+      this.order[this.next] = edge;
+      this.next--;
+
+      if (this.sets.union(this.grid.edgeFrom(edge), this.grid.edgeTo(edge))) {
+        this.edgesAdded++;
+        return edge;
+      }
+    }
+    return -1;
+  }
+}
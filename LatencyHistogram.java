@@ -0,0 +1,81 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// counts latencies in buckets that each cover twice the range of the one before, so recording
+// a latency is a few atomic additions and percentiles are accurate to within a factor of two
+class LatencyHistogram {
+  AtomicLongArray buckets; // bucket i counts the latencies of at least 2^(i - 1) nanoseconds and
+  // below 2^i nanoseconds, with bucket 0 counting the latencies of 0
+  LongAdder count;
+  LongAdder total; // the sum of every latency in nanoseconds
+  AtomicLong max;
+
+
+
+  LatencyHistogram() {
+    this.buckets = new AtomicLongArray(64);
+    this.count = new LongAdder();
+    this.total = new LongAdder();
+    this.max = new AtomicLong();
+  }
+
+
+  // records the given latency in nanoseconds
+  void record(long nanos) {
+    nanos = Math.max(0, nanos);
+    this.buckets.incrementAndGet(Math.min(63, 64 - Long.numberOfLeadingZeros(nanos)));
+    this.count.increment();
+    this.total.add(nanos);
+    LatencyHistogram.raise(this.max, nanos);
+  }
+
+
+  // raises the given value to the candidate if the candidate is larger, even while other threads
+  // are raising it too
+  static void raise(AtomicLong value, long candidate) {
+    long current = value.get();
+    while (candidate > current && !value.compareAndSet(current, candidate)) {
+      current = value.get();
+    }
+  }
+
+
+  // records the time since the given start, unless the start is 0 because metrics were off
+  void recordSince(long start) {
+    if (start != 0) {
+      this.record(System.nanoTime() - start);
+    }
+  }
+
+
+  // an upper bound of the given percentile of the latencies, which is the top of the bucket it
+  // falls in but never more than the largest latency, or 0 if nothing has been recorded
+  long percentile(double percentile) {
+    long count = 0;
+    for (int i = 0; i < 64; i++) {
+      count += this.buckets.get(i);
+    }
+    long rank = (long) Math.ceil(percentile / 100 * count);
+    long seen = 0;
+    for (int i = 0; i < 64 && count > 0; i++) {
+      seen += this.buckets.get(i);
+      if (seen >= Math.max(1, rank)) {
+        return Math.min(this.max.get(), (1L << i) - 1);
+      }
+    }
+    return this.max.get();
+  }
+
+
+  // forgets every latency
+  void reset() {
+    for (int i = 0; i < 64; i++) {
+      this.buckets.set(i, 0);
+    }
+    this.count.reset();
+    this.total.reset();
+    this.max.set(0);
+  }
+}
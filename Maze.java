@@ -1,7 +1,26 @@
 import tester.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javalib.impworld.*;
 import java.awt.Color;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
 import javalib.worldimages.*;
 
 
@@ -10,12 +29,13 @@ class Vertex {
   int x;
   int y;
   Color color;
+  byte state; // the color of the vertex as an index into the palette of MazeExporter, which is
+  // what a MazeRaster draws it in
   boolean topBorder;
   boolean leftBorder;
   boolean bottomBorder;
   boolean rightBorder;
   ArrayList<Vertex> borderingVerticesInMaze;
-  Vertex parent; // each vertex's previous vertex, used for retracing the solution path
 
 
 
@@ -31,6 +51,21 @@ class Vertex {
   }
 
 
+  // puts every border of the vertex back and forgets its bordering vertices, so that it can be
+  // reused for a new maze of the same size, with the color at the given index of the palette of
+  // MazeExporter. The list of bordering vertices is cleared rather than replaced, so it keeps
+  // its capacity
+  void reset(byte state) {
+    this.color = MazeExporter.PALETTE[state];
+    this.state = state;
+    this.topBorder = true;
+    this.leftBorder = true;
+    this.bottomBorder = true;
+    this.rightBorder = true;
+    this.borderingVerticesInMaze.clear();
+  }
+
+
   // draws a singular vertex and its surrounding borders
   void drawVertexAndBorders(WorldScene scene, int size, int width, int height) {
 
@@ -85,9 +120,10 @@ class Edge implements Comparable<Edge> {
   }
 
 
-  // comparing two edges by weight to determine which comes first when sorting
+  // comparing two edges by weight to determine which comes first when sorting, without
+  // subtracting the weights so that weights far apart can't overflow
   public int compareTo(Edge other) {
-    return this.weight - other.weight;
+    return Integer.compare(this.weight, other.weight);
   }
 }
 
@@ -96,22 +132,70 @@ class Edge implements Comparable<Edge> {
 
 
 // represents the maze and its properties
-class Maze extends World {
+class Maze extends World implements IRowSink {
+  // the algorithms that can generate a maze
+  static final String KRUSKAL = "kruskal";
+  static final String ELLER = "eller";
+  static final String PARALLEL = "parallel";
+
+  // the seconds between two ticks of the game
+  static final double TICK_RATE = 1.0 / 100.0;
+
+  // the time each tick may spend on the animation when it is limited by time instead of steps,
+  // and the bounds that the speed of the animation can be changed within. A tick never takes more
+  // than half of the time between two ticks, so the game still has time to draw every frame and
+  // handle the keys that are pressed
+  static final long DEFAULT_TICK_BUDGET_NANOS = 4000000;
+  static final long MIN_TICK_BUDGET_NANOS = 1000000;
+  static final long MAX_TICK_BUDGET_NANOS = (long) (Maze.TICK_RATE * 1e9 / 2);
+  static final int MAX_STEPS_PER_TICK = 1 << 20;
+
+  // the color of the vertices a search has seen, shared so that a search step doesn't create one
+  static final Color SEEN_COLOR = new Color(58, 188, 229);
+  // the color of the vertices a dfs has seen, so that it stands out from the searches beside it
+  static final Color DFS_COLOR = Color.ORANGE;
+
   int width; 
   int height; 
-  Random rand;
+  Random rand; // the random that generates the maze, and generates it again when 'r' is pressed
+  long seed; // the seed of rand when the maze was generated, only meaningful if seeded is true
+  boolean seeded; // whether the maze was generated from a known seed
+  String generator; // the algorithm that generates the maze, either KRUSKAL, ELLER or PARALLEL
+  MazeGrid grid; // the compact walls of the maze
+  PathIndex pathIndex; // answers path queries between any two cells, only built by pathIndex()
   ArrayList<ArrayList<Vertex>> vertices; // all of the vertices in the maze
-  ArrayList<Edge> allEdges; // all of the possible edges between every vertex in the maze
-  ArrayList<Edge> edgesInMaze; // all of the edges in the maze, produced by Kruskal's algorithm
-  boolean bfs; // whether or not a bfs is being done on the maze
-  boolean dfs; // whether or not a dfs is being done on the maze
-  Deque<Vertex> bfsWorklist;  // the worklist for performing a bfs on the maze
-  Stack<Vertex> dfsWorklist; // the worklist for performing a dfs on the maze
-  ArrayList<Vertex> seen; // the list of elements that have been seen while traversing the maze
+  ArrayList<Edge> edgesInMaze; // all of the edges in the maze, only built by edgesInMaze()
+  int[] edgeOrder; // the index in the grid of every possible edge, shuffled by Kruskal's algorithm.
+  // Only kept between makeAllEdges and generateEdgesOfMaze, unless the maze is regenerated
+  UnionFind regenerationSets; // the union-find of Kruskal's algorithm, kept along with edgeOrder
+  // so that regenerating the maze doesn't allocate them again, or null if it hasn't been
+  // regenerated in place since its vertices were made
+  KruskalGenerator regenerationKruskal; // the generator over edgeOrder and regenerationSets, kept
+  // along with them so that regenerating the maze doesn't allocate it again either
+  ArrayList<MazeSolver> searches; // the searches being performed on the grid of the maze side by
+  // side, each keeping its search in a state of its own that the colors of the vertices come from
+  MazeWeights weights; // the costs of moving through the maze that dijkstra's algorithm finds
+  // the cheapest path by, or null if every move costs the same
+  JunctionGraph junctions; // the graph of junctions being searched with a bfs, or null if it
+  // isn't being searched
   boolean currentlySearchingMaze;
   boolean mazeSolved;
-  Vertex currentRetracingVertex; // determines the current vertex that we are starting from 
-  // to retrace the solution path
+  int[] solution; // the cells of the path found by the first search to reach the last vertex,
+  // from the first vertex to the last, or null if the maze hasn't been solved
+  int retracing; // the position in the solution of the next vertex to retrace, which counts down
+  // from the last vertex to the first
+  WorldScene scene; // the scene of the last frame, or null if the maze has to be drawn again
+  ArrayList<Vertex> changedVertices; // the vertices whose colors have changed since the scene
+  // was last drawn
+  MazeRaster wallLayer; // the walls of the maze and the colors of its vertices before it is
+  // searched, drawn into a single image once per generated maze
+  LinkedHashSet<Vertex> overlaid; // the vertices whose colors differ from the wall layer, which
+  // are drawn on top of it on every frame
+  MazeRaster raster; // the image the maze is drawn into instead of the scene graph, or null to
+  // draw every vertex through the scene graph
+  int stepsPerTick; // the number of steps of a search or retrace performed on every tick
+  long tickBudgetNanos; // the time each tick may spend performing steps, or 0 to perform
+  // stepsPerTick steps on every tick instead
 
 
   // size of width and height of the rectangle for each vertex calculated using the width and 
@@ -120,43 +204,115 @@ class Maze extends World {
   final int vertexSize;
 
 
-  // constructor for playing the game with an inputed width and height
+  // constructor for playing the game with an inputed width and height. Mazes too large to be
+  // drawn are only kept in their compact grid, without any Vertex or Edge objects
   Maze(int width, int height) {
-    this.width = new Utils().checkRange(width, 2, 100, "Width must be between 2 and 100");
-    this.height = new Utils().checkRange(height, 2, 100, "Height must be between 2 and 100");
-    this.rand = new Random();
-    this.vertexSize = Math.min(600 / this.height, 1000 / this.width);
-    this.makeVertices();
-    this.makeAllEdges();
-    this.generateEdgesOfMaze();
-    this.bfs = false;
-    this.dfs = false;
-    this.bfsWorklist = new ArrayDeque<Vertex>();
-    this.dfsWorklist = new Stack<Vertex>();
-    this.seen = new ArrayList<Vertex>();
-    this.currentlySearchingMaze = false;
-    this.mazeSolved = false;
-    this.currentRetracingVertex = this.vertices.get(this.width - 1).get(this.height - 1);
+    this(width, height, new Random().nextLong(), Maze.KRUSKAL);
+  }
+
+
+  // constructor for a maze with an inputed width and height that is generated by the given
+  // algorithm from a known seed, so that the same maze can be generated again from it
+  Maze(int width, int height, long seed, String generator) {
+    this(width, height, new Random(seed), generator);
+    this.seed = seed;
+    this.seeded = true;
+    this.rand = Maze.regenerationRandom(seed);
+  }
+
+
+  // constructor for a maze with an inputed width and height that is generated by the given
+  // algorithm from a known seed, like the constructor above, but taken from the given cache
+  // instead of being generated again if the cache already has it
+  Maze(int width, int height, long seed, String generator, MazeCache cache) {
+    this(width, height, new Random(seed), generator, cache.get(width, height, seed, generator));
+    this.seed = seed;
+    this.seeded = true;
+    this.rand = Maze.regenerationRandom(seed);
+  }
+
+
+  // the random that generates the mazes that follow a maze generated from the given seed. A maze
+  // taken from a cache never uses its own random, so rather than going on from wherever
+  // generating the maze left its random, both kinds of seeded maze start again from this one and
+  // 'r' generates the same new maze whether the first one came from a cache or not
+  static Random regenerationRandom(long seed) {
+    return new Random(new SplittableRandom(seed).nextLong());
+  }
+
+
+  // checks that the given generator is one of the generators of a maze
+  static void checkGenerator(String generator) {
+    if (!generator.equals(Maze.KRUSKAL) && !generator.equals(Maze.ELLER) 
+        && !generator.equals(Maze.PARALLEL)) {
+      throw new IllegalArgumentException("Generator must be kruskal, eller or parallel");
+    }
+  }
+
+
+  // generates the walls of the maze that new Maze(width, height, seed, generator) has into a grid
+  // alone, without the maze or any of its Vertex objects, for callers that only need the walls
+  static MazeGrid generateGrid(int width, int height, long seed, String generator) {
+    new Utils().checkRange(width, 2, MazeGrid.MAX_SIDE, 
+        "Width must be between 2 and " + MazeGrid.MAX_SIDE);
+    new Utils().checkRange(height, 2, MazeGrid.MAX_SIDE, 
+        "Height must be between 2 and " + MazeGrid.MAX_SIDE);
+    Maze.checkGenerator(generator);
+    MazeGrid grid = new MazeGrid(width, height);
+    Random rand = new Random(seed);
+    if (generator.equals(Maze.ELLER)) {
+      new EllerGenerator(width, height, rand).generate(grid);
+    }
+    else if (generator.equals(Maze.PARALLEL)) {
+      new ParallelGenerator(grid, rand.nextLong(), ParallelGenerator.TILE_SIZE)
+          .generate(ForkJoinPool.commonPool());
+    }
+    else {
+      new KruskalGenerator(grid, rand).generate();
+    }
+    return grid;
   }
 
 
   // constructor for testing the game with an inputed width and height and a seeded random
   Maze(int width, int height, Random rand) {
-    this.width = new Utils().checkRange(width, 2, 100, "Width must be between 2 and 100");
-    this.height = new Utils().checkRange(height, 2, 100, "Height must be between 2 and 100");
+    this(width, height, rand, Maze.KRUSKAL);
+  }
+
+
+  // constructor for a maze with an inputed width and height, a seeded random and the algorithm
+  // that generates it
+  Maze(int width, int height, Random rand, String generator) {
+    this(width, height, rand, generator, null);
+  }
+
+
+  // constructor for a maze with an inputed width and height, a seeded random and the algorithm
+  // that generates it, which has the walls of the given cached maze instead of generating them
+  // if it isn't null
+  Maze(int width, int height, Random rand, String generator, CachedMaze cached) {
+    this.width = new Utils().checkRange(width, 2, MazeGrid.MAX_SIDE, 
+        "Width must be between 2 and " + MazeGrid.MAX_SIDE);
+    this.height = new Utils().checkRange(height, 2, MazeGrid.MAX_SIDE, 
+        "Height must be between 2 and " + MazeGrid.MAX_SIDE);
+    Maze.checkGenerator(generator);
     this.rand = rand;
+    this.generator = generator;
     this.vertexSize = Math.min(600 / this.height, 1000 / this.width);
     this.makeVertices();
-    this.makeAllEdges();
-    this.generateEdgesOfMaze();
-    this.bfs = false;
-    this.dfs = false;
-    this.bfsWorklist = new ArrayDeque<Vertex>();
-    this.dfsWorklist = new Stack<Vertex>();
-    this.seen = new ArrayList<Vertex>();
+    if (cached == null) {
+      this.generateMaze();
+    }
+    else {
+      this.loadMaze(cached);
+    }
+    this.searches = new ArrayList<MazeSolver>();
+    this.junctions = null;
+    this.stepsPerTick = 1;
+    this.tickBudgetNanos = 0;
     this.currentlySearchingMaze = false;
     this.mazeSolved = false;
-    this.currentRetracingVertex = this.vertices.get(this.width - 1).get(this.height - 1);
+    this.solution = null;
   }
 
 
@@ -166,17 +322,116 @@ class Maze extends World {
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  // draws the world
+  // draws the world. The walls of the maze are only drawn once per generated maze, into a single
+  // image, after which every frame is a new scene of that image with just the vertices whose
+  // colors differ from it drawn on top, so a frame never has to draw the whole maze again
   public WorldScene makeScene() {
-    WorldScene scene = 
+    long start = MazeMetrics.start();
+    int cellsDrawn;
+    if (this.raster != null) {
+      cellsDrawn = this.drawRaster();
+    }
+    else {
+      cellsDrawn = this.drawWallLayer();
+    }
+    this.changedVertices.clear();
+    MazeMetrics.METRICS.recordFrame(start, cellsDrawn);
+    return this.scene;
+  }
+
+
+  // draws the wall layer of the maze if the maze has to be drawn again, and then a new scene of
+  // the wall layer with the vertices whose colors differ from it on top. Returns the number of
+  // vertices drawn
+  int drawWallLayer() {
+    int cellsDrawn = 0;
+    if (this.scene == null && this.isDrawable()) {
+      if (this.wallLayer == null || this.wallLayer.grid != this.grid) {
+        this.wallLayer = new MazeRaster(this.grid, this.vertexSize);
+      }
+      this.wallLayer.states[0] = MazeExporter.START;
+      this.wallLayer.states[this.width * this.height - 1] = MazeExporter.END;
+      this.wallLayer.drawAll();
+      this.overlaid.clear();
+      this.changedVertices.clear();
+      for (ArrayList<Vertex> row : this.vertices) {
+        this.changedVertices.addAll(row);
+      }
+      cellsDrawn = this.width * this.height;
+    }
+    else {
+      cellsDrawn = this.changedVertices.size();
+    }
+
+    // only the vertices that have changed can have started or stopped differing from the layer
+    for (Vertex v : this.changedVertices) {
+      if (v.color.equals(this.determineColor(v.x, v.y))) {
+        this.overlaid.remove(v);
+      }
+      else {
+        this.overlaid.add(v);
+      }
+    }
+
+    this.scene = 
+        new WorldScene(this.vertexSize * this.width + 5, this.vertexSize * this.height + 5);
+    if (this.isDrawable()) {
+      this.scene.placeImageXY(this.wallLayer.shown, this.wallLayer.pixelWidth / 2, 
+          this.wallLayer.pixelHeight / 2);
+      this.drawOverlaidVertices(this.scene);
+    }
+    return cellsDrawn;
+  }
+
+
+  // draws the vertices whose colors differ from the wall layer onto the scene
+  void drawOverlaidVertices(WorldScene scene) {
+    for (Vertex v : this.overlaid) {
+      v.drawVertexAndBorders(scene, this.vertexSize, this.width, this.height);
+    }
+  }
+
+
+  // draws the vertices that have changed since the last frame into the raster, or the whole maze
+  // if the scene has to be drawn from scratch, and shows the raster as the only image of a new
+  // scene. A maze that has been generated again gets a new raster. Returns the number of
+  // vertices drawn
+  int drawRaster() {
+    if (this.raster.grid != this.grid) {
+      this.raster = new MazeRaster(this.grid, this.vertexSize);
+    }
+
+    int cellsDrawn;
+    if (this.scene == null) {
+      for (int i = 0; i < this.width; i++) {
+        for (int j = 0; j < this.height; j++) {
+          this.raster.states[this.index(i, j)] = this.vertices.get(i).get(j).state;
+        }
+      }
+      this.raster.drawAll();
+      cellsDrawn = this.width * this.height;
+    }
+    else {
+      for (Vertex v : this.changedVertices) {
+        this.raster.setCell(this.index(v.x, v.y), v.state);
+      }
+      cellsDrawn = this.changedVertices.size();
+    }
+
+    this.scene = 
         new WorldScene(this.vertexSize * this.width + 5, this.vertexSize * this.height + 5);
-    this.drawVerticesAndBorders(scene);
-    return scene;
+    this.scene.placeImageXY(this.raster.shown, this.raster.pixelWidth / 2, 
+        this.raster.pixelHeight / 2);
+    return cellsDrawn;
   }
 
 
   // draws all of the vertices onto the scene
   void drawVerticesAndBorders(WorldScene scene) {
+    if (!this.isDrawable()) {
+      return;
+    }
+
     for (int i = 0; i < width; i++) {
       for (int j = 0; j < height; j++) {
         Vertex v = this.vertices.get(i).get(j);
@@ -192,20 +447,40 @@ class Maze extends World {
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  // determines what happens every tick
+  // determines what happens every tick, which is to perform stepsPerTick steps of the animation,
+  // or as many as fit in tickBudgetNanos if the animation is limited by time, so that large
+  // mazes can be solved in a bounded number of ticks
   public void onTick() {
+    if (this.tickBudgetNanos > 0) {
+      long deadline = System.nanoTime() + this.tickBudgetNanos;
+      do {
+        this.step();
+      } while (this.currentlySearchingMaze && System.nanoTime() - deadline < 0);
+    }
+    else {
+      for (int i = 0; i < this.stepsPerTick && this.currentlySearchingMaze; i++) {
+        this.step();
+      }
+    }
+  }
+
 
-    // searches one vertex on every tick with a bfs if the maze isn't already solved
-    if (this.bfs && !this.mazeSolved) {
-      this.bfs();
+  // performs one step of the animation
+  void step() {
+
+    // searches one vertex on every step with each of the searches of the grid if the maze isn't
+    // already solved
+    if (!this.searches.isEmpty() && !this.mazeSolved) {
+      this.searchGrid();
     }
 
-    // searches one vertex on every tick with a dfs if the maze isn't already solved
-    if (this.dfs && !this.mazeSolved) {
-      this.dfs();
+    // searches one junction on every step with a bfs of the junction graph if the maze isn't
+    // already solved
+    if (this.junctions != null && !this.mazeSolved) {
+      this.searchJunctions();
     }
 
-    // retraces one vertex of the solution path on every tick once the maze is solved
+    // retraces one vertex of the solution path on every step once the maze is solved
     if (this.mazeSolved && this.currentlySearchingMaze) {
       this.retraceSolution();
     }
@@ -215,44 +490,107 @@ class Maze extends World {
   // determines what happened when a key is pressed
   public void onKeyEvent(String key) {
 
-    // starts performing a bfs if the maze has not already been solved with a dfs
-    if (key.equals("b") && !this.dfs) {
-      this.currentlySearchingMaze = true;
-      this.bfsWorklist.add(this.vertices.get(0).get(0));
-      this.bfs = true;
+    // starts performing a bfs, beside any other search of the grid that is already running
+    if (key.equals("b")) {
+      this.startSearch(MazeSolver.BFS);
+    }
+
+    // starts performing a dfs, beside any other search of the grid that is already running
+    if (key.equals("d")) {
+      this.startSearch(MazeSolver.DFS);
     }
 
-    // starts performing a dfs if the maze has not already been solved with a bfs
-    if (key.equals("d") && !this.bfs) {
+    // starts performing an A* search, beside any other search of the grid that is already running
+    if (key.equals("a")) {
+      this.startSearch(MazeSolver.ASTAR);
+    }
+
+    // starts performing a bidirectional bfs, which meets in the middle, beside any other search
+    // of the grid that is already running
+    if (key.equals("m")) {
+      this.startSearch(MazeSolver.BIDIRECTIONAL);
+    }
+
+    // starts performing dijkstra's algorithm, which finds the cheapest path by the weights of the
+    // maze, beside any other search of the grid that is already running
+    if (key.equals("w")) {
+      this.startSearch(MazeSolver.DIJKSTRA);
+    }
+
+    // starts performing a bfs of the junction graph of the maze, which expands a whole corridor
+    // at a time, if the maze has not already been solved and isn't being searched otherwise
+    if (key.equals("j") && this.searches.isEmpty() && this.junctions == null 
+        && !this.mazeSolved && this.isDrawable()) {
       this.currentlySearchingMaze = true;
-      this.dfsWorklist.add(this.vertices.get(0).get(0));
-      this.dfs = true;
+      this.junctions = new JunctionGraph(this.grid, 0, this.width * this.height - 1);
+      this.junctions.begin(MazeSolver.BFS);
     }
 
-    // clears the maze so that it can be solved again with either of the searching algorithms
+    // clears the maze so that it can be solved again with any of the searching algorithms
     if (key.equals("c") && !this.currentlySearchingMaze) {
-      this.resetColors();
-      this.bfs = false;
-      this.dfs = false;
-      this.bfsWorklist.clear();
-      this.dfsWorklist.clear();
-      this.seen.clear();
-      this.mazeSolved = false;
-      this.currentRetracingVertex = this.vertices.get(this.width - 1).get(this.height - 1);
+      this.clearSearches();
+    }
+
+    // speeds the animation up by doubling the number of steps or the time of every tick
+    if (key.equals("+") || key.equals("=")) {
+      this.changeSpeed(true);
+    }
+
+    // slows the animation down by halving the number of steps or the time of every tick
+    if (key.equals("-")) {
+      this.changeSpeed(false);
+    }
+
+    // switches between drawing the maze into a single image and drawing every vertex through the
+    // scene graph, which then draws the whole maze again on the next frame
+    if (key.equals("i") && this.isDrawable()) {
+      if (this.raster == null) {
+        this.raster = new MazeRaster(this.grid, this.vertexSize);
+      }
+      else {
+        this.raster = null;
+      }
+      this.scene = null;
+    }
+
+    // switches between limiting every tick by its number of steps or by its time
+    if (key.equals("t")) {
+      if (this.tickBudgetNanos > 0) {
+        this.tickBudgetNanos = 0;
+      }
+      else {
+        this.tickBudgetNanos = Maze.DEFAULT_TICK_BUDGET_NANOS;
+      }
     }
 
     // generates a new maze and resets other parameters
     if (key.equals("r") && !this.currentlySearchingMaze) { 
-      this.makeVertices();
-      this.makeAllEdges();
-      this.generateEdgesOfMaze();
-      this.bfs = false;
-      this.dfs = false;
-      this.bfsWorklist.clear();
-      this.dfsWorklist.clear();
-      this.seen.clear();
-      this.mazeSolved = false;
-      this.currentRetracingVertex = this.vertices.get(this.width - 1).get(this.height - 1);
+      this.regenerate();
+      this.seeded = false;
+    }
+  }
+
+
+
+  // doubles the speed of the animation if faster is true and halves it otherwise, by changing
+  // the time of every tick if it is limited by time or else the number of steps of every tick
+  void changeSpeed(boolean faster) {
+    if (this.tickBudgetNanos > 0) {
+      long budget;
+      if (faster) {
+        budget = this.tickBudgetNanos * 2;
+      }
+      else {
+        budget = this.tickBudgetNanos / 2;
+      }
+      this.tickBudgetNanos = 
+          Math.max(Maze.MIN_TICK_BUDGET_NANOS, Math.min(Maze.MAX_TICK_BUDGET_NANOS, budget));
+    }
+    else if (faster) {
+      this.stepsPerTick = Math.min(Maze.MAX_STEPS_PER_TICK, this.stepsPerTick * 2);
+    }
+    else {
+      this.stepsPerTick = Math.max(1, this.stepsPerTick / 2);
     }
   }
 
@@ -263,74 +601,103 @@ class Maze extends World {
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  // generates the vertices needed for the maze based on the height and width
+  // generates the vertices needed for the maze based on the height and width, along with the
+  // compact grid that holds the walls of the maze
   void makeVertices() {
+    long start = MazeMetrics.start();
+    this.grid = new MazeGrid(this.width, this.height);
+    this.pathIndex = null;
+    this.scene = null;
+    this.edgeOrder = null;
+    this.regenerationSets = null;
+    this.regenerationKruskal = null;
+    this.changedVertices = new ArrayList<Vertex>();
+    this.overlaid = new LinkedHashSet<Vertex>();
     ArrayList<ArrayList<Vertex>> vertices = new ArrayList<ArrayList<Vertex>>();
-    for (int i = 0; i < width; i++) {
+    for (int i = 0; i < width && this.isDrawable(); i++) {
       ArrayList<Vertex> row = new ArrayList<Vertex>();
       for (int j = 0; j < height; j++) {
         Vertex v = new Vertex(i, j, this.determineColor(i, j));
+        v.state = this.determineState(i, j);
         row.add(v);
       }
       vertices.add(row);
     }
     this.vertices = vertices;
+    MazeMetrics.METRICS.makeVertices.recordSince(start);
+  }
+
+
+  // determines whether the maze is small enough to be drawn with at least one pixel per vertex.
+  // Only mazes that can be drawn keep Vertex and Edge objects alongside their grid
+  boolean isDrawable() {
+    return this.vertexSize > 0;
+  }
+
+
+  // the vertex at the end of the maze, or null if the maze is too large to keep its vertices
+  Vertex lastVertex() {
+    if (this.isDrawable()) {
+      return this.vertices.get(this.width - 1).get(this.height - 1);
+    }
+    else {
+      return null;
+    }
   }
 
 
   // determines the color of every vertex based on its x and y in relation to the width and height
   Color determineColor(int x, int y) {
+    return MazeExporter.PALETTE[this.determineState(x, y)];
+  }
+
+
+  // determines the color of every vertex like determineColor, as an index into the palette of
+  // MazeExporter
+  byte determineState(int x, int y) {
     if (x == 0 && y == 0) {
-      return Color.GREEN;
+      return MazeExporter.START;
     }
 
     else if (x == this.width - 1 && y == this.height - 1) {
-      return Color.RED;
+      return MazeExporter.END;
     }
 
     else {
-      return Color.LIGHT_GRAY;
+      return MazeExporter.BACKGROUND;
     }
   }
 
 
-  // generates all of the edges between the every adjacent pair of vertices in the maze
+  // generates all of the edges between the every adjacent pair of vertices in the maze, as their
+  // indices in the grid so that no Edge objects are needed to generate the maze. The edges of
+  // the last regeneration are put back in order instead if the maze still has them
   void makeAllEdges() {
-    ArrayList<Edge> edges = new ArrayList<Edge>();
-
-    // constructing the vertical edges
-    for (int i = 0; i < width; i++) {
-      for (int j = 0; j < height - 1; j++) {
-        Vertex from = this.vertices.get(i).get(j);
-        Vertex to = this.vertices.get(i).get(j + 1);
-        Edge e = new Edge(from, to, this.rand.nextInt(100000));
-        edges.add(e);
-      }
+    long start = MazeMetrics.start();
+    int[] order = this.edgeOrder;
+    if (order == null) {
+      order = new int[this.grid.edgeCount()];
     }
-
-    // constructing the horizontal edges
-    for (int i = 0; i < width - 1; i++) {
-      for (int j = 0; j < height; j++) {
-        Vertex from = this.vertices.get(i).get(j);
-        Vertex to = this.vertices.get(i + 1).get(j);
-        Edge e = new Edge(from, to, this.rand.nextInt(100000));
-        edges.add(e);
-      }
+    for (int e = 0; e < order.length; e++) {
+      order[e] = e;
     }
-
-    this.allEdges = edges;
+    this.edgeOrder = order;
+    MazeMetrics.METRICS.makeAllEdges.recordSince(start);
   }
 
 
   // resets all of the colors of the current maze to the default before a searching algorithm 
-  // is used if they have been changed while performing a searching algorithm on the maze
+  // is used if they have been changed while performing a searching algorithm on the maze, which
+  // means the whole maze has to be drawn again
   void resetColors() {
     for (int i = 0; i < width; i++) {
       for (int j = 0; j < height; j++) {
         Vertex v = this.vertices.get(i).get(j);
         v.color = this.determineColor(i, j);
+        v.state = this.determineState(i, j);
       }
     }
+    this.scene = null;
   }
 
 
@@ -340,55 +707,229 @@ class Maze extends World {
   ///////////////////////////////////////////////////////////////////////////////////////////////// 
 
 
-  // generate edges for maze using Kruskal's Algorithm
+  // generates the passages of the maze with the algorithm it was made with
+  void generateMaze() {
+    if (this.generator.equals(Maze.ELLER)) {
+      this.generateRowsOfMaze();
+    }
+    else if (this.generator.equals(Maze.PARALLEL)) {
+      this.generateTilesOfMaze(ForkJoinPool.commonPool());
+    }
+    else {
+      this.makeAllEdges();
+      this.generateEdgesOfMaze();
+    }
+  }
+
+
+  // generate edges for maze using Kruskal's Algorithm, removing the walls of the grid and, if the
+  // maze can be drawn, updating the borders and bordering vertices of its vertices. The edges are
+  // chosen by a KruskalGenerator over the edge order of the maze, so that a maze comes out the
+  // same as one generated on a grid alone from the same random
   void generateEdgesOfMaze() {
-    HashMap<Vertex, Vertex> representatives = new HashMap<Vertex, Vertex>();
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
-    ArrayList<Edge> worklist = new ArrayList<Edge>(this.allEdges);
-    Collections.sort(worklist);
+    long start = MazeMetrics.start();
+    UnionFind representatives = this.regenerationSets;
+    if (representatives == null) {
+      representatives = new UnionFind(this.width * this.height);
+    }
+    else {
+      representatives.reset();
+    }
 
-    // initialize every node's representative to itself
-    for (int i = 0; i < width; i++) {
-      for (int j = 0; j < height; j++) {
-        Vertex v = this.vertices.get(i).get(j);
-        representatives.put(v, v);
-      }
+    KruskalGenerator kruskal = this.regenerationKruskal;
+    if (kruskal == null) {
+      kruskal = new KruskalGenerator(this.grid, this.rand, this.edgeOrder, representatives);
+    }
+    else {
+      kruskal.restart(this.rand);
+    }
+    for (int edge = kruskal.nextPassage(); edge >= 0; edge = kruskal.nextPassage()) {
+      this.openPassage(this.grid.edgeFrom(edge), this.grid.edgeTo(edge));
     }
 
-    // constructing the minimum spanning tree
-    int totalVertices = this.height * this.width;
-    while (edgesInTree.size() < totalVertices - 1) {
-      Edge edge = worklist.remove(0);
-      Vertex from = edge.from;
-      Vertex to = edge.to;
-      if (!this.find(representatives, from).equals(this.find(representatives, to))) {
-        edgesInTree.add(edge);
-        this.updateBorders(from, to);
-        this.addBorderingVertices(from, to);
-        this.union(representatives, 
-            this.find(representatives, from),
-            this.find(representatives, to));
-      } 
+    // the order of the edges is only needed while generating, so unless the maze is regenerated
+    // in place it is released to keep the memory of large mazes down to their grid
+    if (this.regenerationSets == null) {
+      this.edgeOrder = null;
     }
+    else {
+      this.regenerationKruskal = kruskal;
+    }
+    this.edgesInMaze = null;
+    MazeMetrics.METRICS.recordGeneration(start, kruskal.edgesExamined, kruskal.edgesAdded,
+        representatives);
+  }
 
-    this.edgesInMaze = edgesInTree;
-  } 
 
+  // generates a new maze of the same size in place of this one. The walls of the grid are put
+  // back and every vertex is reset, keeping its list of bordering vertices, and Kruskal's
+  // algorithm reuses the edge order and union-find of the last regeneration, which are kept
+  // for the next one rather than released. So once a maze has been regenerated, regenerating it
+  // with Kruskal's algorithm allocates nothing. The other generators still allocate their own
+  // working memory
+  void regenerate() {
+    long start = MazeMetrics.start();
+    this.grid.resetWalls();
+    this.pathIndex = null;
+    this.edgesInMaze = null;
+    this.scene = null;
+    this.changedVertices.clear();
+    for (int i = 0; i < this.width && this.isDrawable(); i++) {
+      ArrayList<Vertex> row = this.vertices.get(i);
+      for (int j = 0; j < this.height; j++) {
+        row.get(j).reset(this.determineState(i, j));
+      }
+    }
+    MazeMetrics.METRICS.makeVertices.recordSince(start);
 
-  // finds the representative
-  <T> T find(HashMap<T, T> representatives, T t) {
-    if (representatives.get(t).equals(t)) {
-      return t;
+    if (this.generator.equals(Maze.KRUSKAL)) {
+      if (this.regenerationSets == null) {
+        this.regenerationSets = new UnionFind(this.width * this.height);
+      }
+      this.makeAllEdges();
+      this.generateEdgesOfMaze();
     }
     else {
-      return this.find(representatives, representatives.get(t));
+      this.generateMaze();
+    }
+
+    this.searches.clear();
+    this.junctions = null;
+    this.currentlySearchingMaze = false;
+    this.mazeSolved = false;
+    this.solution = null;
+  }
+
+
+  // the index of the paths between every pair of cells of the maze, which is only built the first
+  // time it is asked for after the maze is generated
+  PathIndex pathIndex() {
+    if (this.pathIndex == null) {
+      this.pathIndex = new PathIndex(this.grid);
+    }
+    return this.pathIndex;
+  }
+
+
+  // all of the edges in the maze as Edge objects, which are only built the first time they are
+  // asked for. Each edge's weight is its index in the grid, so sorting the edges puts them in the
+  // order the grid numbers them. Mazes too large to be drawn have no vertices, so no edges either
+  ArrayList<Edge> edgesInMaze() {
+    if (this.edgesInMaze == null) {
+      ArrayList<Edge> edges = new ArrayList<Edge>();
+      for (int e = 0; e < this.grid.edgeCount() && this.isDrawable(); e++) {
+        int from = this.grid.edgeFrom(e);
+        int to = this.grid.edgeTo(e);
+        boolean open;
+        if (to == from + 1) {
+          open = !this.grid.hasBottomWall(from);
+        }
+        else {
+          open = !this.grid.hasRightWall(from);
+        }
+
+        if (open) {
+          edges.add(new Edge(this.vertexAt(from), this.vertexAt(to), e));
+        }
+      }
+      this.edgesInMaze = edges;
+    }
+    return this.edgesInMaze;
+  }
+
+
+  // the vertex of a drawable maze with the given index in the grid
+  Vertex vertexAt(int cell) {
+    return this.vertices.get(cell / this.height).get(cell % this.height);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  //////////////////////////////////////// ELLER'S ALGORITHM //////////////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // generate the maze one row at a time using Eller's Algorithm, which hands every row to
+  // acceptRow as soon as it is decided
+  void generateRowsOfMaze() {
+    new EllerGenerator(this.width, this.height, this.rand).generate(this);
+    this.edgesInMaze = null;
+  }
+
+
+  // removes the walls of the grid that a row of the maze doesn't have and, if the maze can be
+  // drawn, updates the borders and bordering vertices of its vertices
+  public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+    for (int x = 0; x < this.width; x++) {
+      if (!rightWalls[x]) {
+        this.openPassage(this.index(x, y), this.index(x + 1, y));
+      }
+      if (!bottomWalls[x]) {
+        this.openPassage(this.index(x, y), this.index(x, y + 1));
+      }
+    }
+  }
+
+
+  // removes the wall between two adjacent vertices, where from is above or to the left of to
+  void openPassage(int from, int to) {
+    this.grid.removeWall(from, to);
+    if (this.isDrawable()) {
+      Vertex fromVertex = this.vertexAt(from);
+      Vertex toVertex = this.vertexAt(to);
+      this.updateBorders(fromVertex, toVertex);
+      this.addBorderingVertices(fromVertex, toVertex);
+    }
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////////////// PARALLEL GENERATION //////////////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // generate the maze in tiles on the given pool, seeded from the random of the maze so that a
+  // seeded maze comes out the same no matter how many threads the pool has
+  void generateTilesOfMaze(ForkJoinPool pool) {
+    new ParallelGenerator(this.grid, this.rand.nextLong(), ParallelGenerator.TILE_SIZE)
+        .generate(pool);
+    this.connectVertices();
+    this.edgesInMaze = null;
+  }
+
+
+  // gives the maze the walls of the given cached maze, which must be the same size
+  void loadMaze(CachedMaze cached) {
+    cached.loadWalls(this.grid);
+    this.connectVertices();
+    this.edgesInMaze = null;
+  }
+
+
+  // updates the borders and bordering vertices of the vertices of a drawable maze to match the
+  // passages of its grid, for generators that only work on the grid
+  void connectVertices() {
+    if (!this.isDrawable()) {
+      return;
+    }
+
+    for (int cell = 0; cell < this.width * this.height; cell++) {
+      if (!this.grid.hasRightWall(cell)) {
+        this.updateBorders(this.vertexAt(cell), this.vertexAt(cell + this.height));
+        this.addBorderingVertices(this.vertexAt(cell), this.vertexAt(cell + this.height));
+      }
+      if (!this.grid.hasBottomWall(cell)) {
+        this.updateBorders(this.vertexAt(cell), this.vertexAt(cell + 1));
+        this.addBorderingVertices(this.vertexAt(cell), this.vertexAt(cell + 1));
+      }
     }
   }
 
 
-  // unions the representatives
-  <T> void union(HashMap<T, T> representatives, T fromRepresentative, T toRepresentative) {
-    representatives.put(fromRepresentative, toRepresentative);
+  // computes the row-major index of the vertex at the given x and y, used to identify
+  // vertices in the primitive arrays of the maze
+  int index(int x, int y) {
+    return this.grid.index(x, y);
   }
 
 
@@ -424,103 +965,195 @@ class Maze extends World {
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  // performing a breadth-first-search
-  void bfs() {
+  // starts the given search of the grid from the first vertex to the last, with a search state of
+  // its own so that it runs side by side with any other search of the grid, unless the maze has
+  // already been solved or is already being searched the same way or through its junctions
+  void startSearch(String algorithm) {
+    if (this.mazeSolved || this.junctions != null || this.isSearching(algorithm)
+        || !this.isDrawable()) {
+      return;
+    }
+    MazeSolver search = new MazeSolver(this.grid, this.weights);
+    search.begin(0, this.width * this.height - 1, algorithm);
+    this.searches.add(search);
+    this.currentlySearchingMaze = true;
+
+    // beginning a search visits the first vertex, and for a bidirectional bfs the last one too
+    this.paint(0);
+    this.paint(this.width * this.height - 1);
+  }
 
-    // performing one iteration of the bfs if there is an element in the worklist
-    if (this.bfsWorklist.size() > 0) {
-      Vertex next = this.bfsWorklist.remove();
 
-      // checking to see if this element is the final vertex we are searching for and 
-      // updating fields as necessary
-      if (next.x == this.width - 1 && next.y == this.height - 1) {
-        next.color = new Color(58, 188, 229);
-        seen.add(next);
-        this.mazeSolved = true;
+  // determines whether the given search of the grid is already being performed
+  boolean isSearching(String algorithm) {
+    for (MazeSolver search : this.searches) {
+      if (search.algorithm.equals(algorithm)) {
+        return true;
       }
+    }
+    return false;
+  }
 
-      // adding this vertex's bordering vertices into the worklist if they are valid
-      // and updating fields as necessary
-      else {
-        next.color = new Color(58, 188, 229);
-        seen.add(next);
-        for (Vertex v : next.borderingVerticesInMaze) {
-          if (!seen.contains(v)) {
-            this.bfsWorklist.add(v);
-            v.parent = next;
-          }
+
+  // performs one step of every search of the grid, coloring the vertex each of them expands,
+  // until one of them reaches the last vertex and the path it found becomes the solution to
+  // retrace
+  void searchGrid() {
+    for (int i = 0; i < this.searches.size() && !this.mazeSolved; i++) {
+      MazeSolver search = this.searches.get(i);
+      long start = MazeMetrics.start();
+      int next = search.step();
+      if (next >= 0) {
+        this.paint(next);
+
+        if (search.algorithm.equals(MazeSolver.BFS)) {
+          MazeMetrics.METRICS.recordStep(MazeMetrics.METRICS.bfsStep, start,
+              search.tail - search.head);
+        }
+        else if (search.algorithm.equals(MazeSolver.DFS)) {
+          MazeMetrics.METRICS.recordStep(MazeMetrics.METRICS.dfsStep, start, search.tail);
         }
       }
+
+      if (search.done && search.meetingFrom >= 0) {
+        this.foundSolution(search.path());
+      }
     }
   }
 
 
-  // performs a depth-first-search
-  void dfs() {
-
-    // performing one iteration of the dfs if there is an element in the worklist
-    if (this.dfsWorklist.size() > 0) {
-      Vertex next = this.dfsWorklist.pop();
+  // the color of the given cell, drawn from the searches of the grid: the color of the first
+  // search that has visited it, or else its color before the maze was searched
+  Color colorOf(int cell) {
+    return MazeExporter.PALETTE[this.stateOf(cell)];
+  }
 
-      // checking to see if this element is the final vertex we are searching for and 
-      // updating fields as necessary
-      if (next.x == this.width - 1 && next.y == this.height - 1) {
-        next.color = new Color(58, 188, 229);
-        seen.add(next);
-        this.mazeSolved = true;
-      }
 
-      // adding this vertex's bordering vertices into the worklist if they are valid
-      // and updating fields as necessary
-      else {
-        next.color = new Color(58, 188, 229);
-        seen.add(next);
-        for (Vertex v : next.borderingVerticesInMaze) {
-          if (!seen.contains(v)) {
-            this.dfsWorklist.push(v);
-            v.parent = next;
-          }
-        }
+  // the color of the given cell as an index into the palette of MazeExporter, drawn from the
+  // searches of the grid the same way as colorOf
+  byte stateOf(int cell) {
+    for (MazeSolver search : this.searches) {
+      if (search.state.isVisited(cell)) {
+        return Maze.searchState(search.algorithm);
       }
     }
+    return this.determineState(cell / this.height, cell % this.height);
   }
 
 
-  // retraces the solution path from the last vertex to the starting one
-  void retraceSolution() {
-
-    // if the currentRetracingVertex is the starting vertex, change the searching field to false
-    if (this.currentRetracingVertex.x == 0 && this.currentRetracingVertex.y == 0) {
-      this.currentRetracingVertex.color = Color.blue;
-      this.currentlySearchingMaze = false;
+  // the index into the palette of MazeExporter of the color of the vertices visited by the
+  // given search
+  static byte searchState(String algorithm) {
+    if (algorithm.equals(MazeSolver.DFS)) {
+      return MazeExporter.DFS_VISITED;
     }
-
-    // change the color of the vertex and update the currentRetracingVertex to be the next one
     else {
-      this.currentRetracingVertex.color = Color.blue;
-      this.currentRetracingVertex = this.currentRetracingVertex.parent;
-
+      return MazeExporter.VISITED;
     }
   }
-}
 
 
+  // gives the vertex of the given cell the color that the searches give it. The color of a
+  // vertex only caches what stateOf finds, so that drawing a frame doesn't have to ask every
+  // search about every vertex
+  void paint(int cell) {
+    this.recolor(this.vertexAt(cell), this.stateOf(cell));
+  }
 
 
+  // gives the given vertex the color at the given index of the palette of MazeExporter, and
+  // draws it again on the next frame if its color changed
+  void recolor(Vertex v, byte state) {
+    Color color = MazeExporter.PALETTE[state];
+    if (!color.equals(v.color)) {
+      v.color = color;
+      v.state = state;
+      this.changedVertices.add(v);
+    }
+  }
 
-// class for utility methods
-class Utils {
 
-  // checks that the given value within the allowed range, and throws an exception if not
-  int checkRange(int val, int minimum, int maximum, String message) {
-    if (val >= minimum && val <= maximum) {
-      return val;
-    } 
-    else {
-      throw new IllegalArgumentException(message);
+  // performs one step of the bfs of the junction graph, coloring the junction it expands and the
+  // corridors to the junctions it reaches from there, and once the search is done makes the path
+  // it found the solution to retrace
+  void searchJunctions() {
+    int next = this.junctions.step();
+    if (next >= 0) {
+      this.recolor(this.vertexAt(this.junctions.nodeCells[next]), MazeExporter.VISITED);
+
+      for (int edge = this.junctions.edgeOffsets[next];
+          edge < this.junctions.edgeOffsets[next + 1] && !this.junctions.done; edge++) {
+        if (this.junctions.parentEdges[this.junctions.edgeTargets[edge]] == edge) {
+          for (int cell : this.junctions.corridor(edge)) {
+            this.recolor(this.vertexAt(cell), MazeExporter.VISITED);
+          }
+        }
+      }
+    }
+
+    if (this.junctions.done && this.junctions.found) {
+      this.foundSolution(this.junctions.path());
     }
   }
-}
+
+
+  // makes the given path from the first vertex to the last the solution of the maze, which is
+  // then retraced from its last vertex
+  void foundSolution(int[] path) {
+    this.solution = path;
+    this.retracing = path.length - 1;
+    this.mazeSolved = true;
+  }
+
+
+  // retraces one vertex of the solution path, going from the last vertex to the starting one
+  void retraceSolution() {
+    long start = MazeMetrics.start();
+    this.recolor(this.vertexAt(this.solution[this.retracing]), MazeExporter.SOLUTION);
+
+    // once the starting vertex has been retraced, the search is over
+    if (this.retracing == 0) {
+      this.currentlySearchingMaze = false;
+    }
+    else {
+      this.retracing--;
+    }
+    MazeMetrics.METRICS.retraceStep.recordSince(start);
+  }
+
+
+  // ends every search of the maze so that it can be solved again, and gives back their colors to
+  // only the vertices the searches visited, which are the only ones whose colors changed, so
+  // clearing doesn't walk the whole maze. The visited cells of a search of the grid are read from
+  // its state, and those of a bfs of the junction graph are the junctions it reached and the
+  // corridors it reached them along
+  void clearSearches() {
+    ArrayList<MazeSolver> searches = this.searches;
+    JunctionGraph junctions = this.junctions;
+    this.searches = new ArrayList<MazeSolver>();
+    this.junctions = null;
+    this.mazeSolved = false;
+    this.solution = null;
+
+    for (MazeSolver search : searches) {
+      for (int cell = search.state.nextVisited(0); cell >= 0;
+          cell = search.state.nextVisited(cell + 1)) {
+        this.paint(cell);
+      }
+    }
+
+    for (int node = 0; junctions != null && node < junctions.nodeCount(); node++) {
+      if ((junctions.visited[node >>> 6] & (1L << node)) != 0) {
+        this.paint(junctions.nodeCells[node]);
+        if (junctions.parentEdges[node] >= 0) {
+          for (int cell : junctions.corridor(junctions.parentEdges[node])) {
+            this.paint(cell);
+          }
+        }
+      }
+    }
+  }
+}
 
 
 
@@ -565,62 +1198,2538 @@ class ExamplesMaze {
     vertex4.topBorder = false;
     vertex4.leftBorder = false;
 
-    // adding the vertices and borders of this vertex manually to a scene and adding it to another
-    // scene with drawVertexAndBorder and checking to see if the two scenes are identical
-    WorldScene scene = new WorldScene(1000, 1000);
-    WorldScene manuallyDrawnScene = new WorldScene(1000, 1000);
+    // adding the vertices and borders of this vertex manually to a scene and adding it to another
+    // scene with drawVertexAndBorder and checking to see if the two scenes are identical
+    WorldScene scene = new WorldScene(1000, 1000);
+    WorldScene manuallyDrawnScene = new WorldScene(1000, 1000);
+
+    // adding the first vertex (which should be green) and its borders
+    vertex1.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
+    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.GREEN), 5, 5);
+    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 5, 0);
+    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 0, 5);
+    t.checkExpect(manuallyDrawnScene, scene);
+
+    // adding the second vertex (which should be gray) and its borders
+    vertex2.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
+    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.LIGHT_GRAY), 15, 5);
+    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 15, 0);
+    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 20, 5);
+    t.checkExpect(manuallyDrawnScene, scene);
+
+    // adding the third vertex (which should be gray) and its borders
+    vertex3.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
+    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.LIGHT_GRAY), 5, 15);
+    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 5, 20);
+    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 0, 15);
+    t.checkExpect(manuallyDrawnScene, scene);
+
+    // adding the fourth vertex (which should be red) and its borders
+    vertex4.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
+    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.RED), 15, 15);
+    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 15, 20);
+    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 20, 15);
+    t.checkExpect(manuallyDrawnScene, scene);
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  /////////////////////////////////// EXAMPLES AND TESTS FOR EDGE /////////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method compareTo
+  void testCompareTo(Tester t) {
+    Edge edge1 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 100);
+    Edge edge2 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 200);
+    Edge edge3 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 400);
+    Edge edge4 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 400);
+
+    t.checkExpect(edge1.compareTo(edge2), -1);
+    t.checkExpect(edge2.compareTo(edge1), 1);
+    t.checkExpect(edge1.compareTo(edge3), -1);
+    t.checkExpect(edge3.compareTo(edge1), 1);
+    t.checkExpect(edge2.compareTo(edge3), -1);
+    t.checkExpect(edge3.compareTo(edge2), 1);
+    t.checkExpect(edge2.compareTo(edge2), 0);
+    t.checkExpect(edge3.compareTo(edge4), 0);
+
+    // weights that are far apart don't overflow
+    Edge edge5 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 
+        Integer.MIN_VALUE);
+    Edge edge6 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 
+        Integer.MAX_VALUE);
+    t.checkExpect(edge5.compareTo(edge6), -1);
+    t.checkExpect(edge6.compareTo(edge5), 1);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  //////////////////////////////// EXAMPLES AND TESTS FOR UNIONFIND ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method reset of UnionFind
+  void testUnionFindReset(Tester t) {
+    UnionFind sets = new UnionFind(4);
+    sets.union(0, 1);
+    sets.union(2, 3);
+    sets.union(1, 3);
+    sets.reset();
+    t.checkExpect(sets.parents, new int[] {0, 1, 2, 3});
+    t.checkExpect(sets.ranks, new byte[4]);
+    t.checkExpect(sets.union(0, 3), true);
+  }
+
+
+  // test that a UnionFind counts its calls to find and union only while metrics are collected
+  void testUnionFindCounts(Tester t) {
+    UnionFind sets = new UnionFind(4);
+    t.checkExpect(sets.counting, MazeMetrics.enabled);
+
+    sets.counting = true;
+    sets.union(0, 1);
+    sets.union(1, 2);
+    sets.find(3);
+    t.checkExpect(sets.unions, 2L);
+    t.checkExpect(sets.finds, 5L);
+
+    sets.counting = false;
+    sets.union(2, 3);
+    t.checkExpect(sets.unions, 2L);
+    sets.reset();
+    t.checkExpect(sets.finds, 0L);
+  }
+
+
+  // test the method find
+  void testFind(Tester t) {
+    UnionFind representatives = new UnionFind(10);
+
+    // every cell starts out as its own representative
+    t.checkExpect(representatives.find(1), 1);
+    t.checkExpect(representatives.find(3), 3);
+
+    // changing the parents by hand to test if the method follows through the representatives
+    representatives.parents[5] = 3;
+    representatives.parents[3] = 8;
+    representatives.parents[8] = 9;
+
+    t.checkExpect(representatives.find(9), 9);
+    t.checkExpect(representatives.find(8), 9);
+    t.checkExpect(representatives.find(5), 9);
+
+    // the path that was followed should now be compressed to point directly at the root
+    t.checkExpect(representatives.parents[5], 9);
+    t.checkExpect(representatives.parents[3], 9);
+    t.checkExpect(representatives.parents[8], 9);
+  }
+
+
+  // test the method union
+  void testUnion(Tester t) {
+    UnionFind representatives = new UnionFind(10);
+
+    // unioning two cells of equal rank hangs the first under the second
+    t.checkExpect(representatives.union(1, 2), true);
+    t.checkExpect(representatives.parents[1], 2);
+    t.checkExpect(representatives.ranks[2], (byte) 1);
+
+    // unioning a single cell with a taller tree hangs the cell under the taller tree
+    t.checkExpect(representatives.union(2, 4), true);
+    t.checkExpect(representatives.parents[4], 2);
+    t.checkExpect(representatives.ranks[2], (byte) 1);
+
+    // unioning two cells that are already in the same set does nothing
+    t.checkExpect(representatives.union(1, 4), false);
+    t.checkExpect(representatives.find(1), 2);
+    t.checkExpect(representatives.find(4), 2);
+
+    // a long sequence of unions never builds a deep chain
+    UnionFind chain = new UnionFind(100000);
+    for (int i = 0; i < 99999; i++) {
+      chain.union(i, i + 1);
+    }
+    t.checkExpect(chain.find(0), chain.find(99999));
+    t.checkExpect(chain.ranks[chain.find(0)] <= 17, true);
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ///////////////////////////////// EXAMPLES AND TESTS FOR MAZEGRID ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the walls of a new grid and the method removeWall
+  void testRemoveWall(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+
+    // every cell starts out surrounded by walls
+    for (int cell = 0; cell < 6; cell++) {
+      t.checkExpect(grid.hasRightWall(cell), true);
+      t.checkExpect(grid.hasBottomWall(cell), true);
+      t.checkExpect(grid.hasLeftWall(cell), true);
+      t.checkExpect(grid.hasTopWall(cell), true);
+    }
+
+    // removing the wall between (0, 0) and (1, 0) opens the right of one and the left of the other
+    grid.removeWall(grid.index(0, 0), grid.index(1, 0));
+    t.checkExpect(grid.hasRightWall(grid.index(0, 0)), false);
+    t.checkExpect(grid.hasLeftWall(grid.index(1, 0)), false);
+    t.checkExpect(grid.hasBottomWall(grid.index(0, 0)), true);
+
+    // removing the wall between (2, 0) and (2, 1) opens the bottom of one and the top of the other
+    grid.removeWall(grid.index(2, 0), grid.index(2, 1));
+    t.checkExpect(grid.hasBottomWall(grid.index(2, 0)), false);
+    t.checkExpect(grid.hasTopWall(grid.index(2, 1)), false);
+    t.checkExpect(grid.hasRightWall(grid.index(2, 0)), true);
+
+    // walls are packed across several longs in larger grids
+    MazeGrid bigGrid = new MazeGrid(10, 10);
+    bigGrid.removeWall(70, 71);
+    t.checkExpect(bigGrid.hasBottomWall(70), false);
+    t.checkExpect(bigGrid.hasBottomWall(6), true);
+    t.checkExpect(bigGrid.hasRightWall(70), true);
+  }
+
+
+  // test the methods edgeCount, edgeFrom and edgeTo
+  void testGridEdges(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+
+    // 3 vertical edges followed by 4 horizontal edges
+    t.checkExpect(grid.edgeCount(), 7);
+    t.checkExpect(grid.edgeFrom(0), grid.index(0, 0));
+    t.checkExpect(grid.edgeTo(0), grid.index(0, 1));
+    t.checkExpect(grid.edgeFrom(2), grid.index(2, 0));
+    t.checkExpect(grid.edgeTo(2), grid.index(2, 1));
+    t.checkExpect(grid.edgeFrom(3), grid.index(0, 0));
+    t.checkExpect(grid.edgeTo(3), grid.index(1, 0));
+    t.checkExpect(grid.edgeFrom(6), grid.index(1, 1));
+    t.checkExpect(grid.edgeTo(6), grid.index(2, 1));
+
+    // grids whose edges can't all be numbered by an int, like an off-heap grid can be, are
+    // rejected rather than overflowing
+    t.checkException(new IllegalArgumentException("Mazes must have at most 2147483647 edges"),
+        new MazeGrid(32769, 32769, null), "edgeCount");
+  }
+
+
+  // test the methods isVisited, markVisited, nextVisited and clearSearch of SearchState
+  void testVisited(Tester t) {
+    SearchState state = new MazeGrid(10, 10).newSearchState();
+    t.checkExpect(state.parents.length, 100);
+    t.checkExpect(state.visited.length, 2);
+
+    t.checkExpect(state.isVisited(0), false);
+    t.checkExpect(state.isVisited(99), false);
+    t.checkExpect(state.nextVisited(0), -1);
+
+    state.markVisited(0);
+    state.markVisited(64);
+    state.parents[64] = 0;
+    t.checkExpect(state.isVisited(0), true);
+    t.checkExpect(state.isVisited(64), true);
+    t.checkExpect(state.isVisited(1), false);
+    t.checkExpect(state.isVisited(65), false);
+    t.checkExpect(state.nextVisited(0), 0);
+    t.checkExpect(state.nextVisited(1), 64);
+    t.checkExpect(state.nextVisited(64), 64);
+    t.checkExpect(state.nextVisited(65), -1);
+    t.checkExpect(state.nextVisited(128), -1);
+
+    state.clearSearch();
+    t.checkExpect(state.isVisited(0), false);
+    t.checkExpect(state.isVisited(64), false);
+    t.checkExpect(state.nextVisited(0), -1);
+    t.checkExpect(state.parents[64], 0);
+    t.checkExpect(MazeGrid.BYTES_PER_CELL, 0.25);
+    t.checkExpect(SearchState.BYTES_PER_CELL, 4.125);
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR OFFHEAPGRID ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the methods of an OffHeapGrid against the same methods of a MazeGrid, in chunks small
+  // enough that the walls are spread over several of them
+  void testOffHeapGrid(Tester t) {
+    OffHeapGrid grid = new OffHeapGrid(10, 10, 4);
+    t.checkExpect(grid.memory.bytes, 32L);
+    t.checkExpect(grid.memory.chunks.length, 2);
+    t.checkExpect(grid.memory.chunkSize(0), 16);
+    t.checkExpect(grid.memory.chunkSize(1), 16);
+    grid.allocateDirect();
+    t.checkExpect(grid.walls, null);
+    t.checkExpect(grid.memory.chunks[0].isDirect(), true);
+
+    MazeGrid heap = new MazeGrid(10, 10);
+    t.checkExpect(this.wallsOf(grid), heap.walls);
+    grid.removeWall(0, 1);
+    heap.removeWall(0, 1);
+    grid.removeWall(31, 41);
+    heap.removeWall(31, 41);
+    grid.removeWallConcurrently(64, 65);
+    heap.removeWallConcurrently(64, 65);
+    grid.removeWallConcurrently(89, 99);
+    heap.removeWallConcurrently(89, 99);
+    t.checkExpect(this.wallsOf(grid), heap.walls);
+    int[] gridNeighbors = new int[4];
+    int[] heapNeighbors = new int[4];
+    for (int cell = 0; cell < 100; cell++) {
+      t.checkExpect(grid.hasRightWall(cell), heap.hasRightWall(cell));
+      t.checkExpect(grid.hasBottomWall(cell), heap.hasBottomWall(cell));
+      t.checkExpect(grid.openNeighbors(cell, gridNeighbors),
+          heap.openNeighbors(cell, heapNeighbors));
+      t.checkExpect(gridNeighbors, heapNeighbors);
+    }
+
+    // copying the walls in and out, and putting them back
+    long[] walls = {0L, 1L, 2L, 3L};
+    grid.copyWallsFrom(LongBuffer.wrap(walls));
+    t.checkExpect(this.wallsOf(grid), walls);
+    grid.resetWalls();
+    t.checkExpect(this.wallsOf(grid), new MazeGrid(10, 10).walls);
+
+    // its searches keep their state outside the heap too
+    t.checkExpect(grid.newSearchState() instanceof OffHeapSearchState, true);
+    t.checkExpect(heap.newSearchState() instanceof OffHeapSearchState, false);
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Width must be between 2 and 1048576"),
+        "OffHeapGrid", 1, 10);
+    t.checkConstructorException(
+        new IllegalArgumentException("Height must be between 2 and 1048576"),
+        "OffHeapGrid", 10, 1048577);
+    t.checkConstructorException(
+        new IllegalArgumentException("Chunks must be between 8 bytes and 1 GB"),
+        "OffHeapGrid", 10, 10, 2);
+  }
+
+
+  // test the methods of an OffHeapSearchState against the same methods of a SearchState, in
+  // chunks small enough that the visited cells and parents are spread over several of them
+  void testOffHeapSearchState(Tester t) {
+    OffHeapSearchState state = new OffHeapSearchState(100, 6);
+    t.checkExpect(state.parentsOffset, 16L);
+    t.checkExpect(state.memory.bytes, 416L);
+    t.checkExpect(state.memory.chunks.length, 7);
+    t.checkExpect(state.memory.chunkSize(6), 32);
+    t.checkExpect(state.memory.chunks[0].isDirect(), true);
+    t.checkExpect(state.visited, null);
+    t.checkExpect(state.parents, null);
+
+    state.markVisited(0);
+    state.markVisited(64);
+    state.setParent(64, 0);
+    state.setParent(99, 98);
+    t.checkExpect(state.isVisited(0), true);
+    t.checkExpect(state.isVisited(64), true);
+    t.checkExpect(state.isVisited(1), false);
+    t.checkExpect(state.isVisited(65), false);
+    t.checkExpect(state.parent(64), 0);
+    t.checkExpect(state.parent(99), 98);
+    t.checkExpect(state.parent(98), 0);
+    t.checkExpect(state.nextVisited(1), 64);
+    t.checkExpect(state.nextVisited(65), -1);
+    t.checkExpect(state.nextVisited(128), -1);
+
+    state.clearSearch();
+    t.checkExpect(state.isVisited(0), false);
+    t.checkExpect(state.isVisited(64), false);
+    t.checkExpect(state.nextVisited(0), -1);
+    t.checkExpect(state.parent(64), 0);
+  }
+
+
+  // test that a maze is generated, searched and exported the same way in an OffHeapGrid as in a
+  // MazeGrid
+  void testOffHeapGeneration(Tester t) throws IOException {
+    OffHeapGrid grid = new OffHeapGrid(40, 30, 7);
+    grid.allocateDirect();
+    MazeGrid heap = new MazeGrid(40, 30);
+    new ParallelGenerator(grid, 9, 8).generate(ForkJoinPool.commonPool());
+    new ParallelGenerator(heap, 9, 8).generate(ForkJoinPool.commonPool());
+    t.checkExpect(this.wallsOf(grid), heap.walls);
+
+    MazeSolver gridSolver = new MazeSolver(grid);
+    MazeSolver heapSolver = new MazeSolver(heap);
+    int[] solution = heapSolver.bfs(0, 1199).path;
+    t.checkExpect(gridSolver.bfs(0, 1199).path, solution);
+    t.checkExpect(gridSolver.dfs(0, 1199).path, heapSolver.dfs(0, 1199).path);
+    t.checkExpect(gridSolver.astar(5, 700).path, heapSolver.astar(5, 700).path);
+    t.checkExpect(new JunctionGraph(grid, 0, 1199).solve(MazeSolver.BFS).path, solution);
+
+    ByteArrayOutputStream gridPng = new ByteArrayOutputStream();
+    ByteArrayOutputStream heapPng = new ByteArrayOutputStream();
+    new MazeExporter(grid, 3, solution, gridSolver.state).writePng(gridPng);
+    new MazeExporter(heap, 3, solution, heapSolver.state).writePng(heapPng);
+    t.checkExpect(gridPng.toByteArray(), heapPng.toByteArray());
+
+    // the default chunks hold the whole grid in one
+    OffHeapGrid whole = new OffHeapGrid(40, 30);
+    t.checkExpect(whole.memory.chunks.length, 1);
+    t.checkExpect(whole.memory.chunkSize(0), (int) whole.memory.bytes);
+    t.checkExpect(whole.memory.bytes, 304L);
+  }
+
+
+  // test an OffHeapGrid generated a row at a time, and one with more cells than an int can count
+  void testOffHeapGridRows(Tester t) {
+    OffHeapGrid grid = new OffHeapGrid(40, 30, 7);
+    grid.allocateDirect();
+    new EllerGenerator(40, 30, new Random(5)).generate(grid);
+    Maze maze = new Maze(40, 30, new Random(5), Maze.ELLER);
+    t.checkExpect(this.wallsOf(grid), maze.grid.walls);
+    t.checkExpect(grid.hasRightWall(grid.cellAt(39, 29)), true);
+    t.checkExpect(grid.hasBottomWall(grid.cellAt(39, 29)), true);
+
+    // a grid of 100,000 by 100,000 cells is indexed by longs, in chunks of 1 GB
+    OffHeapGrid huge = new OffHeapGrid(100000, 100000, OffHeapMemory.CHUNK_SHIFT);
+    t.checkExpect(huge.cells(), 10000000000L);
+    t.checkExpect(huge.cellAt(99999, 99999), 9999999999L);
+    t.checkExpect(huge.memory.bytes, 2500000000L);
+    t.checkExpect(huge.memory.chunks.length, 3);
+    t.checkExpect(huge.memory.chunkSize(2), 352516352);
+    t.checkException(
+        new IllegalArgumentException("Searches must have at most 2147483647 cells"),
+        huge, "newSearchState");
+    t.checkConstructorException(
+        new IllegalArgumentException("Chunks must be larger to hold 274877906944 bytes"),
+        "OffHeapGrid", 1048576, 1048576, 3);
+  }
+
+
+  // test an OffHeapGrid mapped from a file, which keeps the walls in the same layout as the
+  // walls of a maze file
+  void testOffHeapGridFile(Tester t) throws IOException {
+    Path path = Files.createTempFile("grid", ".bin");
+    try {
+      OffHeapGrid grid = new OffHeapGrid(40, 30, 7);
+      grid.map(path);
+      t.checkExpect(Files.size(path), grid.memory.bytes);
+      t.checkExpect(grid.memory.chunks[0] instanceof MappedByteBuffer, true);
+      new ParallelGenerator(grid, 9, 8).generate(ForkJoinPool.commonPool());
+      grid.force();
+
+      MazeGrid heap = new MazeGrid(40, 30);
+      new ParallelGenerator(heap, 9, 8).generate(ForkJoinPool.commonPool());
+      long[] walls = new long[heap.walls.length];
+      ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()
+          .get(walls);
+      t.checkExpect(walls, heap.walls);
+
+      // mapping the file again replaces the grid in it
+      OffHeapGrid replaced = new OffHeapGrid(20, 10, path);
+      t.checkExpect(Files.size(path), replaced.memory.bytes);
+      t.checkExpect(this.wallsOf(replaced), new MazeGrid(20, 10).walls);
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+
+  // the walls of the given grid, copied out of it
+  long[] wallsOf(MazeGrid grid) {
+    long[] walls = new long[(grid.width * grid.height + 31) / 32];
+    grid.copyWallsTo(LongBuffer.wrap(walls));
+    return walls;
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR ELLERGENERATOR ////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // determines whether the grid is a perfect maze, which has exactly one path between every
+  // pair of cells, by checking that its passages never close a loop and that there is one
+  // passage less than there are cells, so that they connect every cell
+  boolean isPerfect(MazeGrid grid) {
+    int cells = grid.width * grid.height;
+    UnionFind representatives = new UnionFind(cells);
+    int passages = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      if (!grid.hasRightWall(cell)) {
+        passages++;
+        if (!representatives.union(cell, cell + grid.height)) {
+          return false;
+        }
+      }
+      if (!grid.hasBottomWall(cell)) {
+        passages++;
+        if (!representatives.union(cell, cell + 1)) {
+          return false;
+        }
+      }
+    }
+    return passages == cells - 1;
+  }
+
+
+  // test the methods generate and nextPassage of KruskalGenerator
+  void testKruskalGenerate(Tester t) {
+    MazeGrid grid = new MazeGrid(6, 5);
+    KruskalGenerator kruskal = new KruskalGenerator(grid, new Random(1));
+    t.checkExpect(kruskal.order.length, grid.edgeCount());
+    kruskal.generate();
+    t.checkExpect(kruskal.edgesAdded, 29);
+    t.checkExpect(kruskal.edgesExamined >= 29, true);
+    t.checkExpect(this.isPerfect(grid), true);
+    t.checkExpect(kruskal.nextPassage(), -1);
+    t.checkExpect(grid.walls, new Maze(6, 5, new Random(1)).grid.walls);
+  }
+
+
+  // test the method generateGrid, which generates the walls of a seeded maze without the maze
+  void testGenerateGrid(Tester t) {
+    t.checkExpect(Maze.generateGrid(30, 20, 5L, Maze.KRUSKAL).walls,
+        new Maze(30, 20, 5L, Maze.KRUSKAL).grid.walls);
+    t.checkExpect(Maze.generateGrid(30, 20, 5L, Maze.ELLER).walls,
+        new Maze(30, 20, 5L, Maze.ELLER).grid.walls);
+    t.checkExpect(Maze.generateGrid(300, 200, 5L, Maze.PARALLEL).walls,
+        new Maze(300, 200, 5L, Maze.PARALLEL).grid.walls);
+    t.checkException(new IllegalArgumentException("Width must be between 2 and 32768"),
+        new Maze(2, 2), "generateGrid", 1, 20, 5L, Maze.KRUSKAL);
+    t.checkException(new IllegalArgumentException("Generator must be kruskal, eller or parallel"),
+        new Maze(2, 2), "generateGrid", 30, 20, 5L, "prim");
+  }
+
+
+  // test the method generate
+  void testEllerGenerate(Tester t) {
+
+    // collecting the rows of a 6 by 5 maze into a grid
+    MazeGrid grid = new MazeGrid(6, 5);
+    ArrayList<Integer> rows = new ArrayList<Integer>();
+    new EllerGenerator(6, 5, new Random(1)).generate(new IRowSink() {
+      public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+        rows.add(y);
+        for (int x = 0; x < 6; x++) {
+          if (!rightWalls[x]) {
+            grid.removeWall(grid.index(x, y), grid.index(x + 1, y));
+          }
+          if (!bottomWalls[x]) {
+            grid.removeWall(grid.index(x, y), grid.index(x, y + 1));
+          }
+        }
+
+        // the outside of the maze always has walls
+        t.checkExpect(rightWalls[5], true);
+        if (y == 4) {
+          t.checkExpect(Arrays.equals(bottomWalls, new boolean[] {true, true, true, true, true, 
+            true}), true);
+        }
+      }
+    });
+
+    // every row is handed over in order and together they make a perfect maze
+    t.checkExpect(rows, new ArrayList<Integer>(Arrays.asList(0, 1, 2, 3, 4)));
+    t.checkExpect(this.isPerfect(grid), true);
+    t.checkExpect(new MazeSolver(grid).bfs(0, 29).path.length > 0, true);
+
+    // a maze much taller than any grid is generated without keeping more than one row
+    int[] passages = new int[1];
+    EllerGenerator tall = new EllerGenerator(8, 2000000, new Random(2));
+    tall.generate(new IRowSink() {
+      public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+        for (int x = 0; x < 8; x++) {
+          if (!rightWalls[x]) {
+            passages[0]++;
+          }
+          if (!bottomWalls[x]) {
+            passages[0]++;
+          }
+        }
+      }
+    });
+    t.checkExpect(passages[0], 8 * 2000000 - 1);
+    t.checkExpect(tall.sets.length, 8);
+
+    t.checkConstructorException(new IllegalArgumentException("Width must be at least 2"), 
+        "EllerGenerator", 1, 10, new Random(1));
+  }
+
+
+  // test the method carveDown
+  void testCarveDown(Tester t) {
+    EllerGenerator generator = new EllerGenerator(6, 3, new Random(1));
+
+    // a row of two sets, the first three cells and the last three
+    generator.sets = new int[] {4, 4, 4, 1, 1, 1};
+    for (int x = 0; x < 6; x++) {
+      generator.parents[x] = x;
+    }
+    generator.carveDown();
+
+    // both sets have at least one passage down
+    boolean firstDown = !generator.bottomWalls[0] || !generator.bottomWalls[1] 
+        || !generator.bottomWalls[2];
+    boolean secondDown = !generator.bottomWalls[3] || !generator.bottomWalls[4] 
+        || !generator.bottomWalls[5];
+    t.checkExpect(firstDown, true);
+    t.checkExpect(secondDown, true);
+
+    // the cells below passages keep their set and every other cell gets a set of its own
+    for (int x = 0; x < 6; x++) {
+      if (!generator.bottomWalls[x]) {
+        t.checkExpect(generator.sets[x], x < 3 ? 4 : 1);
+      }
+      else {
+        for (int other = 0; other < 6; other++) {
+          t.checkExpect(other == x || generator.sets[other] != generator.sets[x], true);
+        }
+      }
+    }
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  //////////////////////////// EXAMPLES AND TESTS FOR PARALLELGENERATOR ///////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method generate
+  void testParallelGenerate(Tester t) {
+
+    // tiles that don't divide the grid evenly still make a perfect maze
+    MazeGrid grid = new MazeGrid(50, 37);
+    new ParallelGenerator(grid, 7, 8).generate(new ForkJoinPool(4));
+    t.checkExpect(this.isPerfect(grid), true);
+
+    // the maze only depends on the seed and not on the number of threads
+    MazeGrid single = new MazeGrid(300, 200);
+    MazeGrid many = new MazeGrid(300, 200);
+    new ParallelGenerator(single, 42, 16).generate(new ForkJoinPool(1));
+    new ParallelGenerator(many, 42, 16).generate(new ForkJoinPool(8));
+    t.checkExpect(single.walls, many.walls);
+    t.checkExpect(this.isPerfect(many), true);
+
+    // a different seed makes a different maze
+    MazeGrid other = new MazeGrid(300, 200);
+    new ParallelGenerator(other, 43, 16).generate(new ForkJoinPool(8));
+    t.checkFail(other.walls, many.walls);
+
+    // a single tile is just Kruskal's algorithm over the whole grid
+    MazeGrid oneTile = new MazeGrid(20, 20);
+    new ParallelGenerator(oneTile, 1, 256).generate(new ForkJoinPool(2));
+    t.checkExpect(this.isPerfect(oneTile), true);
+  }
+
+
+  // test the method generateTile
+  void testGenerateTile(Tester t) {
+    MazeGrid grid = new MazeGrid(10, 6);
+    ParallelGenerator generator = new ParallelGenerator(grid, 3, 4);
+    t.checkExpect(generator.tilesAcross, 3);
+    t.checkExpect(generator.tilesDown, 2);
+
+    // building the bottom right tile, which is cut down to 2 by 2 by the edge of the grid, only
+    // opens walls inside of it
+    generator.generateTile(5);
+    int passages = 0;
+    for (int cell = 0; cell < 60; cell++) {
+      boolean inside = cell / 6 >= 8 && cell % 6 >= 4;
+      if (!grid.hasRightWall(cell)) {
+        passages++;
+        t.checkExpect(inside && cell / 6 < 9, true);
+      }
+      if (!grid.hasBottomWall(cell)) {
+        passages++;
+        t.checkExpect(inside && cell % 6 < 5, true);
+      }
+    }
+    t.checkExpect(passages, 3);
+  }
+
+
+  // test the method removeWallConcurrently
+  void testRemoveWallConcurrently(Tester t) {
+    MazeGrid grid = new MazeGrid(4, 4);
+    grid.removeWallConcurrently(grid.index(1, 1), grid.index(2, 1));
+    grid.removeWallConcurrently(grid.index(1, 1), grid.index(1, 2));
+    t.checkExpect(grid.hasRightWall(grid.index(1, 1)), false);
+    t.checkExpect(grid.hasBottomWall(grid.index(1, 1)), false);
+    t.checkExpect(grid.hasRightWall(grid.index(1, 2)), true);
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  //////////////////////////////// EXAMPLES AND TESTS FOR MAZESOLVER //////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method openNeighbors
+  void testOpenNeighbors(Tester t) {
+    this.initMazeConditions();
+    int[] neighbors = new int[4];
+
+    // in the 2 by 2 maze the top left vertex is connected to both of its neighbors
+    t.checkExpect(this.testingMaze1.grid.openNeighbors(0, neighbors), 2);
+    t.checkExpect(neighbors[0], 2);
+    t.checkExpect(neighbors[1], 1);
+
+    // and the bottom right vertex is only connected to the vertex above it
+    t.checkExpect(this.testingMaze1.grid.openNeighbors(3, neighbors), 1);
+    t.checkExpect(neighbors[0], 2);
+
+    // the open neighbors should be the same as the bordering vertices in the 25 by 10 maze
+    for (int i = 0; i < 25; i++) {
+      for (int j = 0; j < 10; j++) {
+        Vertex v = this.testingMaze2.vertices.get(i).get(j);
+        int count = this.testingMaze2.grid.openNeighbors(this.testingMaze2.index(i, j), neighbors);
+        t.checkExpect(count, v.borderingVerticesInMaze.size());
+        for (Vertex u : v.borderingVerticesInMaze) {
+          int cell = this.testingMaze2.index(u.x, u.y);
+          t.checkExpect(neighbors[0] == cell || neighbors[1] == cell 
+              || neighbors[2] == cell || neighbors[3] == cell, true);
+        }
+      }
+    }
+  }
+
+
+  // test the method bfs of MazeSolver
+  void testSolverBfs(Tester t) {
+    this.initMazeConditions();
+
+    // solving the 2 by 2 maze from the top left to the bottom right
+    SolveResult result = new MazeSolver(this.testingMaze1.grid).bfs(0, 3);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 4);
+    t.checkExpect(result.peakFrontier, 2);
+    t.checkExpect(result.elapsedNanos >= 0, true);
+
+    // solving from a vertex to itself
+    t.checkExpect(new MazeSolver(this.testingMaze1.grid).bfs(1, 1).path, new int[] {1});
+
+    // the path through the 25 by 10 maze should match the one retraced after an animated bfs
+    this.testingMaze2.onKeyEvent("b");
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    int[] path = solver.bfs(0, 249).path;
+    t.checkExpect(path, this.testingMaze2.solution);
+    for (int cell : path) {
+      t.checkExpect(this.testingMaze2.vertexAt(cell).color, Color.BLUE);
+    }
+
+    // a solver can be reused for another start and goal
+    int[] reversed = solver.bfs(249, 0).path;
+    t.checkExpect(reversed.length, path.length);
+    t.checkExpect(reversed[0], 249);
+    t.checkExpect(reversed[reversed.length - 1], 0);
+
+    // the start and goal must be cells of the maze
+    t.checkException(new IllegalArgumentException("Goal must be a cell of the maze"), 
+        solver, "bfs", 0, 250);
+  }
+
+
+  // test the method dfs of MazeSolver
+  void testSolverDfs(Tester t) {
+    this.initMazeConditions();
+
+    // solving the 2 by 2 maze from the top left to the bottom right, where the dfs goes down
+    // the left side first since the vertex below is added to the worklist last
+    SolveResult result = new MazeSolver(this.testingMaze1.grid).dfs(0, 3);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 4);
+    t.checkExpect(result.peakFrontier, 2);
+
+    // in a perfect maze the dfs finds the same path as the bfs
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    int[] bfsPath = solver.bfs(0, 249).path;
+    t.checkExpect(solver.dfs(0, 249).path, bfsPath);
+
+    // solving a maze that is too large to draw
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    SolveResult wide = new MazeSolver(wideMaze.grid).dfs(0, 1500 * 300 - 1);
+    t.checkExpect(wide.path[0], 0);
+    t.checkExpect(wide.path[wide.path.length - 1], 1500 * 300 - 1);
+    t.checkExpect(wide.nodesExpanded >= wide.path.length, true);
+  }
+
+
+
+  // test the method astar of MazeSolver
+  void testSolverAstar(Tester t) {
+    this.initMazeConditions();
+
+    // solving the 2 by 2 maze, where both neighbors of the start are estimated to be just as close
+    // to the goal so the one with the smaller index is expanded first
+    SolveResult result = new MazeSolver(this.testingMaze1.grid).astar(0, 3);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 4);
+    t.checkExpect(result.peakFrontier, 2);
+    t.checkExpect(new MazeSolver(this.testingMaze1.grid).astar(2, 2).path, new int[] {2});
+
+    // A* finds the same path as the bfs, without expanding any more cells
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    SolveResult bfs = solver.bfs(0, 249);
+    SolveResult astar = solver.astar(0, 249);
+    t.checkExpect(astar.path, bfs.path);
+    t.checkExpect(astar.nodesExpanded <= bfs.nodesExpanded, true);
+    t.checkExpect(solver.astar(249, 17).path, solver.bfs(249, 17).path);
+
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    MazeSolver wideSolver = new MazeSolver(wideMaze.grid);
+    SolveResult wideBfs = wideSolver.bfs(0, 1500 * 300 - 1);
+    SolveResult wideAstar = wideSolver.astar(0, 1500 * 300 - 1);
+    t.checkExpect(wideAstar.path, wideBfs.path);
+    t.checkExpect(wideAstar.nodesExpanded <= wideBfs.nodesExpanded, true);
+  }
+
+
+  // test the method bidirectionalBfs of MazeSolver
+  void testSolverBidirectional(Tester t) {
+    this.initMazeConditions();
+
+    // solving the 2 by 2 maze, where the search from the goal meets the search from the start
+    // after each of them has expanded one cell
+    SolveResult result = new MazeSolver(this.testingMaze1.grid).bidirectionalBfs(0, 3);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 2);
+    t.checkExpect(result.peakFrontier, 3);
+    t.checkExpect(new MazeSolver(this.testingMaze1.grid).bidirectionalBfs(1, 1).path, 
+        new int[] {1});
+    t.checkExpect(new MazeSolver(this.testingMaze1.grid).bidirectionalBfs(0, 2).path, 
+        new int[] {0, 2});
+
+    // the bidirectional bfs finds the same path as the bfs
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    t.checkExpect(solver.bidirectionalBfs(0, 249).path, solver.bfs(0, 249).path);
+    t.checkExpect(solver.bidirectionalBfs(249, 17).path, solver.bfs(249, 17).path);
+    t.checkExpect(solver.bidirectionalBfs(130, 131).path, solver.bfs(130, 131).path);
+
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    MazeSolver wideSolver = new MazeSolver(wideMaze.grid);
+    t.checkExpect(wideSolver.bidirectionalBfs(0, 1500 * 300 - 1).path, 
+        wideSolver.bfs(0, 1500 * 300 - 1).path);
+  }
+
+
+  // test that a solver reused for different searches reports the same peak frontier as a new one,
+  // so that no search counts the worklists left over from the one before it
+  void testSolverReuse(Tester t) {
+    Maze maze = new Maze(60, 60, new Random(1));
+    int goal = 60 * 60 - 1;
+    SolveResult bfs = new MazeSolver(maze.grid).bfs(0, goal);
+    SolveResult dfs = new MazeSolver(maze.grid).dfs(0, goal);
+    MazeSolver solver = new MazeSolver(maze.grid);
+    String[] searches = {MazeSolver.BIDIRECTIONAL, MazeSolver.BFS, MazeSolver.ASTAR, 
+      MazeSolver.BFS, MazeSolver.DIJKSTRA, MazeSolver.DFS};
+    for (String search : searches) {
+      SolveResult result = solver.solve(0, goal, search);
+      if (search.equals(MazeSolver.BFS)) {
+        t.checkExpect(result.peakFrontier, bfs.peakFrontier);
+        t.checkExpect(result.nodesExpanded, bfs.nodesExpanded);
+      }
+      else if (search.equals(MazeSolver.DFS)) {
+        t.checkExpect(result.peakFrontier, dfs.peakFrontier);
+      }
+      else {
+        t.checkExpect(result.peakFrontier, 
+            new MazeSolver(maze.grid).solve(0, goal, search).peakFrontier);
+      }
+    }
+    t.checkExpect(solver.heapSize, 0);
+    t.checkExpect(solver.goalTail, 0);
+  }
+
+
+  // test the method dijkstra of MazeSolver
+  void testSolverDijkstra(Tester t) {
+    this.initMazeConditions();
+
+    // with every move costing 1, the cheapest path of a maze is its only path
+    MazeSolver solver = new MazeSolver(this.testingMaze1.grid);
+    SolveResult result = solver.dijkstra(0, 3);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 4);
+    t.checkExpect(solver.cost(3), 2L);
+    MazeSolver mazeSolver = new MazeSolver(this.testingMaze2.grid);
+    t.checkExpect(mazeSolver.dijkstra(0, 249).path, mazeSolver.bfs(0, 249).path);
+    t.checkExpect(mazeSolver.dijkstra(249, 17).path, mazeSolver.bfs(249, 17).path);
+    t.checkExpect(mazeSolver.cost(17), (long) mazeSolver.bfs(249, 17).path.length - 1);
+
+    // in a grid without walls, the cheapest path goes around an expensive cell
+    MazeGrid open = this.openGrid(3, 3);
+    MazeWeights weights = new MazeWeights(open);
+    weights.setCellCost(4, 100);
+    MazeSolver openSolver = new MazeSolver(open, weights);
+    int[] path = openSolver.dijkstra(1, 7).path;
+    t.checkExpect(path.length, 5);
+    t.checkExpect(openSolver.cost(7), 4L);
+    t.checkExpect(weights.pathCost(path), 4L);
+
+    // and around an expensive passage
+    weights.setPassageCost(3, 6, 50);
+    t.checkExpect(openSolver.dijkstra(1, 7).path, new int[] {1, 2, 5, 8, 7});
+
+    // a cell that is first reached by an expensive passage is moved up the heap once a cheaper
+    // path to it is found
+    MazeWeights passages = new MazeWeights(open);
+    passages.setPassageCost(1, 4, 50);
+    passages.setPassageCost(1, 2, 10);
+    MazeSolver passageSolver = new MazeSolver(open, passages);
+    t.checkExpect(passageSolver.dijkstra(1, 4).path, new int[] {1, 0, 3, 4});
+    t.checkExpect(passageSolver.cost(4), 3L);
+
+    // on random terrain the cost of the path is the cheapest cost found by relaxing every move
+    // until none of them is cheaper
+    MazeGrid terrainGrid = this.openGrid(20, 15);
+    MazeWeights terrain = MazeWeights.terrain(terrainGrid, new Random(2), 9);
+    long[] cheapest = new long[300];
+    Arrays.fill(cheapest, Long.MAX_VALUE);
+    cheapest[0] = 0;
+    int[] neighbors = new int[4];
+    boolean relaxed = true;
+    while (relaxed) {
+      relaxed = false;
+      for (int cell = 0; cell < 300; cell++) {
+        int count = terrainGrid.openNeighbors(cell, neighbors);
+        for (int i = 0; i < count && cheapest[cell] < Long.MAX_VALUE; i++) {
+          long through = cheapest[cell] + terrain.cost(cell, neighbors[i]);
+          if (through < cheapest[neighbors[i]]) {
+            cheapest[neighbors[i]] = through;
+            relaxed = true;
+          }
+        }
+      }
+    }
+    MazeSolver terrainSolver = new MazeSolver(terrainGrid, terrain);
+    for (int goal = 1; goal < 300; goal += 37) {
+      int[] terrainPath = terrainSolver.dijkstra(0, goal).path;
+      t.checkExpect(terrainSolver.cost(goal), cheapest[goal]);
+      t.checkExpect(terrain.pathCost(terrainPath), cheapest[goal]);
+      MazeFile.checkPath(terrainGrid, terrainPath);
+    }
+
+    // a goal that can't be reached has no path
+    MazeSolver walledSolver = new MazeSolver(new MazeGrid(10, 10));
+    t.checkExpect(walledSolver.dijkstra(0, 99).path, new int[0]);
+    t.checkExpect(walledSolver.nodesExpanded, 1);
+  }
+
+
+  // a grid of the given size without any walls inside it
+  MazeGrid openGrid(int width, int height) {
+    MazeGrid grid = new MazeGrid(width, height);
+    for (int cell = 0; cell < width * height; cell++) {
+      if (cell + height < width * height) {
+        grid.removeWall(cell, cell + height);
+      }
+      if ((cell + 1) % height != 0) {
+        grid.removeWall(cell, cell + 1);
+      }
+    }
+    return grid;
+  }
+
+
+  // test the method parallelBfs of MazeSolver
+  void testSolverParallelBfs(Tester t) {
+    this.initMazeConditions();
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    // solving the 2 by 2 maze one level at a time, where the goal is reached on the second level
+    MazeSolver solver = new MazeSolver(this.testingMaze1.grid);
+    SolveResult result = solver.parallelBfs(0, 3, pool);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 3);
+    t.checkExpect(result.peakFrontier, 2);
+    t.checkExpect(solver.done, true);
+    t.checkExpect(solver.parallelBfs(1, 1, pool).path, new int[] {1});
+
+    // the parallel bfs finds the same path as the bfs
+    MazeSolver mazeSolver = new MazeSolver(this.testingMaze2.grid);
+    t.checkExpect(mazeSolver.parallelBfs(0, 249, pool).path, mazeSolver.bfs(0, 249).path);
+    t.checkExpect(mazeSolver.parallelBfs(249, 17, pool).path, mazeSolver.bfs(249, 17).path);
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    MazeSolver wideSolver = new MazeSolver(wideMaze.grid);
+    t.checkExpect(wideSolver.parallelBfs(0, 1500 * 300 - 1, pool).path, 
+        wideSolver.bfs(0, 1500 * 300 - 1).path);
+
+    // a grid without any walls has levels large enough to be split between threads, and many
+    // shortest paths, of which the parallel bfs finds one as long as the path the bfs finds
+    MazeGrid open = new MazeGrid(1100, 1100);
+    Arrays.fill(open.walls, 0L);
+    for (int i = 0; i < 1100; i++) {
+      open.walls[open.index(1099, i) >>> 5] |= 1L << ((open.index(1099, i) & 31) << 1);
+      open.walls[open.index(i, 1099) >>> 5] |= 2L << ((open.index(i, 1099) & 31) << 1);
+    }
+    MazeSolver openSolver = new MazeSolver(open);
+    int center = open.index(550, 550);
+    int[] path = openSolver.parallelBfs(center, 0, pool).path;
+    t.checkExpect(openSolver.peakFrontier > MazeSolver.FRONTIER_CELLS, true);
+    t.checkExpect(path.length, openSolver.bfs(center, 0).path.length);
+    t.checkExpect(path.length, 1101);
+    t.checkExpect(path[0], center);
+    t.checkExpect(path[1100], 0);
+    MazeFile.checkPath(open, path);
+
+    // a goal that can't be reached has no path
+    MazeSolver walledSolver = new MazeSolver(new MazeGrid(10, 10));
+    t.checkExpect(walledSolver.parallelBfs(0, 99, pool).path, new int[0]);
+    t.checkExpect(walledSolver.nodesExpanded, 1);
+    t.checkException(new IllegalArgumentException("Goal must be a cell of the maze"), 
+        walledSolver, "parallelBfs", 0, 100, pool);
+    pool.shutdown();
+  }
+
+
+  // test that every MazeSolver searches with a search state of its own, so that several solvers
+  // can search the same grid at once without one of them changing the search of another
+  void testSolverSearchState(Tester t) {
+    this.initMazeConditions();
+    MazeGrid grid = this.testingMaze2.grid;
+    long[] walls = grid.walls.clone();
+    MazeSolver solver = new MazeSolver(grid);
+    MazeSolver other = new MazeSolver(grid);
+    MazeSolver weighted = new MazeSolver(grid, MazeWeights.terrain(grid, new Random(3), 9));
+    t.checkExpect(solver.state == other.state, false);
+    t.checkExpect(solver.state == weighted.state, false);
+    t.checkExpect(solver.state.parents.length, 250);
+    t.checkExpect(solver.state.visited.length, 4);
+
+    // each solver keeps its own search while the other one searches the same grid
+    t.checkExpect(solver.bfs(0, 249).path, other.bfs(0, 249).path);
+    other.begin(17, 249, MazeSolver.BFS);
+    solver.dfs(249, 0);
+    t.checkExpect(other.state.isVisited(17), true);
+    t.checkExpect(other.state.isVisited(0), false);
+    t.checkExpect(other.state.isVisited(249), false);
+    t.checkExpect(solver.state.isVisited(0), true);
+    t.checkExpect(solver.state.parent(249), 249);
+    solver.begin(0, 249, MazeSolver.BFS);
+    t.checkExpect(solver.state.isVisited(249), false);
+    t.checkExpect(other.state.isVisited(17), true);
+
+    // and none of them changes the grid
+    weighted.dijkstra(0, 249);
+    t.checkExpect(grid.walls, walls);
+  }
+
+
+  // test the method claimVisited of SearchState and OffHeapSearchState
+  void testClaimVisited(Tester t) {
+    SearchState[] states = {new SearchState(100), new OffHeapSearchState(100, 6)};
+    for (SearchState state : states) {
+      t.checkExpect(state.claimVisited(64), true);
+      t.checkExpect(state.isVisited(64), true);
+      t.checkExpect(state.claimVisited(64), false);
+      state.markVisited(3);
+      t.checkExpect(state.claimVisited(3), false);
+      t.checkExpect(state.claimVisited(4), true);
+      t.checkExpect(state.isVisited(3), true);
+      t.checkExpect(state.isVisited(5), false);
+    }
+  }
+
+
+  // test the methods begin and step of MazeSolver
+  void testSolverStep(Tester t) {
+    this.initMazeConditions();
+    MazeSolver solver = new MazeSolver(this.testingMaze1.grid);
+
+    // stepping through a bfs one cell at a time
+    solver.begin(0, 3, MazeSolver.BFS);
+    t.checkExpect(solver.done, false);
+    t.checkExpect(solver.step(), 0);
+    t.checkExpect(solver.step(), 2);
+    t.checkExpect(solver.step(), 1);
+    t.checkExpect(solver.done, false);
+    t.checkExpect(solver.step(), 3);
+    t.checkExpect(solver.done, true);
+    t.checkExpect(solver.nodesExpanded, 4);
+    t.checkExpect(solver.path(), new int[] {0, 2, 3});
+
+    // stepping a finished search does nothing
+    t.checkExpect(solver.step(), -1);
+    t.checkExpect(solver.nodesExpanded, 4);
+
+    t.checkException(new IllegalArgumentException("Unknown search greedy"), 
+        solver, "begin", 0, 3, "greedy");
+  }
+
+
+  // test the methods siftUp and siftDown of MazeSolver
+  void testSolverHeap(Tester t) {
+    this.initMazeConditions();
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    solver.heap = new long[10];
+
+    // adding entries out of order and taking them off the heap in order
+    long[] entries = {50, 20, 70, 10, 30, 60, 40};
+    for (long entry : entries) {
+      solver.heap[solver.heapSize] = entry;
+      solver.heapSize++;
+      solver.siftUp(solver.heapSize - 1);
+    }
+    t.checkExpect(solver.heap[0], 10L);
+
+    long[] taken = new long[7];
+    for (int i = 0; i < 7; i++) {
+      taken[i] = solver.heap[0];
+      solver.heapSize--;
+      solver.heap[0] = solver.heap[solver.heapSize];
+      solver.siftDown(0);
+    }
+    t.checkExpect(taken, new long[] {10, 20, 30, 40, 50, 60, 70});
+  }
+
+
+  // test the method estimate of MazeSolver
+  void testSolverEstimate(Tester t) {
+    this.initMazeConditions();
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    solver.begin(0, this.testingMaze2.index(24, 9), MazeSolver.ASTAR);
+    t.checkExpect(solver.estimate(0), 33);
+    t.checkExpect(solver.estimate(this.testingMaze2.index(20, 4)), 9);
+    t.checkExpect(solver.estimate(this.testingMaze2.index(24, 9)), 0);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR INDEXEDHEAP ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the methods insert, decreaseKey and poll of IndexedHeap
+  void testIndexedHeap(Tester t) {
+    IndexedHeap heap = new IndexedHeap(10, 3);
+    heap.insert(4, 40);
+    heap.insert(7, 10);
+    heap.insert(2, 30);
+    heap.insert(9, 20);
+    heap.insert(0, 50);
+    t.checkExpect(heap.size, 5);
+    t.checkExpect(heap.contains(2), true);
+    t.checkExpect(heap.contains(3), false);
+    t.checkExpect(heap.key(9), 20L);
+
+    // lowering a key moves the cell ahead of the cells with larger keys
+    heap.decreaseKey(0, 15);
+    t.checkExpect(heap.poll(), 7);
+    t.checkExpect(heap.poll(), 0);
+    t.checkExpect(heap.contains(0), false);
+    t.checkExpect(heap.key(0), 15L);
+    t.checkExpect(heap.poll(), 9);
+    t.checkExpect(heap.poll(), 2);
+    t.checkExpect(heap.poll(), 4);
+    t.checkExpect(heap.size, 0);
+
+    // a removed cell can be added again
+    heap.insert(7, 5);
+    heap.insert(1, 6);
+    heap.clear();
+    t.checkExpect(heap.size, 0);
+    t.checkExpect(heap.contains(7), false);
+    t.checkExpect(heap.positions, new int[] {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1});
+
+    heap.insert(3, 1);
+    t.checkException(new IllegalArgumentException("Cell 3 is already in the heap"), 
+        heap, "insert", 3, 2L);
+    IllegalArgumentException notLowered = 
+        new IllegalArgumentException("Only the key of a cell in the heap can be lowered");
+    t.checkException(notLowered, heap, "decreaseKey", 3, 2L);
+    t.checkException(notLowered, heap, "decreaseKey", 4, 0L);
+    heap.poll();
+    t.checkException(new NoSuchElementException("The heap is empty"), heap, "poll");
+    t.checkConstructorException(new IllegalArgumentException("Arity must be between 2 and 64"), 
+        "IndexedHeap", 10, 1);
+  }
+
+
+  // test that an IndexedHeap of any arity removes cells in the order of their keys, however
+  // their keys were lowered
+  void testIndexedHeapOrder(Tester t) {
+    Random rand = new Random(8);
+    int[] arities = {2, 4, 8};
+    for (int arity : arities) {
+      IndexedHeap heap = new IndexedHeap(1000, arity);
+      for (int cell = 0; cell < 1000; cell++) {
+        heap.insert(cell, rand.nextInt(1000000));
+      }
+      for (int i = 0; i < 500; i++) {
+        int cell = rand.nextInt(1000);
+        heap.decreaseKey(cell, heap.key(cell) / 2);
+      }
+
+      long previous = Long.MIN_VALUE;
+      for (int i = 0; i < 1000; i++) {
+        long key = heap.key(heap.poll());
+        t.checkExpect(key >= previous, true);
+        previous = key;
+      }
+      t.checkExpect(heap.size, 0);
+    }
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR MAZEWEIGHTS ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the methods setCellCost, setPassageCost and cost of MazeWeights
+  void testMazeWeights(Tester t) {
+    MazeWeights weights = new MazeWeights(new MazeGrid(4, 3));
+    t.checkExpect(weights.cost(0, 3), 1L);
+    t.checkExpect(weights.passageCosts, null);
+
+    weights.setCellCost(3, 7);
+    t.checkExpect(weights.cost(0, 3), 7L);
+    t.checkExpect(weights.cost(3, 0), 1L);
+
+    // a passage costs the same in both directions, on top of the cost of the cell moved into
+    weights.setPassageCost(3, 0, 5);
+    weights.setPassageCost(4, 5, 2);
+    t.checkExpect(weights.passageCosts.length, 24);
+    t.checkExpect(weights.passageCosts[0], 5);
+    t.checkExpect(weights.passageCosts[9], 2);
+    t.checkExpect(weights.cost(0, 3), 12L);
+    t.checkExpect(weights.cost(3, 0), 6L);
+    t.checkExpect(weights.cost(5, 4), 3L);
+    t.checkExpect(weights.pathCost(new int[] {0, 3, 4, 5}), 16L);
+    t.checkExpect(weights.pathCost(new int[] {0}), 0L);
+
+    // the last cell of a column isn't next to the first cell of the next one
+    t.checkException(new IllegalArgumentException("Cells 2 and 3 are not adjacent"), 
+        weights, "setPassageCost", 2, 3, 1);
+    t.checkException(new IllegalArgumentException("Cells 0 and 4 are not adjacent"), 
+        weights, "cost", 0, 4);
+    t.checkException(new IllegalArgumentException("Costs must not be negative"), 
+        weights, "setCellCost", 1, -1);
+    t.checkException(new IllegalArgumentException("Costs must not be negative"), 
+        weights, "setPassageCost", 0, 1, -1);
+  }
+
+
+  // test the method terrain of MazeWeights
+  void testTerrain(Tester t) {
+    MazeWeights terrain = MazeWeights.terrain(new MazeGrid(30, 20), new Random(4), 5);
+    int[] counts = new int[6];
+    for (int cost : terrain.cellCosts) {
+      counts[cost]++;
+    }
+    t.checkExpect(counts[0], 0);
+    for (int cost = 1; cost <= 5; cost++) {
+      t.checkExpect(counts[cost] > 0, true);
+    }
+    t.checkExpect(MazeWeights.terrain(new MazeGrid(30, 20), new Random(4), 5).cellCosts, 
+        terrain.cellCosts);
+    t.checkException(new IllegalArgumentException("Costs must be positive"), 
+        new MazeWeights(new MazeGrid(2, 2)), "terrain", new MazeGrid(2, 2), new Random(), 0);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR JUNCTIONGRAPH /////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test building the junction graph of a maze
+  void testJunctionGraph(Tester t) {
+    this.initMazeConditions();
+
+    // in the 2 by 2 maze cell 2 is the only cell of a corridor, between the start and the goal
+    JunctionGraph graph = new JunctionGraph(this.testingMaze1.grid, 0, 3);
+    t.checkExpect(graph.nodeCells, new int[] {0, 1, 3});
+    t.checkExpect(graph.edgeOffsets, new int[] {0, 2, 3, 4});
+    t.checkExpect(graph.edgeTargets, new int[] {2, 1, 0, 0});
+    t.checkExpect(graph.edgeLengths, new int[] {2, 1, 1, 2});
+    t.checkExpect(graph.edgeFirstCells, new int[] {2, 1, 0, 2});
+    t.checkExpect(graph.nodeCount(), 3);
+    t.checkExpect(graph.edgeCount(), 2);
+    t.checkInexact(graph.compressionRatio(), 4.0 / 3, 0.001);
+
+    // the start and goal are always nodes, even in the middle of a corridor, while the cells
+    // that are neither are part of one
+    t.checkExpect(new JunctionGraph(this.testingMaze1.grid, 2, 3).nodeCells, 
+        new int[] {1, 2, 3});
+
+    // every passage of the 25 by 10 maze is on exactly one corridor, which is stored once from
+    // each of its ends
+    graph = new JunctionGraph(this.testingMaze2.grid, 0, 249);
+    int length = 0;
+    for (int edge = 0; edge < graph.edgeLengths.length; edge++) {
+      length += graph.edgeLengths[edge];
+      t.checkExpect(graph.edgeTargets[graph.edgeOffsets[graph.edgeTargets[edge]]] >= 0, true);
+    }
+    t.checkExpect(length, 2 * 249);
+    t.checkExpect(graph.nodeCount() < 250, true);
+    t.checkExpect(graph.edgeCount(), graph.nodeCount() - 1);
+
+    t.checkConstructorException(new IllegalArgumentException("Goal must be a cell of the maze"),
+        "JunctionGraph", this.testingMaze1.grid, 0, 4);
+  }
+
+
+  // test the methods corridor, sourceOf and walk
+  void testCorridor(Tester t) {
+    this.initMazeConditions();
+    JunctionGraph graph = new JunctionGraph(this.testingMaze1.grid, 0, 3);
+    t.checkExpect(graph.corridor(0), new int[] {2, 3});
+    t.checkExpect(graph.corridor(1), new int[] {1});
+    t.checkExpect(graph.corridor(3), new int[] {2, 0});
+    t.checkExpect(graph.sourceOf(0), 0);
+    t.checkExpect(graph.sourceOf(1), 0);
+    t.checkExpect(graph.sourceOf(2), 1);
+    t.checkExpect(graph.sourceOf(3), 2);
+    int[] out = new int[4];
+    t.checkExpect(graph.walk(3, 3, out, 1), 3);
+    t.checkExpect(out, new int[] {0, 2, 0, 0});
+
+    // every corridor of the 25 by 10 maze is the same in both directions
+    graph = new JunctionGraph(this.testingMaze2.grid, 0, 249);
+    for (int edge = 0; edge < graph.edgeTargets.length; edge++) {
+      int[] corridor = graph.corridor(edge);
+      t.checkExpect(corridor.length, graph.edgeLengths[edge]);
+      t.checkExpect(corridor[corridor.length - 1], graph.nodeCells[graph.edgeTargets[edge]]);
+    }
+  }
+
+
+  // test the methods solve, begin and step of JunctionGraph
+  void testJunctionSolve(Tester t) {
+    this.initMazeConditions();
+    JunctionGraph graph = new JunctionGraph(this.testingMaze1.grid, 0, 3);
+    SolveResult result = graph.solve(MazeSolver.BFS);
+    t.checkExpect(result.path, new int[] {0, 2, 3});
+    t.checkExpect(result.nodesExpanded, 2);
+    t.checkExpect(result.peakFrontier, 2);
+
+    // stepping through the search one node at a time
+    graph.begin(MazeSolver.DFS);
+    t.checkExpect(graph.step(), 0);
+    t.checkExpect(graph.step(), 1);
+    t.checkExpect(graph.done, false);
+    t.checkExpect(graph.step(), 2);
+    t.checkExpect(graph.done, true);
+    t.checkExpect(graph.found, true);
+    t.checkExpect(graph.step(), -1);
+    t.checkExpect(graph.path(), new int[] {0, 2, 3});
+
+    // the paths through the 25 by 10 maze match the one a search of the grid finds, with fewer
+    // nodes expanded
+    graph = new JunctionGraph(this.testingMaze2.grid, 0, 249);
+    SolveResult gridResult = new MazeSolver(this.testingMaze2.grid).bfs(0, 249);
+    result = graph.solve(MazeSolver.BFS);
+    t.checkExpect(result.path, gridResult.path);
+    t.checkExpect(result.nodesExpanded < gridResult.nodesExpanded, true);
+    t.checkExpect(graph.solve(MazeSolver.DFS).path, gridResult.path);
+
+    // and between cells in the middle of corridors
+    graph = new JunctionGraph(this.testingMaze2.grid, 123, 17);
+    t.checkExpect(graph.solve(MazeSolver.BFS).path, 
+        new MazeSolver(this.testingMaze2.grid).bfs(123, 17).path);
+    t.checkExpect(new JunctionGraph(this.testingMaze2.grid, 5, 5).solve(MazeSolver.BFS).path,
+        new int[] {5});
+
+    t.checkException(new IllegalArgumentException("Unknown search astar"), 
+        graph, "begin", MazeSolver.ASTAR);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  //////////////////////////////// EXAMPLES AND TESTS FOR PATHINDEX ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test building the index of a maze
+  void testPathIndex(Tester t) {
+    this.initMazeConditions();
+
+    // in the 2 by 2 maze the first cell is connected to cells 1 and 2, and cell 2 to cell 3
+    PathIndex index = this.testingMaze1.pathIndex();
+    t.checkExpect(index.parents, new int[] {0, 0, 0, 2});
+    t.checkExpect(index.depths, new int[] {0, 1, 1, 2});
+    t.checkExpect(index.jumps, new int[] {0, 0, 0, 2});
+    t.checkExpect(this.testingMaze1.pathIndex(), index);
+
+    // regenerating the maze builds a new index
+    this.testingMaze1.onKeyEvent("r");
+    t.checkExpect(this.testingMaze1.pathIndex == null, true);
+    t.checkExpect(this.testingMaze1.pathIndex() == index, false);
+
+    // every jump is to an ancestor, and the cells at the same depth jump to the same depth
+    index = this.testingMaze2.pathIndex();
+    int[] jumpDepths = new int[250];
+    Arrays.fill(jumpDepths, -1);
+    for (int cell = 0; cell < 250; cell++) {
+      int depth = index.depths[cell];
+      t.checkExpect(index.ancestorAt(cell, index.depths[index.jumps[cell]]), index.jumps[cell]);
+      if (jumpDepths[depth] >= 0) {
+        t.checkExpect(index.depths[index.jumps[cell]], jumpDepths[depth]);
+      }
+      jumpDepths[depth] = index.depths[index.jumps[cell]];
+    }
+
+    // a grid whose cells aren't all connected can't be indexed
+    t.checkConstructorException(new IllegalArgumentException("Maze must be a spanning tree"),
+        "PathIndex", new MazeGrid(2, 2));
+  }
+
+
+  // test the methods ancestorAt and lowestCommonAncestor
+  void testLowestCommonAncestor(Tester t) {
+    this.initMazeConditions();
+    PathIndex index = this.testingMaze1.pathIndex();
+    t.checkExpect(index.ancestorAt(3, 1), 2);
+    t.checkExpect(index.ancestorAt(3, 0), 0);
+    t.checkExpect(index.ancestorAt(3, 2), 3);
+    t.checkExpect(index.lowestCommonAncestor(1, 3), 0);
+    t.checkExpect(index.lowestCommonAncestor(3, 2), 2);
+    t.checkExpect(index.lowestCommonAncestor(1, 1), 1);
+    t.checkException(new IllegalArgumentException("Cell must be a cell of the maze"), 
+        index, "lowestCommonAncestor", 0, 4);
+  }
+
+
+  // test the methods distance and path against the paths found by searching the maze
+  void testIndexedPaths(Tester t) {
+    this.initMazeConditions();
+    PathIndex index = this.testingMaze1.pathIndex();
+    t.checkExpect(index.path(1, 3), new int[] {1, 0, 2, 3});
+    t.checkExpect(index.path(3, 1), new int[] {3, 2, 0, 1});
+    t.checkExpect(index.path(2, 2), new int[] {2});
+    t.checkExpect(index.distance(1, 3), 3);
+
+    // the path between every pair of cells of the 25 by 10 maze is the only one a search finds
+    index = this.testingMaze2.pathIndex();
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    for (int from = 0; from < 250; from += 7) {
+      for (int to = 0; to < 250; to += 3) {
+        int[] path = solver.bfs(from, to).path;
+        t.checkExpect(index.path(from, to), path);
+        t.checkExpect(index.distance(from, to), path.length - 1);
+      }
+    }
+
+    // and in mazes too large to draw, where the paths are thousands of cells long
+    Maze wideMaze = new Maze(1500, 300, new Random(2), Maze.ELLER);
+    index = wideMaze.pathIndex();
+    int[] path = new MazeSolver(wideMaze.grid).bfs(1234, 449999).path;
+    t.checkExpect(index.path(1234, 449999), path);
+    t.checkExpect(index.distance(449999, 1234), path.length - 1);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ///////////////////////////////// EXAMPLES AND TESTS FOR MAZEFILE ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test writing a maze with the method write and reading it back
+  void testMazeFileWrite(Tester t) throws IOException {
+    Path path = Files.createTempFile("maze", ".bin");
+    try {
+      Maze maze = new Maze(25, 10, 7L, Maze.ELLER);
+      int[] solution = new MazeSolver(maze.grid).bfs(0, 249).path;
+      MazeFile.write(path, maze, solution);
+      t.checkExpect(Files.size(path), 
+          (long) MazeFile.HEADER_BYTES + MazeFile.wallBytes(250) + MazeFile.solutionBytes(250));
+
+      // the header
+      MazeFile file = new MazeFile(path);
+      t.checkExpect(file.width, 25);
+      t.checkExpect(file.height, 10);
+      t.checkExpect(file.generator, Maze.ELLER);
+      t.checkExpect(file.seeded, true);
+      t.checkExpect(file.seed, 7L);
+      t.checkExpect(file.hasSolution, true);
+      t.checkExpect(file.start, 0);
+      t.checkExpect(file.goal, 249);
+      t.checkExpect(file.solutionLength, solution.length);
+
+      // the walls queried from the file match the walls of the maze
+      int[] fileNeighbors = new int[4];
+      int[] gridNeighbors = new int[4];
+      for (int cell = 0; cell < 250; cell++) {
+        t.checkExpect(file.hasRightWall(cell), maze.grid.hasRightWall(cell));
+        t.checkExpect(file.hasBottomWall(cell), maze.grid.hasBottomWall(cell));
+        t.checkExpect(file.hasLeftWall(cell), maze.grid.hasLeftWall(cell));
+        t.checkExpect(file.hasTopWall(cell), maze.grid.hasTopWall(cell));
+        t.checkExpect(file.openNeighbors(cell, fileNeighbors), 
+            maze.grid.openNeighbors(cell, gridNeighbors));
+        t.checkExpect(fileNeighbors, gridNeighbors);
+      }
+      t.checkExpect(file.toGrid().walls, maze.grid.walls);
+
+      // the solution
+      t.checkExpect(file.solution(), solution);
+      t.checkExpect(file.isOnSolution(0), true);
+      t.checkExpect(file.isOnSolution(249), true);
+      int onSolution = 0;
+      for (int cell = 0; cell < 250; cell++) {
+        if (file.isOnSolution(cell)) {
+          onSolution++;
+        }
+      }
+      t.checkExpect(onSolution, solution.length);
+
+      // a maze from a random without a known seed and without a solution, written over the
+      // previous file
+      this.initMazeConditions();
+      MazeFile.write(path, this.testingMaze1, null);
+      file = new MazeFile(path);
+      t.checkExpect(Files.size(path), (long) MazeFile.HEADER_BYTES + 8);
+      t.checkExpect(file.generator, Maze.KRUSKAL);
+      t.checkExpect(file.seeded, false);
+      t.checkExpect(file.hasSolution, false);
+      t.checkExpect(file.isOnSolution(0), false);
+      t.checkExpect(file.solution(), new int[0]);
+      t.checkExpect(file.toGrid().walls, this.testingMaze1.grid.walls);
+
+      // the solution must be a path through the maze
+      t.checkException(new IllegalArgumentException("Solution must be a path through the maze"),
+          this, "writeMazeFile", path, this.testingMaze1, new int[] {0, 1, 3});
+      t.checkException(new IllegalArgumentException("Solution must only contain cells of the maze"),
+          this, "writeMazeFile", path, this.testingMaze1, new int[] {0, 4});
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+
+  // writes a maze file, so that the exceptions of MazeFile.write can be checked
+  void writeMazeFile(Path path, Maze maze, int[] solution) throws IOException {
+    MazeFile.write(path, maze, solution);
+  }
+
+
+  // test opening files that aren't valid maze files
+  void testMazeFileOpen(Tester t) throws IOException {
+    Path path = Files.createTempFile("maze", ".bin");
+    try {
+      Files.write(path, new byte[] {1, 2, 3});
+      t.checkConstructorException(new IOException("Not a maze file"), "MazeFile", path);
+      Files.write(path, new byte[MazeFile.HEADER_BYTES]);
+      t.checkConstructorException(new IOException("Not a maze file"), "MazeFile", path);
+
+      this.initMazeConditions();
+      MazeFile.write(path, this.testingMaze1, new int[] {0, 2, 3});
+      t.checkExpect(new MazeFile(path).solution(), new int[] {0, 2, 3});
+      byte[] bytes = Files.readAllBytes(path);
+
+      // a newer version
+      bytes[4] = 2;
+      Files.write(path, bytes);
+      t.checkConstructorException(new IOException("Unsupported maze file version 2"), 
+          "MazeFile", path);
+
+      // an unknown generator
+      bytes[4] = 1;
+      bytes[6] = 9;
+      Files.write(path, bytes);
+      t.checkConstructorException(new IOException("Unknown generator 9"), "MazeFile", path);
+
+      // a file that has been cut short
+      bytes[6] = 0;
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+      t.checkConstructorException(new IOException("Maze file is corrupt"), "MazeFile", path);
+
+      // a header whose solution isn't made of cells of the maze, so that the solution can't be
+      // read from the file without going outside of it
+      ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+      int[][] corruptions = {{32, -1}, {32, 5}, {32, 0}, {24, 4}, {24, -1}, {28, 4}};
+      for (int[] corruption : corruptions) {
+        int original = header.getInt(corruption[0]);
+        header.putInt(corruption[0], corruption[1]);
+        Files.write(path, bytes);
+        t.checkConstructorException(new IOException("Maze file is corrupt"), "MazeFile", path);
+        header.putInt(corruption[0], original);
+      }
+
+      // a solution whose cells aren't connected
+      bytes[MazeFile.HEADER_BYTES + 8] = 0b1001;
+      Files.write(path, bytes);
+      t.checkException(new IOException("Maze file is corrupt"), new MazeFile(path), "solution");
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+
+  // test generating a maze straight into a file with a MazeFileWriter, without any grid
+  void testMazeFileWriter(Tester t) throws IOException {
+    Path path = Files.createTempFile("maze", ".bin");
+    try {
+      MazeFileWriter.generate(path, 25, 10, 7L);
+      t.checkExpect(Files.size(path), (long) MazeFile.HEADER_BYTES + MazeFile.wallBytes(250));
+
+      // the file holds the same maze as one generated into a grid, only laid out row by row
+      Maze maze = new Maze(25, 10, 7L, Maze.ELLER);
+      MazeFile file = new MazeFile(path);
+      t.checkExpect(file.rowMajor, true);
+      t.checkExpect(file.generator, Maze.ELLER);
+      t.checkExpect(file.seeded, true);
+      t.checkExpect(file.seed, 7L);
+      t.checkExpect(file.hasSolution, false);
+      t.checkExpect(file.wallIndex(1), 25);
+      t.checkExpect(file.wallIndex(10), 1);
+      int[] fileNeighbors = new int[4];
+      int[] gridNeighbors = new int[4];
+      for (int cell = 0; cell < 250; cell++) {
+        t.checkExpect(file.hasRightWall(cell), maze.grid.hasRightWall(cell));
+        t.checkExpect(file.hasBottomWall(cell), maze.grid.hasBottomWall(cell));
+        t.checkExpect(file.openNeighbors(cell, fileNeighbors),
+            maze.grid.openNeighbors(cell, gridNeighbors));
+        t.checkExpect(fileNeighbors, gridNeighbors);
+      }
+      t.checkExpect(file.toGrid().walls, maze.grid.walls);
+
+      // the same maze written through windows of 3 bytes, where rows share the bytes between the
+      // windows and the windows end before the last long of the walls
+      MazeFileWriter writer = new MazeFileWriter(path, 25, 10, 7L, 3);
+      new EllerGenerator(25, 10, new Random(7)).generate(writer);
+      writer.finish();
+      t.checkExpect(writer.windowStart, (long) MazeFile.HEADER_BYTES + 56);
+      t.checkExpect(writer.window.capacity(), 7);
+      t.checkExpect(Files.size(path), (long) MazeFile.HEADER_BYTES + MazeFile.wallBytes(250));
+      t.checkExpect(new MazeFile(path).toGrid().walls, maze.grid.walls);
+
+      // a maze too large to keep in a grid on the heap is streamed a row at a time
+      MazeFileWriter.generate(path, 4000, 4000, 3L);
+      file = new MazeFile(path);
+      t.checkExpect(file.width, 4000);
+      t.checkExpect(file.hasRightWall(15999999), true);
+      t.checkExpect(file.hasBottomWall(15999999), true);
+      long passages = 0;
+      for (int cell = 0; cell < 4000 * 4000; cell++) {
+        if (!file.hasRightWall(cell)) {
+          passages++;
+        }
+        if (!file.hasBottomWall(cell)) {
+          passages++;
+        }
+      }
+      t.checkExpect(passages, 4000L * 4000 - 1);
+
+      // and so is a maze taller than any grid, which only the file format limits, through
+      // windows much smaller than the file
+      writer = new MazeFileWriter(path, 8, 100000, 5L, 1 << 12);
+      new EllerGenerator(8, 100000, new Random(5)).generate(writer);
+      writer.finish();
+      t.checkExpect(Files.size(path), (long) MazeFile.HEADER_BYTES + 200000);
+      ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+      t.checkExpect(bytes.getInt(12), 100000);
+      passages = 0;
+      for (int index = 0; index < 800000; index++) {
+        int walls = bytes.get(MazeFile.HEADER_BYTES + (index >>> 2)) >>> ((index & 3) << 1) & 3;
+        passages += 2 - Integer.bitCount(walls);
+      }
+      t.checkExpect(passages, 800000L - 1);
+      t.checkConstructorException(new IOException("Maze file is corrupt"), "MazeFile", path);
+
+      // the rows must all be written, in order
+      writer = new MazeFileWriter(path, 2, 2, 1L);
+      boolean[] walls = {true, true};
+      t.checkException(new IllegalArgumentException("Rows must be written in order"),
+          writer, "acceptRow", 1, walls, walls);
+      writer.acceptRow(0, walls, walls);
+      t.checkException(new IllegalStateException("Every row must be written before finishing"),
+          writer, "finish");
+      writer.channel.close();
+      t.checkConstructorException(new IllegalArgumentException("Width must be at least 2"),
+          "MazeFileWriter", path, 1, 2, 1L);
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  /////////////////////////////// EXAMPLES AND TESTS FOR MAZECACHE ////////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method get, which generates a maze once and then returns it from the cache
+  void testMazeCacheGet(Tester t) throws IOException {
+    MazeCache cache = new MazeCache();
+    CachedMaze cached = cache.get(20, 10, 3, Maze.ELLER);
+    Maze maze = new Maze(20, 10, 3L, Maze.ELLER);
+    t.checkExpect(cached.key, "20x10:3:eller");
+    t.checkExpect(cached.toGrid().walls, maze.grid.walls);
+    t.checkExpect(cached.seed, 3L);
+    t.checkExpect(cached.generator, Maze.ELLER);
+    t.checkExpect(cached.solution, new MazeSolver(maze.grid).bfs(0, 199).path);
+    t.checkExpect(cached.grid.walls, maze.grid.walls);
+
+    // only the walls and the solution are kept, and counted against the capacity
+    t.checkExpect(cached.bytes, 4L * cached.solution.length + 8 * maze.grid.walls.length);
+    t.checkExpect(cached.bytes < 200 * (2 + 32) / 8, true);
+    t.checkExpect(cache.misses.get(), 1L);
+    t.checkExpect(cache.hits.get(), 0L);
+    t.checkExpect(cache.size(), 1);
+    t.checkExpect(cache.bytes(), cached.bytes);
+
+    // the same maze is returned again without generating it, but not a different seed, size or
+    // generator
+    t.checkExpect(cache.get(20, 10, 3, Maze.ELLER) == cached, true);
+    t.checkExpect(cache.hits.get(), 1L);
+    t.checkExpect(cache.get(20, 10, 4, Maze.ELLER) == cached, false);
+    t.checkExpect(cache.get(10, 20, 3, Maze.ELLER) == cached, false);
+    t.checkExpect(cache.get(20, 10, 3, Maze.KRUSKAL) == cached, false);
+    t.checkExpect(cache.misses.get(), 4L);
+    t.checkExpect(cache.size(), 4);
+
+    // mazes that can't be generated aren't cached
+    t.checkException(new IllegalArgumentException("Generator must be kruskal, eller or parallel"), 
+        cache, "get", 20, 10, 3L, "prim");
+    t.checkExpect(cache.size(), 4);
+    t.checkExpect(cache.loading.isEmpty(), true);
+    t.checkConstructorException(new IllegalArgumentException("Capacity must not be negative"), 
+        "MazeCache", -1L);
+
+    cache.clear();
+    t.checkExpect(cache.size(), 0);
+    t.checkExpect(cache.bytes(), 0L);
+    t.checkExpect(cache.evictions.get(), 0L);
+  }
+
+
+  // test the method add, which evicts the least recently used mazes once the cache is full
+  void testMazeCacheEviction(Tester t) {
+    // room for any two of the first three mazes, but not all three of them
+    long capacity = MazeCache.generate("", 20, 10, 0, Maze.KRUSKAL).bytes 
+        + MazeCache.generate("", 20, 10, 1, Maze.KRUSKAL).bytes 
+        + MazeCache.generate("", 20, 10, 2, Maze.KRUSKAL).bytes - 1;
+    MazeCache cache = new MazeCache(capacity);
+    CachedMaze first = cache.get(20, 10, 0, Maze.KRUSKAL);
+    CachedMaze second = cache.get(20, 10, 1, Maze.KRUSKAL);
+    t.checkExpect(cache.bytes(), first.bytes + second.bytes);
+    t.checkExpect(cache.evictions.get(), 0L);
+
+    // using the first maze makes the second one the least recently used, so it is evicted
+    cache.get(20, 10, 0, Maze.KRUSKAL);
+    CachedMaze third = cache.get(20, 10, 2, Maze.KRUSKAL);
+    t.checkExpect(cache.evictions.get(), 1L);
+    t.checkExpect(cache.size(), 2);
+    t.checkExpect(cache.bytes(), first.bytes + third.bytes);
+    t.checkExpect(cache.entries.containsKey(second.key), false);
+    t.checkExpect(new ArrayList<String>(cache.entries.keySet()), 
+        new ArrayList<String>(Arrays.asList(first.key, third.key)));
+
+    // so asking for it again generates it again
+    t.checkExpect(cache.get(20, 10, 1, Maze.KRUSKAL) == second, false);
+    t.checkExpect(cache.misses.get(), 4L);
+    t.checkExpect(cache.entries.containsKey(first.key), false);
+
+    // a maze larger than the whole cache is returned but not kept
+    MazeCache empty = new MazeCache(0);
+    t.checkExpect(empty.get(20, 10, 0, Maze.KRUSKAL).toGrid().walls, first.toGrid().walls);
+    t.checkExpect(empty.size(), 0);
+    t.checkExpect(empty.evictions.get(), 1L);
+  }
+
+
+  // test that the method get shares a maze that is being generated with every call for it
+  void testMazeCacheLoading(Tester t) throws Exception {
+    MazeCache cache = new MazeCache();
+
+    // a call for a maze that another call is generating gets that call's result
+    CachedMaze other = MazeCache.generate("20x10:3:kruskal", 20, 10, 3, Maze.KRUSKAL);
+    CompletableFuture<CachedMaze> pending = new CompletableFuture<CachedMaze>();
+    cache.loading.put("20x10:3:kruskal", pending);
+    pending.complete(other);
+    t.checkExpect(cache.get(20, 10, 3, Maze.KRUSKAL) == other, true);
+    t.checkExpect(cache.hits.get(), 1L);
+    t.checkExpect(cache.misses.get(), 0L);
+
+    // along with any exception it threw
+    CompletableFuture<CachedMaze> failed = new CompletableFuture<CachedMaze>();
+    cache.loading.put("20x10:4:kruskal", failed);
+    failed.completeExceptionally(new IllegalArgumentException("Generation failed"));
+    t.checkException(new IllegalArgumentException("Generation failed"), 
+        cache, "get", 20, 10, 4L, Maze.KRUSKAL);
+
+    // or error, which is thrown as it is rather than failing to be cast
+    CompletableFuture<CachedMaze> error = new CompletableFuture<CachedMaze>();
+    cache.loading.put("20x10:5:kruskal", error);
+    error.completeExceptionally(new OutOfMemoryError("Generation ran out of memory"));
+    Throwable thrown = null;
+    try {
+      cache.get(20, 10, 5, Maze.KRUSKAL);
+    }
+    catch (Error e) {
+      thrown = e;
+    }
+    t.checkExpect(thrown instanceof OutOfMemoryError, true);
+    t.checkExpect(thrown.getMessage(), "Generation ran out of memory");
+    cache.loading.clear();
+
+    // many threads asking for the same mazes at once only generate each of them once
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<CachedMaze>> results = new ArrayList<Future<CachedMaze>>();
+    for (int i = 0; i < 64; i++) {
+      results.add(pool.submit(new CacheGetTask(cache, 200, 200, i % 2)));
+    }
+    for (int i = 0; i < 64; i++) {
+      t.checkExpect(results.get(i).get() == results.get(i % 2).get(), true);
+    }
+    pool.shutdown();
+    t.checkExpect(cache.misses.get(), 2L);
+    // every call but the two that generated got a maze without generating it, on top of the
+    // call that waited for the pending maze
+    t.checkExpect(cache.hits.get(), 63L);
+    t.checkExpect(cache.loading.isEmpty(), true);
+  }
+
+
+  // test the method solver of CachedMaze, whose solvers all search the same walls at once
+  void testCachedMazeSolver(Tester t) throws Exception {
+    CachedMaze cached = new MazeCache().get(200, 200, 7, Maze.KRUSKAL);
+    MazeSolver solver = cached.solver();
+    t.checkExpect(solver.grid == cached.grid, true);
+    t.checkExpect(solver.state == cached.solver().state, false);
+    t.checkExpect(solver.bfs(0, 39999).path, cached.solution);
+
+    // many threads solving the maze at once, with different searches between different cells,
+    // each find the same path as a search on its own
+    String[] searches = {MazeSolver.BFS, MazeSolver.DFS, MazeSolver.ASTAR, 
+      MazeSolver.BIDIRECTIONAL};
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<SolveResult>> results = new ArrayList<Future<SolveResult>>();
+    for (int i = 0; i < 64; i++) {
+      results.add(pool.submit(new SolveTask(cached, i * 97, 39999 - i * 89, searches[i % 4])));
+    }
+    for (int i = 0; i < 64; i++) {
+      int[] path = results.get(i).get().path;
+      t.checkExpect(path, solver.solve(i * 97, 39999 - i * 89, searches[i % 4]).path);
+      MazeFile.checkPath(cached.grid, path);
+    }
+    pool.shutdown();
+    t.checkExpect(cached.grid.walls, cached.toGrid().walls);
+  }
+
+
+  // test the constructor that takes a maze from a cache
+  void testMazeFromCache(Tester t) {
+    MazeCache cache = new MazeCache();
+    Maze cached = new Maze(20, 10, 5L, Maze.ELLER, cache);
+    Maze generated = new Maze(20, 10, 5L, Maze.ELLER);
+    t.checkExpect(cached.grid.walls, generated.grid.walls);
+    t.checkExpect(cached.seeded, true);
+    t.checkExpect(cached.seed, 5L);
+    t.checkExpect(cached.generator, Maze.ELLER);
+    for (int x = 0; x < 20; x++) {
+      for (int y = 0; y < 10; y++) {
+        Vertex fromCache = cached.vertices.get(x).get(y);
+        Vertex fromGenerator = generated.vertices.get(x).get(y);
+        t.checkExpect(fromCache.rightBorder, fromGenerator.rightBorder);
+        t.checkExpect(fromCache.bottomBorder, fromGenerator.bottomBorder);
+        t.checkExpect(fromCache.borderingVerticesInMaze.size(), 
+            fromGenerator.borderingVerticesInMaze.size());
+      }
+    }
+
+    // a second maze from the cache has the same walls, but a grid of its own to search
+    Maze again = new Maze(20, 10, 5L, Maze.ELLER, cache);
+    t.checkExpect(cache.misses.get(), 1L);
+    t.checkExpect(cache.hits.get(), 1L);
+    t.checkExpect(again.grid == cached.grid, false);
+    t.checkExpect(again.grid.walls, generated.grid.walls);
+
+    // and can be solved like any other maze
+    again.onKeyEvent("b");
+    while (again.currentlySearchingMaze) {
+      again.onTick();
+    }
+    t.checkExpect(again.mazeSolved, true);
+    t.checkExpect(again.lastVertex().color, Color.BLUE);
+
+    // 'r' generates a new maze, the same one whether the walls came from the cache or not
+    cached.onKeyEvent("r");
+    generated.onKeyEvent("r");
+    t.checkExpect(Arrays.equals(cached.grid.walls, again.grid.walls), false);
+    t.checkExpect(cached.grid.walls, generated.grid.walls);
+    Maze kruskal = new Maze(30, 20, 9L, Maze.KRUSKAL, cache);
+    long[] first = kruskal.grid.walls.clone();
+    kruskal.onKeyEvent("r");
+    Maze uncached = new Maze(30, 20, 9L, Maze.KRUSKAL);
+    uncached.onKeyEvent("r");
+    t.checkExpect(Arrays.equals(kruskal.grid.walls, first), false);
+    t.checkExpect(kruskal.grid.walls, uncached.grid.walls);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  /////////////////////////////// EXAMPLES AND TESTS FOR MAZEEXPORTER /////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // exports the maze as a PNG and reads the image back
+  BufferedImage exportPng(MazeExporter exporter) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.writePng(out);
+    return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+
+  // test the method writePng
+  void testWritePng(Tester t) throws IOException {
+    this.initMazeConditions();
+
+    // the 2 by 2 maze with its solution, where the cells on it are only joined by their color
+    // where neighbouring cells have the same color
+    BufferedImage image = 
+        this.exportPng(new MazeExporter(this.testingMaze1.grid, 4, new int[] {0, 2, 3}, null));
+    t.checkExpect(image.getWidth(), 9);
+    t.checkExpect(image.getHeight(), 9);
+    t.checkExpect(image.getRGB(0, 0), Color.BLACK.getRGB());
+    t.checkExpect(image.getRGB(2, 2), Color.GREEN.getRGB());
+    t.checkExpect(image.getRGB(6, 2), Color.BLUE.getRGB());
+    t.checkExpect(image.getRGB(2, 6), Color.LIGHT_GRAY.getRGB());
+    t.checkExpect(image.getRGB(6, 6), Color.RED.getRGB());
+    t.checkExpect(image.getRGB(4, 2), Color.LIGHT_GRAY.getRGB());
+    t.checkExpect(image.getRGB(4, 6), Color.BLACK.getRGB());
+    t.checkExpect(image.getRGB(4, 4), Color.BLACK.getRGB());
+    t.checkExpect(image.getRGB(8, 8), Color.BLACK.getRGB());
+
+    // the 25 by 10 maze after a search, with the visited cells and the solution
+    this.testingMaze2.onKeyEvent("b");
+    while (!this.testingMaze2.mazeSolved) {
+      this.testingMaze2.onTick();
+    }
+    MazeGrid grid = this.testingMaze2.grid;
+    SearchState visited = this.testingMaze2.searches.get(0).state;
+    MazeExporter exporter = new MazeExporter(grid, 3, new int[] {2, 0, 1}, visited);
+    t.checkExpect(exporter.solution, new int[] {0, 25, 50});
+    image = this.exportPng(exporter);
+    t.checkExpect(image.getWidth(), 76);
+    t.checkExpect(image.getHeight(), 31);
+    for (int x = 0; x < 25; x++) {
+      for (int y = 0; y < 10; y++) {
+        int cell = grid.index(x, y);
+        Color color = Color.LIGHT_GRAY;
+        if (cell == 0) {
+          color = Color.GREEN;
+        }
+        else if (cell == 249) {
+          color = Color.RED;
+        }
+        else if (cell <= 2) {
+          color = Color.BLUE;
+        }
+        else if (visited.isVisited(cell)) {
+          color = new Color(58, 188, 229);
+        }
+        t.checkExpect(image.getRGB(x * 3 + 1, y * 3 + 1), color.getRGB());
+        t.checkExpect(image.getRGB(x * 3 + 3, y * 3 + 1) == Color.BLACK.getRGB(), 
+            grid.hasRightWall(cell));
+        t.checkExpect(image.getRGB(x * 3 + 1, y * 3 + 3) == Color.BLACK.getRGB(), 
+            grid.hasBottomWall(cell));
+      }
+    }
+
+    // the image is the same however many rows are in each stripe
+    exporter.stripeRows = 1;
+    BufferedImage striped = this.exportPng(exporter);
+    for (int x = 0; x < 76; x++) {
+      for (int y = 0; y < 31; y++) {
+        t.checkExpect(striped.getRGB(x, y), image.getRGB(x, y));
+      }
+    }
+
+    // mazes too large to draw can be exported too, only holding one stripe at a time
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    exporter = new MazeExporter(wideMaze.grid, 2, null, null);
+    image = this.exportPng(exporter);
+    t.checkExpect(image.getWidth(), 3001);
+    t.checkExpect(image.getHeight(), 601);
+    t.checkExpect(exporter.stripeRows, 43);
+    t.checkExpect(exporter.stripe.length, 44 * 1500);
+    t.checkExpect(image.getRGB(1, 1), Color.GREEN.getRGB());
+    t.checkExpect(image.getRGB(2999, 599), Color.RED.getRGB());
+
+    t.checkConstructorException(new IllegalArgumentException("Cell size must be between 2 and 32"),
+        "MazeExporter", grid, 1, null, visited);
+    t.checkConstructorException(
+        new IllegalArgumentException("Solution must only contain cells of the maze"),
+        "MazeExporter", grid, 3, new int[] {250}, visited);
+  }
+
+
+  // test the method writeSvg
+  void testWriteSvg(Tester t) throws IOException {
+    this.initMazeConditions();
+    StringWriter out = new StringWriter();
+    new MazeExporter(this.testingMaze1.grid, 4, new int[] {0, 2, 3}, null).writeSvg(out);
+    t.checkExpect(out.toString(), 
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"9\" height=\"9\" "
+        + "viewBox=\"-0.5 -0.5 9 9\">\n"
+        + "<rect x=\"0\" y=\"0\" width=\"8\" height=\"8\" fill=\"#c0c0c0\"/>\n"
+        + "<path fill=\"#0000ff\" d=\"M4 0h4v4h-4z\"/>\n"
+        + "<path fill=\"#00ff00\" d=\"M0 0h4v4h-4z\"/>\n"
+        + "<path fill=\"#ff0000\" d=\"M4 4h4v4h-4z\"/>\n"
+        + "<path stroke=\"#000000\" stroke-linecap=\"square\" fill=\"none\" "
+        + "d=\"M0 0h8M0 8h8M0 0v8M4 4v4M8 0v8\"/>\n"
+        + "</svg>\n");
+
+    // each stripe is read once for all of its colors, so every stripe has its own paths
+    out = new StringWriter();
+    MazeExporter exporter = new MazeExporter(this.testingMaze1.grid, 4, new int[] {0, 1, 3}, null);
+    exporter.stripeRows = 1;
+    exporter.writeSvg(out);
+    t.checkExpect(out.toString().contains("<path fill=\"#00ff00\" d=\"M0 0h4v4h-4z\"/>\n"
+        + "<path fill=\"#0000ff\" d=\"M0 4h4v4h-4z\"/>\n"
+        + "<path fill=\"#ff0000\" d=\"M4 4h4v4h-4z\"/>\n"), true);
+
+    // the walls along the same line are merged into one segment, so the outer walls of the
+    // 25 by 10 maze are four segments however many cells they border
+    out = new StringWriter();
+    MazeSolver solver = new MazeSolver(this.testingMaze2.grid);
+    solver.bfs(0, 249);
+    new MazeExporter(this.testingMaze2.grid, 2, null, solver.state).writeSvg(out);
+    String svg = out.toString();
+    t.checkExpect(svg.contains("M0 0h50"), true);
+    t.checkExpect(svg.contains("M0 20h50"), true);
+    t.checkExpect(svg.contains("M0 0v20"), true);
+    t.checkExpect(svg.contains("M50 0v20"), true);
+    t.checkExpect(svg.contains("#0000ff"), false);
+    t.checkExpect(svg.contains("#3abce5"), true);
+  }
+
+
+  // test the method renderRow
+  void testRenderRow(Tester t) {
+    this.initMazeConditions();
+    MazeExporter exporter = new MazeExporter(this.testingMaze1.grid, 2, null, null);
+    byte[] row = new byte[6];
+    exporter.readStripe(0, 2);
+    exporter.renderRow(0, row);
+    t.checkExpect(row, new byte[] {0, 1, 1, 1, 1, 1});
+    exporter.renderRow(1, row);
+    t.checkExpect(row, new byte[] {0, 1, 4, 0, 0, 1});
+    exporter.renderRow(2, row);
+    t.checkExpect(row, new byte[] {0, 1, 0, 1, 0, 1});
+    exporter.renderRow(3, row);
+    t.checkExpect(row, new byte[] {0, 1, 0, 1, 5, 1});
+    exporter.renderRow(4, row);
+    t.checkExpect(row, new byte[] {0, 1, 1, 1, 1, 1});
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  /////////////////////////////// EXAMPLES AND TESTS FOR MAZERASTER ///////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method drawAll, which draws the same image as a MazeExporter when the cells are in
+  // the same states
+  void testMazeRasterDrawAll(Tester t) throws IOException {
+    this.initMazeConditions();
+    MazeGrid grid = this.testingMaze2.grid;
+    MazeSolver solver = new MazeSolver(grid);
+    int[] solution = solver.dfs(0, 249).path;
+    MazeRaster raster = new MazeRaster(grid, 3);
+    for (int cell = 0; cell < 250; cell++) {
+      if (solver.state.isVisited(cell)) {
+        raster.states[cell] = MazeExporter.VISITED;
+      }
+    }
+    for (int cell : solution) {
+      raster.states[cell] = MazeExporter.SOLUTION;
+    }
+    raster.states[0] = MazeExporter.START;
+    raster.states[249] = MazeExporter.END;
+    raster.drawAll();
+
+    MazeExporter exporter = new MazeExporter(grid, 3, solution, solver.state);
+    exporter.readStripe(0, 10);
+    byte[] row = new byte[exporter.imageWidth() + 1];
+    t.checkExpect(raster.pixelWidth, exporter.imageWidth());
+    t.checkExpect(raster.pixelHeight, exporter.imageHeight());
+    for (int y = 0; y < raster.pixelHeight; y++) {
+      exporter.renderRow(y, row);
+      for (int x = 0; x < raster.pixelWidth; x++) {
+        t.checkExpect(raster.shown.getPixel(x, y), MazeExporter.PALETTE[row[x + 1]]);
+      }
+    }
+
+    // the pixels are drawn straight into the image that is shown
+    ComputedPixelImage shown = raster.shown;
+    t.checkExpect(raster.pixels, MazeRaster.pixelsOf(shown));
+    t.checkExpect(raster.pixels[raster.pixelWidth + 1], Color.GREEN.getRGB());
+    t.checkExpect(shown.getPixel(1, 1), Color.GREEN);
+    t.checkExpect(shown.getPixel(0, 0), Color.BLACK);
+    t.checkExpect(shown.getPixel(74, 29), Color.RED);
+    t.checkConstructorException(
+        new IllegalArgumentException("Cell size must be between 1 and 1000"), 
+        "MazeRaster", grid, 0);
+  }
+
+
+  // test the method setCell, which only draws the cell and the lines around it
+  void testMazeRasterSetCell(Tester t) {
+    this.initMazeConditions();
+    MazeRaster raster = new MazeRaster(this.testingMaze1.grid, 4);
+    raster.states[0] = MazeExporter.START;
+    raster.drawAll();
+
+    // the cell below the start is joined to it once they are in the same state, through the
+    // line between them that has no wall
+    t.checkExpect(this.testingMaze1.grid.hasBottomWall(0), false);
+    t.checkExpect(raster.shown.getPixel(2, 4), Color.LIGHT_GRAY);
+    raster.setCell(1, MazeExporter.START);
+    t.checkExpect(raster.shown.getPixel(2, 6), Color.GREEN);
+    t.checkExpect(raster.shown.getPixel(2, 4), Color.GREEN);
+    t.checkExpect(raster.shown.getPixel(0, 4), Color.BLACK);
+    t.checkExpect(raster.shown.getPixel(4, 6), Color.BLACK);
+
+    // the cells around it are left as they are
+    t.checkExpect(raster.shown.getPixel(6, 2), Color.LIGHT_GRAY);
+    t.checkExpect(raster.shown.getPixel(6, 6), Color.LIGHT_GRAY);
+
+    raster.setCell(1, MazeExporter.SOLUTION);
+    t.checkExpect(raster.shown.getPixel(2, 6), Color.BLUE);
+    t.checkExpect(raster.shown.getPixel(2, 4), Color.LIGHT_GRAY);
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR INFINITEMAZE //////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method chunk of InfiniteMaze, which generates every chunk the same way every time
+  void testInfiniteMazeChunk(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(5, 16, 1 << 20);
+    MazeGrid chunk = maze.chunk(0, 0);
+    t.checkExpect(maze.chunk(0, 0) == chunk, true);
+    t.checkExpect(maze.chunk(-3, 7).walls, new InfiniteMaze(5, 16, 1 << 20).chunk(-3, 7).walls);
+    t.checkFail(maze.chunk(1, 0).walls, chunk.walls);
+    t.checkFail(new InfiniteMaze(6, 16, 1 << 20).chunk(0, 0).walls, chunk.walls);
+    t.checkExpect(maze.generated, 3L);
+    t.checkExpect(maze.size(), 3);
+    t.checkExpect(maze.bytes, 3 * 8L * chunk.walls.length);
+
+    // every chunk is a perfect maze of its own
+    int openWalls = 0;
+    for (int cell = 0; cell < 256; cell++) {
+      if (cell + 16 < 256 && !chunk.hasRightWall(cell)) {
+        openWalls++;
+      }
+      if ((cell + 1) % 16 != 0 && !chunk.hasBottomWall(cell)) {
+        openWalls++;
+      }
+    }
+    t.checkExpect(openWalls, 255);
+    t.checkExpect(new MazeSolver(chunk).bfs(0, 255).path.length > 0, true);
+
+    IllegalArgumentException badSize = 
+        new IllegalArgumentException("Chunk size must be between 2 and 4096");
+    t.checkConstructorException(badSize, "InfiniteMaze", 1L, 1, 100L);
+    t.checkConstructorException(new IllegalArgumentException("Capacity must not be negative"), 
+        "InfiniteMaze", 1L, 16, -1L);
+  }
+
+
+  // test that InfiniteMaze evicts the least recently used chunks once they take up more than
+  // its capacity, and generates them the same way again when they are needed
+  void testInfiniteMazeEviction(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(5, 16, 3 * 64);
+    MazeGrid first = maze.chunk(0, 0);
+    maze.chunk(0, 1);
+    maze.chunk(1, 0);
+    maze.chunk(0, 0);
+    t.checkExpect(maze.evictions, 0L);
+
+    // the chunk below the first one was used least recently
+    maze.chunk(1, 1);
+    t.checkExpect(maze.size(), 3);
+    t.checkExpect(maze.bytes, 3 * 64L);
+    t.checkExpect(maze.evictions, 1L);
+    t.checkExpect(maze.chunks.containsKey(InfiniteMaze.key(0, 1)), false);
+    t.checkExpect(maze.chunks.containsKey(InfiniteMaze.key(0, 0)), true);
+
+    MazeGrid again = maze.chunk(0, 1);
+    t.checkExpect(maze.generated, 5L);
+    t.checkExpect(again.walls, new InfiniteMaze(5, 16, 1 << 20).chunk(0, 1).walls);
+    t.checkExpect(maze.chunk(0, 0) == first, true);
+    t.checkExpect(maze.chunks.containsKey(InfiniteMaze.key(1, 0)), false);
+
+    // a maze with no room for any chunk still keeps the one it is using
+    InfiniteMaze tiny = new InfiniteMaze(5, 16, 0);
+    tiny.chunk(0, 0);
+    tiny.chunk(0, 1);
+    t.checkExpect(tiny.size(), 1);
+    t.checkExpect(tiny.evictions, 1L);
+  }
+
+
+  // test the methods hasRightWall, hasBottomWall, hasLeftWall and hasTopWall of InfiniteMaze,
+  // where neighboring chunks agree on the single opening between them
+  void testInfiniteMazeWalls(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(9, 8, 1 << 20);
+    for (int chunkX = -2; chunkX < 2; chunkX++) {
+      for (int chunkY = -2; chunkY < 2; chunkY++) {
+        int rightOpenings = 0;
+        int bottomOpenings = 0;
+        for (int i = 0; i < 8; i++) {
+          if (!maze.hasRightWall(chunkX * 8 + 7, chunkY * 8 + i)) {
+            rightOpenings++;
+          }
+          if (!maze.hasBottomWall(chunkX * 8 + i, chunkY * 8 + 7)) {
+            bottomOpenings++;
+          }
+        }
+        t.checkExpect(rightOpenings, 1);
+        t.checkExpect(bottomOpenings, 1);
+        t.checkExpect(maze.hasRightWall(chunkX * 8 + 7, 
+            chunkY * 8 + maze.opening(chunkX, chunkY, InfiniteMaze.RIGHT)), false);
+      }
+    }
+
+    // inside a chunk the walls are the walls of its grid, and the left and top walls of a cell
+    // are the right and bottom walls of its neighbors
+    MazeGrid chunk = maze.chunk(-1, 0);
+    int[] gridNeighbors = new int[4];
+    long[] neighbors = new long[4];
+    for (int x = -8; x < 0; x++) {
+      for (int y = 0; y < 8; y++) {
+        if (x < -1) {
+          t.checkExpect(maze.hasRightWall(x, y), chunk.hasRightWall(chunk.index(x + 8, y)));
+        }
+        if (y < 7) {
+          t.checkExpect(maze.hasBottomWall(x, y), chunk.hasBottomWall(chunk.index(x + 8, y)));
+        }
+        t.checkExpect(maze.hasLeftWall(x, y), maze.hasRightWall(x - 1, y));
+        t.checkExpect(maze.hasTopWall(x, y), maze.hasBottomWall(x, y - 1));
+        if (x > -8 && x < -1 && y > 0 && y < 7) {
+          int count = chunk.openNeighbors(chunk.index(x + 8, y), gridNeighbors);
+          t.checkExpect(maze.openNeighbors(x, y, neighbors), count);
+          for (int i = 0; i < count; i++) {
+            t.checkExpect(neighbors[i], InfiniteMaze.pack(gridNeighbors[i] / 8 - 8, 
+                gridNeighbors[i] % 8));
+          }
+        }
+      }
+    }
+  }
+
+
+  // test the methods pack, xOf and yOf of InfiniteMaze
+  void testPack(Tester t) {
+    t.checkExpect(InfiniteMaze.xOf(InfiniteMaze.pack(3, -4)), 3);
+    t.checkExpect(InfiniteMaze.yOf(InfiniteMaze.pack(3, -4)), -4);
+    t.checkExpect(InfiniteMaze.xOf(InfiniteMaze.pack(Integer.MIN_VALUE, Integer.MAX_VALUE)), 
+        Integer.MIN_VALUE);
+    t.checkExpect(InfiniteMaze.yOf(InfiniteMaze.pack(Integer.MIN_VALUE, Integer.MAX_VALUE)), 
+        Integer.MAX_VALUE);
+    t.checkExpect(InfiniteMaze.pack(0, -1) == InfiniteMaze.pack(-1, 0), false);
+  }
+
+
+  // test the method copyWindow of InfiniteMaze
+  void testCopyWindow(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(9, 8, 1 << 20);
+    MazeGrid window = new MazeGrid(20, 10);
+    maze.copyWindow(-5, -3, window);
+    for (int x = 0; x < 20; x++) {
+      for (int y = 0; y < 10; y++) {
+        int cell = window.index(x, y);
+        t.checkExpect(window.hasRightWall(cell), x == 19 || maze.hasRightWall(x - 5, y - 3));
+        t.checkExpect(window.hasBottomWall(cell), y == 9 || maze.hasBottomWall(x - 5, y - 3));
+      }
+    }
+  }
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ///////////////////////////// EXAMPLES AND TESTS FOR INFINITESOLVER /////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method bfs of InfiniteSolver, which crosses as many chunks as it needs to
+  void testInfiniteSolverBfs(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(7, 16, 1 << 20);
+    InfiniteSolver solver = new InfiniteSolver(maze);
+    long[] path = solver.bfs(3, 4, 100, -60, 1 << 20);
+    t.checkExpect(path[0], InfiniteMaze.pack(3, 4));
+    t.checkExpect(path[path.length - 1], InfiniteMaze.pack(100, -60));
+    for (int i = 1; i < path.length; i++) {
+      long from = path[i - 1];
+      int side = InfiniteSolver.sideOf(from, path[i]);
+      t.checkExpect(InfiniteSolver.neighbor(from, side), path[i]);
+      long[] neighbors = new long[4];
+      int count = maze.openNeighbors(InfiniteMaze.xOf(from), InfiniteMaze.yOf(from), neighbors);
+      boolean open = false;
+      for (int j = 0; j < count; j++) {
+        open = open || neighbors[j] == path[i];
+      }
+      t.checkExpect(open, true);
+    }
+
+    // a bfs finds the shortest path, which no other path can beat
+    t.checkExpect(path.length >= 97 + 64 + 1, true);
+    t.checkExpect(solver.nodesExpanded <= 1 << 20, true);
+    // a cell next to a chunk can be visited before the chunk is generated
+    t.checkExpect(solver.states.size() >= maze.size(), true);
+
+    // the same search gives the same path, and the path to the start is just the start
+    t.checkExpect(new InfiniteSolver(maze).bfs(3, 4, 100, -60, 1 << 20), path);
+    t.checkExpect(solver.bfs(-9, -9, -9, -9, 1), new long[] {InfiniteMaze.pack(-9, -9)});
 
-    // adding the first vertex (which should be green) and its borders
-    vertex1.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
-    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.GREEN), 5, 5);
-    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 5, 0);
-    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 0, 5);
-    t.checkExpect(manuallyDrawnScene, scene);
+    // a search that expands too many cells gives up
+    t.checkExpect(solver.bfs(0, 0, 1000, 1000, 500), new long[0]);
+    t.checkExpect(solver.nodesExpanded, 500);
+  }
 
-    // adding the second vertex (which should be gray) and its borders
-    vertex2.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
-    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.LIGHT_GRAY), 15, 5);
-    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 15, 0);
-    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 20, 5);
-    t.checkExpect(manuallyDrawnScene, scene);
 
-    // adding the third vertex (which should be gray) and its borders
-    vertex3.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
-    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.LIGHT_GRAY), 5, 15);
-    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 5, 20);
-    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 0, 15);
-    t.checkExpect(manuallyDrawnScene, scene);
+  // test that the memory of an InfiniteMaze and its searches depends on the area that is
+  // explored, and that evicted chunks don't change the path of a search
+  void testInfiniteSolverMemory(Tester t) {
+    InfiniteMaze small = new InfiniteMaze(7, 16, 4 * 64);
+    InfiniteMaze large = new InfiniteMaze(7, 16, 1 << 20);
+    long[] path = new InfiniteSolver(large).bfs(0, 0, 40, 40, 1 << 20);
+    t.checkExpect(new InfiniteSolver(small).bfs(0, 0, 40, 40, 1 << 20), path);
+    t.checkExpect(small.size(), 4);
+    t.checkExpect(small.bytes <= 4 * 64, true);
+    t.checkExpect(small.evictions > 0, true);
+
+    // a search far away from the origin costs as much as one near it
+    InfiniteSolver far = new InfiniteSolver(large);
+    int size = large.size();
+    long[] farPath = far.bfs(1 << 30, -(1 << 30), (1 << 30) + 40, -(1 << 30) + 40, 1 << 20);
+    t.checkExpect(farPath.length > 0, true);
+    t.checkExpect(large.size() - size <= far.states.size(), true);
+    t.checkExpect(far.states.size() < 64, true);
+  }
 
-    // adding the fourth vertex (which should be red) and its borders
-    vertex4.drawVertexAndBorders(manuallyDrawnScene, 10, 2, 2);
-    scene.placeImageXY(new RectangleImage(10, 10, OutlineMode.SOLID, Color.RED), 15, 15);
-    scene.placeImageXY(new LineImage(new Posn(10, 0), Color.BLACK), 15, 20);
-    scene.placeImageXY(new LineImage(new Posn(0, 10), Color.BLACK), 20, 15);
-    t.checkExpect(manuallyDrawnScene, scene);
+
+  // test the method add of InfiniteSolver, which grows its worklist as needed
+  void testInfiniteSolverAdd(Tester t) {
+    InfiniteSolver solver = new InfiniteSolver(new InfiniteMaze(1));
+    for (int i = 0; i < 1024; i++) {
+      solver.add(i);
+    }
+    t.checkExpect(solver.worklist.length, 1024);
+
+    // cells that have been taken off the front make room at the back
+    solver.head = 10;
+    solver.add(1024);
+    t.checkExpect(solver.worklist.length, 1024);
+    t.checkExpect(solver.head, 0);
+    t.checkExpect(solver.tail, 1015);
+    t.checkExpect(solver.worklist[0], 10L);
+    t.checkExpect(solver.worklist[1014], 1024L);
+
+    for (int i = 0; i < 10; i++) {
+      solver.add(i);
+    }
+    t.checkExpect(solver.worklist.length, 2048);
+    t.checkExpect(solver.worklist[1024], 9L);
   }
 
 
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  /////////////////////////// EXAMPLES AND TESTS FOR INFINITEMAZEWORLD ////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the methods makeScene and onKeyEvent of InfiniteMazeWorld
+  void testInfiniteMazeWorld(Tester t) {
+    InfiniteMaze maze = new InfiniteMaze(3, 16, 1 << 20);
+    InfiniteMazeWorld world = new InfiniteMazeWorld(maze, 30, 20, 4);
+    WorldScene scene = world.makeScene();
+    t.checkExpect(world.changed, false);
+    t.checkExpect(world.raster.pixelWidth, 121);
+    t.checkExpect(maze.size(), 4);
+    MazeGrid expected = new MazeGrid(30, 20);
+    maze.copyWindow(0, 0, expected);
+    t.checkExpect(world.window.walls, expected.walls);
+
+    // the arrow keys move the window and only generate the chunks under it
+    world.onKeyEvent("left");
+    world.onKeyEvent("up");
+    t.checkExpect(world.left, -InfiniteMazeWorld.SCROLL);
+    t.checkExpect(world.top, -InfiniteMazeWorld.SCROLL);
+    t.checkExpect(world.changed, true);
+    world.makeScene();
+    maze.copyWindow(-10, -10, expected);
+    t.checkExpect(world.window.walls, expected.walls);
+    t.checkExpect(maze.size(), 8);
+    world.onKeyEvent("right");
+    world.onKeyEvent("down");
+    world.onKeyEvent("down");
+    t.checkExpect(world.left, 0);
+    t.checkExpect(world.top, InfiniteMazeWorld.SCROLL);
+
+    // solving draws the path from the top left cell of the window to the bottom right one
+    world.onKeyEvent("b");
+    world.makeScene();
+    t.checkExpect(world.path[0], InfiniteMaze.pack(0, 10));
+    t.checkExpect(world.path[world.path.length - 1], InfiniteMaze.pack(29, 29));
+    t.checkExpect(world.raster.states[0], MazeExporter.START);
+    t.checkExpect(world.raster.states[world.window.index(29, 19)], MazeExporter.END);
+    int solution = 0;
+    for (byte state : world.raster.states) {
+      if (state == MazeExporter.SOLUTION) {
+        solution++;
+      }
+    }
+    int inside = 0;
+    for (long cell : world.path) {
+      if (InfiniteMaze.xOf(cell) >= 0 && InfiniteMaze.xOf(cell) < 30 
+          && InfiniteMaze.yOf(cell) >= 10 && InfiniteMaze.yOf(cell) < 30) {
+        inside++;
+      }
+    }
+    t.checkExpect(solution, inside - 2);
+    t.checkExpect(world.raster.shown.getPixel(2, 2), Color.GREEN);
+
+    world.onKeyEvent("c");
+    world.makeScene();
+    t.checkExpect(world.path.length, 0);
+    t.checkExpect(world.raster.states[0], MazeExporter.BACKGROUND);
+    t.checkExpect(scene != null, true);
+  }
+
 
   /////////////////////////////////////////////////////////////////////////////////////////////////
-  /////////////////////////////////// EXAMPLES AND TESTS FOR EDGE /////////////////////////////////
+  ///////////////////////////////// EXAMPLES AND TESTS FOR MAZEMETRICS ////////////////////////////
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
 
-  // test the method compareTo
-  void testCompareTo(Tester t) {
-    Edge edge1 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 100);
-    Edge edge2 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 200);
-    Edge edge3 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 400);
-    Edge edge4 = new Edge(new Vertex(0, 0, Color.GREEN), new Vertex(1, 1, Color.LIGHT_GRAY), 400);
+  // test the metrics collected while generating, solving and drawing a maze
+  void testMazeMetrics(Tester t) throws JMException {
+    MazeMetrics metrics = MazeMetrics.METRICS;
+    metrics.reset();
 
-    t.checkExpect(edge1.compareTo(edge2), -100);
-    t.checkExpect(edge2.compareTo(edge1), 100);
-    t.checkExpect(edge1.compareTo(edge3), -300);
-    t.checkExpect(edge3.compareTo(edge1), 300);
-    t.checkExpect(edge2.compareTo(edge3), -200);
-    t.checkExpect(edge3.compareTo(edge2), 200);
-    t.checkExpect(edge2.compareTo(edge2), 0);
-    t.checkExpect(edge3.compareTo(edge4), 0);
+    // nothing is recorded while metrics are disabled
+    t.checkExpect(metrics.isEnabled(), false);
+    this.initMazeConditions();
+    this.testingMaze2.makeScene();
+    t.checkExpect(metrics.getEdgesAccepted(), 0L);
+    t.checkExpect(metrics.getFramesRendered(), 0L);
+
+    // the metrics are only registered with JMX once they are turned on
+    ObjectName name = new ObjectName(MazeMetrics.OBJECT_NAME);
+    t.checkExpect(new MazeMetrics().registered, false);
+    t.checkExpect(metrics.registered 
+        || !ManagementFactory.getPlatformMBeanServer().isRegistered(name), true);
+    metrics.setEnabled(true);
+    t.checkExpect(metrics.registered, true);
+    t.checkExpect(ManagementFactory.getPlatformMBeanServer().isRegistered(name), true);
+    try {
+      // generating a 25 by 10 maze accepts one edge fewer than it has cells, and every edge it
+      // examines takes a union, which finds the sets of both cells
+      Maze maze = new Maze(25, 10, new Random(1));
+      t.checkExpect(metrics.makeVertices.count.sum(), 1L);
+      t.checkExpect(metrics.makeAllEdges.count.sum(), 1L);
+      t.checkExpect(metrics.generateEdgesOfMaze.count.sum(), 1L);
+      t.checkExpect(metrics.getEdgesAccepted(), 249L);
+      t.checkExpect(metrics.getEdgesExamined() >= 249, true);
+      t.checkExpect(metrics.getEdgesExamined() <= 465, true);
+      t.checkExpect(metrics.getUnionFindUnions(), metrics.getEdgesExamined());
+      t.checkExpect(metrics.getUnionFindFinds(), 2 * metrics.getEdgesExamined());
+
+      // the first frame draws every cell, and later ones only the cells that changed, which is
+      // just the first cell once the bfs has expanded it
+      maze.makeScene();
+      maze.onKeyEvent("b");
+      maze.onTick();
+      maze.makeScene();
+      t.checkExpect(metrics.getFramesRendered(), 2L);
+      t.checkExpect(metrics.getCellsDrawn(), 251L);
+      t.checkExpect(metrics.frame.count.sum(), 2L);
+
+      // every step of a search expands one node
+      while (!maze.mazeSolved) {
+        maze.onTick();
+      }
+      long expanded = maze.searches.get(0).nodesExpanded;
+      t.checkExpect(metrics.getNodesExpanded(), expanded);
+      t.checkExpect(metrics.bfsStep.count.sum(), expanded);
+      t.checkExpect(metrics.getPeakFrontier() > 0, true);
+      while (maze.currentlySearchingMaze) {
+        maze.onTick();
+      }
+      t.checkExpect(metrics.retraceStep.count.sum() > 0, true);
+      maze.onKeyEvent("c");
+      maze.onKeyEvent("d");
+      maze.onTick();
+      t.checkExpect(metrics.dfsStep.count.sum(), 1L);
+
+      // the snapshot holds every counter and histogram
+      Map<String, Long> snapshot = metrics.snapshot();
+      t.checkExpect(snapshot.get("edgesAccepted"), 249L);
+      t.checkExpect(snapshot.get("frame.count"), 2L);
+      t.checkExpect(snapshot.get("frame.maxNanos") >= snapshot.get("frame.p99Nanos"), true);
+      t.checkExpect(snapshot.get("frame.p99Nanos") >= snapshot.get("frame.p50Nanos"), true);
+      t.checkExpect(snapshot.size(), 8 + 7 * 5);
+
+      // and so does the MBean
+      t.checkExpect(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "EdgesAccepted"),
+          249L);
+      ManagementFactory.getPlatformMBeanServer().invoke(name, "reset", null, null);
+      t.checkExpect(metrics.getEdgesAccepted(), 0L);
+      t.checkExpect(metrics.getPeakFrontier(), 0L);
+      t.checkExpect(metrics.frame.count.sum(), 0L);
+      ManagementFactory.getPlatformMBeanServer().setAttribute(name, 
+          new Attribute("Enabled", false));
+      t.checkExpect(metrics.isEnabled(), false);
+    }
+    finally {
+      metrics.setEnabled(false);
+      metrics.reset();
+    }
+  }
+
+
+  // test the methods of LatencyHistogram
+  void testLatencyHistogram(Tester t) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    t.checkExpect(histogram.percentile(50), 0L);
+    histogram.record(0);
+    histogram.record(3);
+    histogram.record(5);
+    histogram.record(1000);
+    t.checkExpect(histogram.buckets.get(0), 1L);
+    t.checkExpect(histogram.buckets.get(2), 1L);
+    t.checkExpect(histogram.buckets.get(3), 1L);
+    t.checkExpect(histogram.buckets.get(10), 1L);
+    t.checkExpect(histogram.count.sum(), 4L);
+    t.checkExpect(histogram.total.sum(), 1008L);
+    t.checkExpect(histogram.max.get(), 1000L);
+    t.checkExpect(histogram.percentile(25), 0L);
+    t.checkExpect(histogram.percentile(50), 3L);
+    t.checkExpect(histogram.percentile(75), 7L);
+    t.checkExpect(histogram.percentile(99), 1000L);
+
+    // a start of 0 means metrics were off when the method started
+    histogram.recordSince(0);
+    t.checkExpect(histogram.count.sum(), 4L);
+    histogram.recordSince(System.nanoTime());
+    t.checkExpect(histogram.count.sum(), 5L);
+
+    histogram.reset();
+    t.checkExpect(histogram.count.sum(), 0L);
+    t.checkExpect(histogram.buckets.get(10), 0L);
+    t.checkExpect(histogram.percentile(99), 0L);
+
+    AtomicLong value = new AtomicLong(5);
+    LatencyHistogram.raise(value, 3);
+    t.checkExpect(value.get(), 5L);
+    LatencyHistogram.raise(value, 8);
+    t.checkExpect(value.get(), 8L);
   }
 
 
@@ -647,28 +3756,82 @@ class ExamplesMaze {
     this.initMazeConditions();
 
     this.playingMaze.bigBang(this.playingMaze.vertexSize * this.playingMaze.width + 5, 
-        this.playingMaze.vertexSize * this.playingMaze.height + 5, 1.0 / 100.0);
+        this.playingMaze.vertexSize * this.playingMaze.height + 5, Maze.TICK_RATE);
   }
 
 
-  // testing the constructor exception when a width or height that is too small is passed in
-  // for both constructors, no random as argument and with random as argument
+  // testing the constructor exception when a width or height that is too small or too large is
+  // passed in for both constructors, no random as argument and with random as argument
   void testMazeConstructor(Tester t) {
     t.checkConstructorException(
-        new IllegalArgumentException( "Width must be between 2 and 100"), 
+        new IllegalArgumentException( "Width must be between 2 and 32768"), 
         "Maze", 1, 50);
 
     t.checkConstructorException(
-        new IllegalArgumentException( "Width must be between 2 and 100"), 
-        "Maze", 1000, 10);
+        new IllegalArgumentException( "Width must be between 2 and 32768"), 
+        "Maze", 50000, 10);
 
     t.checkConstructorException(
-        new IllegalArgumentException( "Height must be between 2 and 100"), 
-        "Maze", 20, 1000, new Random(1));
+        new IllegalArgumentException( "Height must be between 2 and 32768"), 
+        "Maze", 20, 100000, new Random(1));
 
     t.checkConstructorException(
-        new IllegalArgumentException( "Height must be between 2 and 100"), 
+        new IllegalArgumentException( "Height must be between 2 and 32768"), 
         "Maze", 20, -45, new Random());
+
+    // at the largest side every edge of a square maze still has an int id
+    t.checkConstructorException(
+        new IllegalArgumentException( "Width must be between 2 and 32768"), 
+        "Maze", 32769, 32769, new Random(1));
+    t.checkExpect(new MazeGrid(MazeGrid.MAX_SIDE, MazeGrid.MAX_SIDE, null).edgeCount(),
+        2147418112);
+
+    // mazes larger than 100 by 100 are allowed, and ones too large to draw keep no vertices
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    t.checkExpect(wideMaze.isDrawable(), false);
+    t.checkExpect(wideMaze.vertices.size(), 0);
+    t.checkExpect(wideMaze.edgesInMaze().size(), 0);
+    t.checkExpect(wideMaze.solution, null);
+    t.checkExpect(wideMaze.grid.width, 1500);
+    t.checkExpect(wideMaze.grid.height, 300);
+  }
+
+
+  // test the constructor that chooses the algorithm generating the maze
+  void testMazeGenerator(Tester t) {
+    this.initMazeConditions();
+    t.checkExpect(this.testingMaze2.generator, Maze.KRUSKAL);
+
+    // a maze generated with Eller's algorithm is just as perfect as one from Kruskal's
+    Maze ellerMaze = new Maze(25, 10, new Random(1), Maze.ELLER);
+    t.checkExpect(ellerMaze.generator, Maze.ELLER);
+    t.checkExpect(this.isPerfect(ellerMaze.grid), true);
+    t.checkExpect(ellerMaze.edgesInMaze().size(), 249);
+    for (Edge e : ellerMaze.edgesInMaze()) {
+      t.checkExpect(e.from.borderingVerticesInMaze.contains(e.to), true);
+    }
+
+    // regenerating keeps using the same algorithm
+    ellerMaze.onKeyEvent("r");
+    t.checkExpect(this.isPerfect(ellerMaze.grid), true);
+    t.checkExpect(ellerMaze.edgeOrder, null);
+
+    // and mazes too large to draw can be generated too
+    t.checkExpect(this.isPerfect(new Maze(2000, 300, new Random(1), Maze.ELLER).grid), true);
+
+    // a maze generated in parallel is perfect, and its vertices match its grid
+    Maze parallelMaze = new Maze(25, 10, new Random(1), Maze.PARALLEL);
+    t.checkExpect(this.isPerfect(parallelMaze.grid), true);
+    t.checkExpect(parallelMaze.edgesInMaze().size(), 249);
+    for (Edge e : parallelMaze.edgesInMaze()) {
+      t.checkExpect(e.from.borderingVerticesInMaze.contains(e.to), true);
+    }
+    t.checkExpect(parallelMaze.vertices.get(0).get(0).borderingVerticesInMaze.size() > 0, true);
+    t.checkExpect(this.isPerfect(new Maze(2000, 700, new Random(1), Maze.PARALLEL).grid), true);
+
+    t.checkConstructorException(
+        new IllegalArgumentException("Generator must be kruskal, eller or parallel"),
+        "Maze", 10, 10, new Random(1), "prim");
   }
 
 
@@ -676,23 +3839,172 @@ class ExamplesMaze {
   void testMakeScene(Tester t) {
     this.initMazeConditions();
 
-    // adding the vertices and borders of the world manually to a scene and checking to 
-    // see if the output of makeScene is the same
+    // the first frame is the wall layer alone, a single image of the walls and of the colors of
+    // the vertices before the maze is searched
+    WorldScene scene = this.testingMaze1.makeScene();
+    MazeRaster layer = this.testingMaze1.wallLayer;
+    WorldScene expected = new WorldScene(605, 605);
+    expected.placeImageXY(layer.shown, 300, 300);
+    t.checkExpect(scene, expected);
+    t.checkExpect(layer.shown.getPixel(150, 150), Color.GREEN);
+    t.checkExpect(layer.shown.getPixel(150, 450), Color.LIGHT_GRAY);
+    t.checkExpect(layer.shown.getPixel(450, 150), Color.LIGHT_GRAY);
+    t.checkExpect(layer.shown.getPixel(450, 450), Color.RED);
+    t.checkExpect(layer.shown.getPixel(0, 150), Color.BLACK);
+    t.checkExpect(layer.shown.getPixel(300, 450), Color.BLACK);
+    t.checkExpect(layer.shown.getPixel(300, 150), Color.LIGHT_GRAY);
+
+    // the vertices whose colors differ from the layer are drawn on top of it with their borders,
+    // just like drawVertexAndBorders draws them
+    Vertex starting = this.testingMaze1.vertices.get(0).get(0);
+    Vertex ending = this.testingMaze1.vertices.get(1).get(1);
+    starting.color = Color.BLUE;
+    ending.color = Color.BLUE;
+    this.testingMaze1.changedVertices.add(starting);
+    this.testingMaze1.changedVertices.add(ending);
+    WorldScene overlaid = new WorldScene(605, 605);
+    overlaid.placeImageXY(layer.shown, 300, 300);
+    starting.drawVertexAndBorders(overlaid, 300, 2, 2);
+    ending.drawVertexAndBorders(overlaid, 300, 2, 2);
+    t.checkExpect(this.testingMaze1.makeScene(), overlaid);
+
+    // and are no longer drawn once they have their colors back
+    starting.color = Color.GREEN;
+    this.testingMaze1.changedVertices.add(starting);
+    WorldScene restored = new WorldScene(605, 605);
+    restored.placeImageXY(layer.shown, 300, 300);
+    ending.drawVertexAndBorders(restored, 300, 2, 2);
+    t.checkExpect(this.testingMaze1.makeScene(), restored);
+    t.checkExpect(this.testingMaze1.wallLayer == layer, true);
+  }
+
+
+  // test the method makeScene over several frames
+  void testMakeSceneFrames(Tester t) {
+    this.initMazeConditions();
+
+    // the wall layer is drawn once, and every frame is a new scene of it
+    WorldScene first = this.testingMaze2.makeScene();
+    MazeRaster layer = this.testingMaze2.wallLayer;
+    WorldScene expected = new WorldScene(1005, 405);
+    expected.placeImageXY(layer.shown, 500, 200);
+    t.checkExpect(first, expected);
+    t.checkExpect(this.testingMaze2.scene == first, true);
+    WorldScene second = this.testingMaze2.makeScene();
+    t.checkExpect(second == first, false);
+    t.checkExpect(second, first);
+    t.checkExpect(this.testingMaze2.wallLayer == layer, true);
+    t.checkExpect(this.testingMaze2.overlaid.size(), 0);
+
+    // starting a search colors the first vertex, which is the only one drawn on top of the layer
+    this.testingMaze2.onKeyEvent("b");
+    t.checkExpect(this.testingMaze2.changedVertices.size(), 1);
+    t.checkExpect(this.testingMaze2.changedVertices.get(0), 
+        this.testingMaze2.vertices.get(0).get(0));
+    this.testingMaze2.makeScene();
+    t.checkExpect(this.testingMaze2.changedVertices.size(), 0);
+    t.checkExpect(this.testingMaze2.overlaid.size(), 1);
+
+    // solving and retracing the rest of the maze records every vertex that changes, and the
+    // vertices drawn on top of the layer are the ones whose colors differ from it
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    t.checkExpect(this.testingMaze2.changedVertices.size() > 0, true);
+    this.testingMaze2.makeScene();
+    int differing = 0;
+    for (int x = 0; x < 25; x++) {
+      for (int y = 0; y < 10; y++) {
+        Vertex v = this.testingMaze2.vertices.get(x).get(y);
+        if (!v.color.equals(this.testingMaze2.determineColor(x, y))) {
+          t.checkExpect(this.testingMaze2.overlaid.contains(v), true);
+          differing++;
+        }
+      }
+    }
+    t.checkExpect(this.testingMaze2.overlaid.size(), differing);
+    t.checkExpect(this.testingMaze2.wallLayer == layer, true);
+
+    // clearing the maze only changes the vertices that were colored, after which none of them
+    // are drawn on top of the layer
+    this.testingMaze2.onKeyEvent("c");
+    t.checkExpect(this.testingMaze2.changedVertices.size(), differing);
+    t.checkExpect(this.testingMaze2.makeScene(), expected);
+    t.checkExpect(this.testingMaze2.overlaid.size(), 0);
+
+    // a new maze has its wall layer drawn again, into the same image
+    long[] oldWalls = this.testingMaze2.grid.walls.clone();
+    this.testingMaze2.onKeyEvent("r");
+    t.checkExpect(this.testingMaze2.scene, null);
+    t.checkExpect(this.testingMaze2.makeScene(), expected);
+    t.checkExpect(this.testingMaze2.wallLayer == layer, true);
+    t.checkExpect(Arrays.equals(this.testingMaze2.grid.walls, oldWalls), false);
+  }
+
+
+  // test the method makeScene while the maze is drawn into a raster
+  void testMakeSceneRaster(Tester t) {
+    this.initMazeConditions();
+    this.testingMaze2.onKeyEvent("i");
+    MazeRaster raster = this.testingMaze2.raster;
+    t.checkExpect(raster.cellSize, this.testingMaze2.vertexSize);
+
+    // every frame is a new scene holding only the image of the raster
+    WorldScene first = this.testingMaze2.makeScene();
+    WorldScene expected = new WorldScene(1005, 405);
+    expected.placeImageXY(raster.shown, 500, 200);
+    t.checkExpect(first, expected);
+    t.checkExpect(raster.states[0], MazeExporter.START);
+    t.checkExpect(raster.states[249], MazeExporter.END);
+
+    // only the vertices that changed are drawn into the raster
+    this.testingMaze2.onKeyEvent("b");
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    WorldScene solved = this.testingMaze2.makeScene();
+    t.checkExpect(solved == first, false);
+    t.checkExpect(this.testingMaze2.raster == raster, true);
+    for (int x = 0; x < 25; x++) {
+      for (int y = 0; y < 10; y++) {
+        t.checkExpect(raster.states[this.testingMaze2.index(x, y)], 
+            this.testingMaze2.vertices.get(x).get(y).state);
+        t.checkExpect(MazeExporter.PALETTE[raster.states[this.testingMaze2.index(x, y)]], 
+            this.testingMaze2.vertices.get(x).get(y).color);
+      }
+    }
+    t.checkExpect(raster.shown.getPixel(12, 12), MazeExporter.PALETTE[raster.states[0]]);
+    t.checkExpect(raster.shown.getPixel(20, 60), MazeExporter.PALETTE[raster.states[1]]);
+
+    // a new maze generated in place is drawn again into the same raster
+    this.testingMaze2.onKeyEvent("r");
+    this.testingMaze2.makeScene();
+    t.checkExpect(this.testingMaze2.raster == raster, true);
+    t.checkExpect(raster.states[1], MazeExporter.BACKGROUND);
+    t.checkExpect(raster.shown.getPixel(20, 60), Color.LIGHT_GRAY);
+
+    // and the scene graph is used again once the raster is switched off
+    this.testingMaze2.onKeyEvent("i");
+    t.checkExpect(this.testingMaze2.raster, null);
+    t.checkExpect(this.testingMaze2.scene, null);
+    this.testingMaze2.makeScene();
+    t.checkExpect(this.testingMaze2.wallLayer.shown.getPixel(20, 60), Color.LIGHT_GRAY);
+  }
+
+
+  // test the method drawOverlaidVertices
+  void testDrawOverlaidVertices(Tester t) {
+    this.initMazeConditions();
+
+    // drawing an overlaid vertex draws it and its borders just like drawVertexAndBorders
+    Vertex starting = this.testingMaze1.vertices.get(0).get(0);
+    starting.color = Color.BLUE;
+    this.testingMaze1.overlaid.add(starting);
     WorldScene scene = new WorldScene(605, 605);
-    scene.placeImageXY(new RectangleImage(300, 300, OutlineMode.SOLID, Color.GREEN), 150, 150);
-    scene.placeImageXY(new RectangleImage(300, 300, OutlineMode.SOLID, Color.LIGHT_GRAY), 150, 450);
-    scene.placeImageXY(new RectangleImage(300, 300, OutlineMode.SOLID, Color.LIGHT_GRAY), 450, 150);
-    scene.placeImageXY(new RectangleImage(300, 300, OutlineMode.SOLID, Color.RED), 450, 450);
-    scene.placeImageXY(new LineImage(new Posn(300, 0), Color.BLACK), 150, 0);
-    scene.placeImageXY(new LineImage(new Posn(300, 0), Color.BLACK), 450, 0);
-    scene.placeImageXY(new LineImage(new Posn(300, 0), Color.BLACK), 150, 600);
-    scene.placeImageXY(new LineImage(new Posn(300, 0), Color.BLACK), 450, 600);
-    scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 0, 150);
-    scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 0, 450);
-    scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 600, 150);
-    scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 600, 450);
-    scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 300, 450);
-    t.checkExpect(this.testingMaze1.makeScene(), scene);
+    WorldScene manuallyDrawnScene = new WorldScene(605, 605);
+    this.testingMaze1.drawOverlaidVertices(scene);
+    starting.drawVertexAndBorders(manuallyDrawnScene, 300, 2, 2);
+    t.checkExpect(scene, manuallyDrawnScene);
   }
 
 
@@ -716,7 +4028,9 @@ class ExamplesMaze {
     scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 600, 150);
     scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 600, 450);
     scene.placeImageXY(new LineImage(new Posn(0, 300), Color.BLACK), 300, 450);
-    t.checkExpect(this.testingMaze1.makeScene(), scene);
+    WorldScene drawn = new WorldScene(605, 605);
+    this.testingMaze1.drawVerticesAndBorders(drawn);
+    t.checkExpect(drawn, scene);
   }
 
 
@@ -745,11 +4059,17 @@ class ExamplesMaze {
 
     // the total number of edges in a maze should be height * (width - 1) + width * (height - 1)
 
-    // testing the number of edges in a 2 by 2 maze
-    t.checkExpect(this.testingMaze1.allEdges.size(), 4);
+    // the edge order is released once the maze has been generated
+    t.checkExpect(this.testingMaze1.edgeOrder, null);
+
+    // testing the number of edges in a 2 by 2 maze, which are numbered in the order of the grid
+    this.testingMaze1.makeAllEdges();
+    t.checkExpect(this.testingMaze1.edgeOrder, new int[] {0, 1, 2, 3});
 
     // testing the number of edges in a 25 by 10 maze
-    t.checkExpect(this.testingMaze2.allEdges.size(), 465);
+    this.testingMaze2.makeAllEdges();
+    t.checkExpect(this.testingMaze2.edgeOrder.length, 465);
+    t.checkExpect(this.testingMaze2.edgeOrder[464], 464);
   }
 
 
@@ -758,59 +4078,136 @@ class ExamplesMaze {
     this.initMazeConditions();
 
     // making sure that the number of edges in the maze is equal to the number of vertices - 1
-    t.checkExpect(this.testingMaze1.edgesInMaze.size(), 3);
-    t.checkExpect(this.testingMaze2.edgesInMaze.size(), 249);
+    t.checkExpect(this.testingMaze1.edgesInMaze().size(), 3);
+    t.checkExpect(this.testingMaze2.edgesInMaze().size(), 249);
+
+    // making sure that the edges of the 2 by 2 maze are the ones from the top left vertex to
+    // its two neighbors and from the top right vertex down to the bottom right one
+    ArrayList<ArrayList<Vertex>> vertices = this.testingMaze1.vertices;
+    ArrayList<Edge> edges = this.testingMaze1.edgesInMaze();
+    t.checkExpect(edges.get(0).from, vertices.get(0).get(0));
+    t.checkExpect(edges.get(0).to, vertices.get(0).get(1));
+    t.checkExpect(edges.get(0).weight, 0);
+    t.checkExpect(edges.get(1).from, vertices.get(1).get(0));
+    t.checkExpect(edges.get(1).to, vertices.get(1).get(1));
+    t.checkExpect(edges.get(1).weight, 1);
+    t.checkExpect(edges.get(2).from, vertices.get(0).get(0));
+    t.checkExpect(edges.get(2).to, vertices.get(1).get(0));
+    t.checkExpect(edges.get(2).weight, 2);
+
+    // the edges are only built once
+    t.checkExpect(this.testingMaze1.edgesInMaze() == edges, true);
+
+    // every edge in the maze has a vertex on each side that it connects
+    for (Edge e : this.testingMaze2.edgesInMaze()) {
+      t.checkExpect(e.from.borderingVerticesInMaze.contains(e.to), true);
+      t.checkExpect(e.to.borderingVerticesInMaze.contains(e.from), true);
+    }
 
-    // making sure that all of the edges are correctly sorted by weight in the 2 by 2 maze
-    t.checkExpect(this.testingMaze1.edgesInMaze.get(0).weight, 41847);
-    t.checkExpect(this.testingMaze1.edgesInMaze.get(1).weight, 48985);
-    t.checkExpect(this.testingMaze1.edgesInMaze.get(2).weight, 64588);
-  }
+    // making sure that the walls of the grid match the borders of the vertices
+    for (int i = 0; i < 25; i++) {
+      for (int j = 0; j < 10; j++) {
+        Vertex v = this.testingMaze2.vertices.get(i).get(j);
+        int cell = this.testingMaze2.index(i, j);
+        t.checkExpect(this.testingMaze2.grid.hasRightWall(cell), v.rightBorder);
+        t.checkExpect(this.testingMaze2.grid.hasBottomWall(cell), v.bottomBorder);
+        t.checkExpect(this.testingMaze2.grid.hasLeftWall(cell), v.leftBorder);
+        t.checkExpect(this.testingMaze2.grid.hasTopWall(cell), v.topBorder);
+      }
+    }
 
+    // making sure that a maze too large to draw still removes exactly one wall per edge
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    int openWalls = 0;
+    for (int cell = 0; cell < 1500 * 300; cell++) {
+      if (cell + 300 < 1500 * 300 && !wideMaze.grid.hasRightWall(cell)) {
+        openWalls++;
+      }
+      if ((cell + 1) % 300 != 0 && !wideMaze.grid.hasBottomWall(cell)) {
+        openWalls++;
+      }
+    }
+    t.checkExpect(openWalls, 1500 * 300 - 1);
+  }
 
-  // test the method find
-  void testFind(Tester t) {
-    this.initMazeConditions();
 
-    // initializing a HashMap with integers for easier testing
-    HashMap<Integer, Integer> integerMap = new HashMap<Integer, Integer>();
-    for (int i = 0; i < 10; i++) {
-      integerMap.put(i, i);
+  // test the method regenerate, which generates a new maze in place of the old one
+  void testRegenerate(Tester t) {
+    Maze maze = new Maze(100, 60, new Random(3));
+    ArrayList<ArrayList<Vertex>> vertices = maze.vertices;
+    MazeGrid grid = maze.grid;
+    maze.onKeyEvent("b");
+    maze.onTick();
+
+    // the new maze is the maze that the same random generates from scratch, in the same grid
+    // and vertices, with the search forgotten
+    maze.rand = new Random(4);
+    maze.regenerate();
+    Maze fresh = new Maze(100, 60, new Random(4));
+    t.checkExpect(maze.grid == grid, true);
+    t.checkExpect(maze.vertices == vertices, true);
+    t.checkExpect(maze.grid.walls, fresh.grid.walls);
+    t.checkExpect(maze.searches.size(), 0);
+    t.checkExpect(maze.solution, null);
+    t.checkExpect(maze.currentlySearchingMaze, false);
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 60; j++) {
+        Vertex v = maze.vertices.get(i).get(j);
+        t.checkExpect(v.rightBorder, fresh.vertices.get(i).get(j).rightBorder);
+        t.checkExpect(v.bottomBorder, fresh.vertices.get(i).get(j).bottomBorder);
+        t.checkExpect(v.borderingVerticesInMaze.size(), 
+            fresh.vertices.get(i).get(j).borderingVerticesInMaze.size());
+        t.checkExpect(v.color, maze.determineColor(i, j));
+      }
     }
 
-    t.checkExpect(this.testingMaze1.find(integerMap, 1), 1);
-    t.checkExpect(this.testingMaze1.find(integerMap, 3), 3);
+    // the buffers of Kruskal's algorithm are kept for the next regeneration, which allocates
+    // nothing at all
+    t.checkExpect(maze.edgeOrder.length, maze.grid.edgeCount());
+    t.checkExpect(maze.regenerationSets.parents.length, 6000);
+    long[] result = new MazeBenchmark().measure(maze, "regenerate", 2, 5);
+    if (result[1] >= 0) {
+      t.checkExpect(result[1], 0L);
+    }
 
-    // changing the representatives to test if the method follows through the representatives
-    integerMap.put(5, 3);
-    integerMap.put(3, 8);
-    integerMap.put(8, 9);
+    // as does regenerating a maze too large to draw
+    Maze wideMaze = new Maze(1500, 300, new Random(1));
+    wideMaze.regenerate();
+    result = new MazeBenchmark().measure(wideMaze, "regenerate", 1, 2);
+    if (result[1] >= 0) {
+      t.checkExpect(result[1], 0L);
+    }
 
-    t.checkExpect(this.testingMaze1.find(integerMap, 9), 9);
-    t.checkExpect(this.testingMaze1.find(integerMap, 8), 9);
-    t.checkExpect(this.testingMaze1.find(integerMap, 3), 9);
-    t.checkExpect(this.testingMaze1.find(integerMap, 5), 9);
+    // making new vertices releases the buffers again
+    maze.makeVertices();
+    t.checkExpect(maze.edgeOrder, null);
+    t.checkExpect(maze.regenerationSets, null);
+
+    // the other generators generate a new maze in place too
+    Maze ellerMaze = new Maze(30, 20, new Random(5), Maze.ELLER);
+    grid = ellerMaze.grid;
+    ellerMaze.rand = new Random(6);
+    ellerMaze.regenerate();
+    t.checkExpect(ellerMaze.grid == grid, true);
+    t.checkExpect(ellerMaze.grid.walls, new Maze(30, 20, new Random(6), Maze.ELLER).grid.walls);
+    t.checkExpect(ellerMaze.regenerationSets, null);
   }
 
 
-  // test the method union
-  void testUnion(Tester t) {
+  // test the method index
+  void testIndex(Tester t) {
     this.initMazeConditions();
 
-    // initializing a HashMap with integers for easier testing
-    HashMap<Integer, Integer> integerMap = new HashMap<Integer, Integer>();
-    for (int i = 0; i < 10; i++) {
-      integerMap.put(i, i);
-    }
-
-    this.testingMaze1.union(integerMap, 1, 2);
-    t.checkExpect(integerMap.get(1), 2);
-
-    this.testingMaze1.union(integerMap, 8, 4);
-    t.checkExpect(integerMap.get(8), 4);
+    // the vertices of the 2 by 2 maze are numbered column by column
+    t.checkExpect(this.testingMaze1.index(0, 0), 0);
+    t.checkExpect(this.testingMaze1.index(0, 1), 1);
+    t.checkExpect(this.testingMaze1.index(1, 0), 2);
+    t.checkExpect(this.testingMaze1.index(1, 1), 3);
 
-    this.testingMaze1.union(integerMap, 0, 5);
-    t.checkExpect(integerMap.get(0), 5);
+    // testing the indices of the 25 by 10 maze
+    t.checkExpect(this.testingMaze2.index(0, 9), 9);
+    t.checkExpect(this.testingMaze2.index(1, 0), 10);
+    t.checkExpect(this.testingMaze2.index(24, 9), 249);
   }
 
 
@@ -873,6 +4270,31 @@ class ExamplesMaze {
   }
 
 
+  // test the method clearSearches
+  void testClearSearches(Tester t) {
+    this.initMazeConditions();
+
+    Vertex starting = this.testingMaze1.vertices.get(0).get(0);
+    Vertex middleVertex1 = this.testingMaze1.vertices.get(1).get(0);
+    Vertex ending = this.testingMaze1.vertices.get(1).get(1);
+
+    // only the colors of the vertices that a search has visited should be reset
+    this.testingMaze1.startSearch(MazeSolver.BFS);
+    this.testingMaze1.searches.get(0).state.markVisited(3);
+    this.testingMaze1.changedVertices.clear();
+    starting.color = Color.BLACK;
+    middleVertex1.color = Color.BLACK;
+    ending.color = Color.BLACK;
+
+    this.testingMaze1.clearSearches();
+    t.checkExpect(starting.color, Color.GREEN);
+    t.checkExpect(middleVertex1.color, Color.BLACK);
+    t.checkExpect(ending.color, Color.RED);
+    t.checkExpect(this.testingMaze1.searches.size(), 0);
+    t.checkExpect(this.testingMaze1.changedVertices.size(), 2);
+  }
+
+
   // test the method addBorderingVertices
   void testAddBorderingVertices(Tester t) {
     this.initMazeConditions();
@@ -901,167 +4323,433 @@ class ExamplesMaze {
   void testOnTickAndOnKeyEvent(Tester t) {
     this.initMazeConditions();
 
-    // testing a full bfs with 'b' on the 2 by 2 maze
+    // testing a full bfs with 'b' on the 2 by 2 maze, which colors the vertices its own search
+    // state has visited
     t.checkExpect(this.testingMaze1.currentlySearchingMaze , false);
-    t.checkExpect(this.testingMaze1.bfs, false);
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 0);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
+    t.checkExpect(this.testingMaze1.searches.size(), 0);
 
     this.testingMaze1.onKeyEvent("b");
 
     t.checkExpect(this.testingMaze1.currentlySearchingMaze , true);
-    t.checkExpect(this.testingMaze1.bfs, true);
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
-    this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 2);
+    t.checkExpect(this.testingMaze1.searches.size(), 1);
+    MazeSolver bfs = this.testingMaze1.searches.get(0);
+    t.checkExpect(bfs.algorithm, MazeSolver.BFS);
+    t.checkExpect(bfs.tail - bfs.head, 1);
     t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 1);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 2);
-    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 2);
+    t.checkExpect(bfs.tail - bfs.head, 2);
+    t.checkExpect(bfs.nodesExpanded, 1);
+    // only the vertex the bfs expanded is colored, not the ones it added to its worklist
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 3);
+    t.checkExpect(bfs.tail - bfs.head, 2);
+    t.checkExpect(bfs.nodesExpanded, 2);
+    t.checkExpect(this.testingMaze1.vertexAt(2).color, new Color(58, 188, 229));
+    t.checkExpect(this.testingMaze1.vertexAt(1).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
+    this.testingMaze1.onTick();
+    t.checkExpect(bfs.tail - bfs.head, 1);
+    t.checkExpect(bfs.nodesExpanded, 3);
+    t.checkExpect(this.testingMaze1.vertexAt(1).color, new Color(58, 188, 229));
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 0);
-    t.checkExpect(this.testingMaze1.seen.size(), 4);
+    t.checkExpect(bfs.tail - bfs.head, 0);
+    t.checkExpect(bfs.nodesExpanded, 4);
     t.checkExpect(this.testingMaze1.mazeSolved, true);
+    t.checkExpect(this.testingMaze1.solution, new int[] {0, 2, 3});
     // some more onTick calls to allow the retracing to take place, this will be tested later
     this.testingMaze1.onTick();
     this.testingMaze1.onTick();
-    this.testingMaze1.onTick();
-    this.testingMaze1.onTick();
     t.checkExpect(this.testingMaze1.currentlySearchingMaze, false);
 
+    // the maze's grid only keeps the walls, and the search state belongs to the bfs
+    t.checkExpect(bfs.state.isVisited(3), true);
+    t.checkExpect(bfs.state.parent(3), 2);
+
 
     // testing the clearing functionality with 'c' on the just solved maze
     this.testingMaze1.onKeyEvent("c");
-    t.checkExpect(this.testingMaze1.bfs, false);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
+    t.checkExpect(this.testingMaze1.searches.size(), 0);
+    t.checkExpect(this.testingMaze1.solution, null);
     t.checkExpect(this.testingMaze1.mazeSolved, false);
     t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Color.GREEN);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
 
 
-    // testing a full dfs with 'd' on the 2 by 2 maze
-    t.checkExpect(this.testingMaze1.dfs, false);
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 0);
-
+    // testing a full dfs with 'd' on the 2 by 2 maze, which colors its vertices orange
     this.testingMaze1.onKeyEvent("d");
 
     t.checkExpect(this.testingMaze1.currentlySearchingMaze , true);
-    t.checkExpect(this.testingMaze1.dfs, true);
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
+    MazeSolver dfs = this.testingMaze1.searches.get(0);
+    t.checkExpect(dfs.algorithm, MazeSolver.DFS);
+    t.checkExpect(dfs.state == bfs.state, false);
+    t.checkExpect(dfs.tail, 1);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Maze.DFS_COLOR);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 2);
-    t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 1);
+    t.checkExpect(dfs.tail, 2);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.LIGHT_GRAY);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 2);
+    t.checkExpect(dfs.tail, 1);
+    t.checkExpect(dfs.nodesExpanded, 2);
+    t.checkExpect(this.testingMaze1.vertexAt(1).color, Maze.DFS_COLOR);
+    t.checkExpect(this.testingMaze1.vertexAt(2).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 3);
+    t.checkExpect(dfs.tail, 1);
+    t.checkExpect(this.testingMaze1.vertexAt(2).color, Maze.DFS_COLOR);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 0);
-    t.checkExpect(this.testingMaze1.seen.size(), 4);
+    t.checkExpect(dfs.tail, 0);
+    t.checkExpect(dfs.nodesExpanded, 4);
     t.checkExpect(this.testingMaze1.mazeSolved, true);
 
 
     // testing the retracing of a maze after the dfs has been done
     t.checkExpect(this.testingMaze1.currentlySearchingMaze, true);
-    t.checkExpect(this.testingMaze1.currentRetracingVertex, 
-        this.testingMaze1.vertices.get(1).get(0));
+    t.checkExpect(this.testingMaze1.retracing, 1);
     t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.BLUE);
     this.testingMaze1.onTick();
-    t.checkExpect(this.testingMaze1.currentRetracingVertex, 
-        this.testingMaze1.vertices.get(0).get(0));
+    t.checkExpect(this.testingMaze1.retracing, 0);
     t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.BLUE);
     this.testingMaze1.onTick();
     t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Color.BLUE);
     t.checkExpect(this.testingMaze1.currentlySearchingMaze, false);
 
 
-    // testing to make sure that there are new vertices when a new maze is generated with 'r'
-    // the list of list of vertices should be different after 'r' is pressed so checkFail is used
+    // testing to make sure that a new maze is generated in the same vertices with 'r', which
+    // are reset along with the search
     ArrayList<ArrayList<Vertex>> oldVertices = this.testingMaze1.vertices;
     this.testingMaze1.onKeyEvent("r");
-    ArrayList<ArrayList<Vertex>> newVertices = this.testingMaze1.vertices;
-    t.checkFail(oldVertices, newVertices);
+    t.checkExpect(this.testingMaze1.vertices == oldVertices, true);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Color.GREEN);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.edgesInMaze().size(), 3);
+    t.checkExpect(this.testingMaze1.searches.size(), 0);
+    t.checkExpect(this.testingMaze1.solution, null);
+    t.checkExpect(this.testingMaze1.mazeSolved, false);
+
+    // the new maze has different walls from the old one, although it is in the same grid
+    MazeGrid grid = this.testingMaze2.grid;
+    long[] oldWalls = grid.walls.clone();
+    this.testingMaze2.onKeyEvent("r");
+    t.checkExpect(this.testingMaze2.grid == grid, true);
+    t.checkExpect(Arrays.equals(grid.walls, oldWalls), false);
+    t.checkExpect(this.testingMaze2.edgesInMaze().size(), 249);
   }
 
 
-  // test the method bfs
-  void testBfs(Tester t) {
+  // test a bfs and a dfs started with onKeyEvent and animated side by side with onTick
+  void testOnTickSideBySide(Tester t) {
     this.initMazeConditions();
+    this.testingMaze2.onKeyEvent("b");
+    this.testingMaze2.onKeyEvent("d");
+    t.checkExpect(this.testingMaze2.currentlySearchingMaze, true);
+    t.checkExpect(this.testingMaze2.searches.size(), 2);
+    MazeSolver bfs = this.testingMaze2.searches.get(0);
+    MazeSolver dfs = this.testingMaze2.searches.get(1);
+    t.checkExpect(bfs.algorithm, MazeSolver.BFS);
+    t.checkExpect(dfs.algorithm, MazeSolver.DFS);
+    t.checkExpect(bfs.state == dfs.state, false);
+
+    // the same search can't be started twice, and the junction graph can't be searched beside
+    // them
+    this.testingMaze2.onKeyEvent("b");
+    this.testingMaze2.onKeyEvent("j");
+    t.checkExpect(this.testingMaze2.searches.size(), 2);
+    t.checkExpect(this.testingMaze2.junctions, null);
+
+    // both expand the first vertex on the first tick, which keeps the color of the bfs
+    this.testingMaze2.onTick();
+    t.checkExpect(bfs.nodesExpanded, 1);
+    t.checkExpect(dfs.nodesExpanded, 1);
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(0).color, Maze.SEEN_COLOR);
+
+    // the first to reach the last vertex wins, and its path is retraced
+    while (!this.testingMaze2.mazeSolved) {
+      this.testingMaze2.onTick();
+    }
+    t.checkExpect(bfs.done || dfs.done, true);
+    t.checkExpect(Math.abs(bfs.nodesExpanded - dfs.nodesExpanded) <= 1, true);
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    int[] path = new MazeSolver(this.testingMaze2.grid).bfs(0, 249).path;
+    t.checkExpect(this.testingMaze2.solution, path);
+    boolean[] onPath = new boolean[250];
+    for (int cell : path) {
+      t.checkExpect(this.testingMaze2.vertexAt(cell).color, Color.BLUE);
+      onPath[cell] = true;
+    }
+
+    // every other vertex that was expanded has the color of the first search that visited it
+    // by then, and the ones that were only added to a worklist keep their colors
+    int dfsOnly = 0;
+    for (int cell = 0; cell < 250; cell++) {
+      Color color = this.testingMaze2.vertexAt(cell).color;
+      if (!onPath[cell] && color.equals(Maze.SEEN_COLOR)) {
+        t.checkExpect(bfs.state.isVisited(cell), true);
+      }
+      else if (!onPath[cell] && color.equals(Maze.DFS_COLOR)) {
+        t.checkExpect(dfs.state.isVisited(cell), true);
+        dfsOnly++;
+      }
+    }
+    t.checkExpect(dfsOnly > 0, true);
+
+    // clearing the maze ends both searches and lets another search start
+    this.testingMaze2.onKeyEvent("c");
+    t.checkExpect(this.testingMaze2.searches.size(), 0);
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(0).color, Color.GREEN);
+    this.testingMaze2.onKeyEvent("d");
+    t.checkExpect(this.testingMaze2.searches.get(0).algorithm, MazeSolver.DFS);
+  }
 
-    // testing the bfs on the 2 by 2 maze
 
-    // making sure that nothing happens when the worklist is empty and bfs is called
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 0);
-    this.testingMaze1.bfs();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 0);
+  // test dijkstra's algorithm started with onKeyEvent and animated with onTick
+  void testOnTickDijkstra(Tester t) {
+    this.initMazeConditions();
+    this.testingMaze2.weights = MazeWeights.terrain(this.testingMaze2.grid, new Random(3), 9);
+    this.testingMaze2.onKeyEvent("w");
+    MazeSolver dijkstra = this.testingMaze2.searches.get(0);
+    t.checkExpect(dijkstra.algorithm, MazeSolver.DIJKSTRA);
+    t.checkExpect(dijkstra.weights, this.testingMaze2.weights);
+
+    // every tick expands the cheapest vertex reached so far
+    this.testingMaze2.onTick();
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(0).color, Maze.SEEN_COLOR);
+    t.checkExpect(dijkstra.nodesExpanded, 1);
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    int[] path = new MazeSolver(this.testingMaze2.grid).bfs(0, 249).path;
+    t.checkExpect(this.testingMaze2.solution, path);
+    for (int cell : path) {
+      t.checkExpect(this.testingMaze2.vertexAt(cell).color, Color.BLUE);
+    }
 
-    // adding the topLeft vertex to the worklist and iterating through the bfs
-    Vertex starting = this.testingMaze1.vertices.get(0).get(0);
-    this.testingMaze1.bfsWorklist.add(starting);
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
-    this.testingMaze1.bfs();
+    // without weights every move costs the same
+    this.testingMaze2.onKeyEvent("c");
+    this.testingMaze2.weights = null;
+    this.testingMaze2.onKeyEvent("w");
+    while (!this.testingMaze2.mazeSolved) {
+      this.testingMaze2.onTick();
+    }
+    t.checkExpect(this.testingMaze2.searches.get(0).cost(249), (long) path.length - 1);
+  }
+
+
+  // test the A* and bidirectional searches started with onKeyEvent and animated with onTick
+  void testOnTickGridSearches(Tester t) {
+    this.initMazeConditions();
+
+    // an A* search expands one vertex on every tick and then retraces its path
+    this.testingMaze1.onKeyEvent("a");
+    t.checkExpect(this.testingMaze1.currentlySearchingMaze, true);
+    MazeSolver astar = this.testingMaze1.searches.get(0);
+    t.checkExpect(astar.algorithm, MazeSolver.ASTAR);
+
+    this.testingMaze1.onTick();
     t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 1);
-    this.testingMaze1.bfs();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 2);
-    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 2);
-    this.testingMaze1.bfs();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 1);
+    t.checkExpect(astar.nodesExpanded, 1);
+    this.testingMaze1.onTick();
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, new Color(58, 188, 229));
+    this.testingMaze1.onTick();
+    this.testingMaze1.onTick();
+    t.checkExpect(this.testingMaze1.mazeSolved, true);
+    t.checkExpect(astar.nodesExpanded, 4);
+    t.checkExpect(this.testingMaze1.solution, new int[] {0, 2, 3});
+    while (this.testingMaze1.currentlySearchingMaze) {
+      this.testingMaze1.onTick();
+    }
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.BLUE);
     t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 3);
-    this.testingMaze1.bfs();
-    t.checkExpect(this.testingMaze1.bfsWorklist.size(), 0);
-    t.checkExpect(this.testingMaze1.seen.size(), 4);
+
+    // clearing the maze lets another search start
+    this.testingMaze1.onKeyEvent("c");
+    t.checkExpect(this.testingMaze1.searches.size(), 0);
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, Color.LIGHT_GRAY);
+
+    // a bidirectional search meets in the middle after two ticks
+    this.testingMaze1.onKeyEvent("m");
+    t.checkExpect(this.testingMaze1.searches.get(0).algorithm, MazeSolver.BIDIRECTIONAL);
+    this.testingMaze1.onTick();
+    t.checkExpect(this.testingMaze1.mazeSolved, false);
+    this.testingMaze1.onTick();
     t.checkExpect(this.testingMaze1.mazeSolved, true);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.BLUE);
+    while (this.testingMaze1.currentlySearchingMaze) {
+      this.testingMaze1.onTick();
+    }
+    t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Color.BLUE);
+
+    // the searches solve a larger maze along the same path as the bfs
+    this.testingMaze2.onKeyEvent("a");
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    int[] astarPath = this.testingMaze2.solution;
+    this.testingMaze2.onKeyEvent("c");
+    this.testingMaze2.onKeyEvent("b");
+    int bfsTicks = 0;
+    while (!this.testingMaze2.mazeSolved) {
+      this.testingMaze2.onTick();
+      bfsTicks++;
+    }
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    int[] bfsPath = this.testingMaze2.solution;
+    t.checkExpect(astarPath, bfsPath);
+
+    // a bfs of the junction graph colors whole corridors on every tick, in fewer ticks than the
+    // bfs takes, and finds the same path. No search of the grid can start beside it
+    this.testingMaze2.onKeyEvent("c");
+    this.testingMaze2.onKeyEvent("j");
+    t.checkExpect(this.testingMaze2.junctions.algorithm, MazeSolver.BFS);
+    this.testingMaze2.onKeyEvent("b");
+    this.testingMaze2.onKeyEvent("a");
+    t.checkExpect(this.testingMaze2.searches.size(), 0);
+    this.testingMaze2.onTick();
+    t.checkExpect(this.testingMaze2.changedVertices.size() > 1, true);
+    int ticks = 1;
+    while (!this.testingMaze2.mazeSolved) {
+      this.testingMaze2.onTick();
+      ticks++;
+    }
+    t.checkExpect(ticks < bfsTicks, true);
+    t.checkExpect(ticks, this.testingMaze2.junctions.nodesExpanded);
+    while (this.testingMaze2.currentlySearchingMaze) {
+      this.testingMaze2.onTick();
+    }
+    t.checkExpect(this.testingMaze2.solution, bfsPath);
+    for (int cell : bfsPath) {
+      t.checkExpect(this.testingMaze2.vertexAt(cell).color, Color.BLUE);
+    }
+    this.testingMaze2.onKeyEvent("c");
+    t.checkExpect(this.testingMaze2.junctions, null);
+    t.checkExpect(this.testingMaze2.vertexAt(bfsPath[1]).color, Color.LIGHT_GRAY);
   }
 
 
-  // test the method dfs
-  void testDfs(Tester t) {
+  // test the speed of the animation with onTick and changeSpeed
+  void testAnimationSpeed(Tester t) {
     this.initMazeConditions();
+    t.checkExpect(this.testingMaze2.stepsPerTick, 1);
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, 0L);
+
+    // doubling and halving the number of steps of every tick, which is never less than one
+    this.testingMaze2.onKeyEvent("+");
+    this.testingMaze2.onKeyEvent("=");
+    t.checkExpect(this.testingMaze2.stepsPerTick, 4);
+    this.testingMaze2.onKeyEvent("-");
+    t.checkExpect(this.testingMaze2.stepsPerTick, 2);
+    this.testingMaze2.onKeyEvent("-");
+    this.testingMaze2.onKeyEvent("-");
+    t.checkExpect(this.testingMaze2.stepsPerTick, 1);
+
+    // every tick performs stepsPerTick steps of the search
+    this.testingMaze2.stepsPerTick = 4;
+    this.testingMaze2.onKeyEvent("b");
+    this.testingMaze2.onTick();
+    t.checkExpect(this.testingMaze2.searches.get(0).nodesExpanded, 4);
+    this.testingMaze2.onTick();
+    t.checkExpect(this.testingMaze2.searches.get(0).nodesExpanded, 8);
+
+    // limiting every tick by time instead, and changing that time
+    this.testingMaze2.onKeyEvent("t");
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, Maze.DEFAULT_TICK_BUDGET_NANOS);
+    this.testingMaze2.onKeyEvent("-");
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, Maze.DEFAULT_TICK_BUDGET_NANOS / 2);
+    t.checkExpect(this.testingMaze2.stepsPerTick, 4);
+    this.testingMaze2.changeSpeed(false);
+    this.testingMaze2.changeSpeed(false);
+    this.testingMaze2.changeSpeed(false);
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, Maze.MIN_TICK_BUDGET_NANOS);
+
+    // a tick never gets more than half of the time between two ticks
+    for (int i = 0; i < 20; i++) {
+      this.testingMaze2.onKeyEvent("+");
+    }
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, Maze.MAX_TICK_BUDGET_NANOS);
+    t.checkExpect(Maze.MAX_TICK_BUDGET_NANOS, 5000000L);
+
+    // a tick with enough time finishes the whole search and retrace
+    this.testingMaze2.tickBudgetNanos = Maze.MAX_TICK_BUDGET_NANOS;
+    this.testingMaze2.onTick();
+    t.checkExpect(this.testingMaze2.mazeSolved, true);
+    t.checkExpect(this.testingMaze2.currentlySearchingMaze, false);
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(0).color, Color.BLUE);
+    this.testingMaze2.changeSpeed(true);
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, Maze.MAX_TICK_BUDGET_NANOS);
+
+    // switching back to limiting every tick by steps
+    this.testingMaze2.onKeyEvent("t");
+    t.checkExpect(this.testingMaze2.tickBudgetNanos, 0L);
+  }
 
-    // testing the dfs on a 2 by 2 maze
 
-    // making sure that nothing happens when the worklist is empty and dfs is called
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 0);
-    this.testingMaze1.dfs();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 0);
+  // test the method searchGrid
+  void testSearchGrid(Tester t) {
+    this.initMazeConditions();
 
-    // adding the topLeft vertex to the worklist and iterating through the dfs
-    Vertex starting = this.testingMaze1.vertices.get(0).get(0);
-    this.testingMaze1.dfsWorklist.add(starting);
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.seen.size(), 0);
-    this.testingMaze1.dfs();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 2);
-    t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 1);
-    this.testingMaze1.dfs();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.vertices.get(0).get(1).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 2);
-    this.testingMaze1.dfs();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 1);
-    t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, new Color(58, 188, 229));
-    t.checkExpect(this.testingMaze1.seen.size(), 3);
-    this.testingMaze1.dfs();
-    t.checkExpect(this.testingMaze1.dfsWorklist.size(), 0);
-    t.checkExpect(this.testingMaze1.seen.size(), 4);
+    // making sure that nothing happens when there are no searches
+    this.testingMaze1.searchGrid();
+    t.checkExpect(this.testingMaze1.changedVertices.size(), 0);
+    t.checkExpect(this.testingMaze1.mazeSolved, false);
+
+    // every call steps every search once, coloring only the vertex it expands
+    this.testingMaze1.startSearch(MazeSolver.BFS);
+    this.testingMaze1.startSearch(MazeSolver.DFS);
+    MazeSolver bfs = this.testingMaze1.searches.get(0);
+    MazeSolver dfs = this.testingMaze1.searches.get(1);
+    this.testingMaze1.searchGrid();
+    t.checkExpect(bfs.nodesExpanded, 1);
+    t.checkExpect(dfs.nodesExpanded, 1);
+    t.checkExpect(this.testingMaze1.vertexAt(0).color, Maze.SEEN_COLOR);
+    t.checkExpect(this.testingMaze1.vertexAt(2).color, Color.LIGHT_GRAY);
+    this.testingMaze1.searchGrid();
+    t.checkExpect(bfs.state.isVisited(3), true);
+    t.checkExpect(dfs.state.isVisited(3), false);
+    t.checkExpect(this.testingMaze1.vertexAt(2).color, Maze.SEEN_COLOR);
+    t.checkExpect(this.testingMaze1.vertexAt(1).color, Maze.SEEN_COLOR);
+    t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.RED);
+
+    // the first search to reach the last vertex stops the others, and its path is the solution
+    this.testingMaze1.searchGrid();
+    this.testingMaze1.searchGrid();
     t.checkExpect(this.testingMaze1.mazeSolved, true);
+    t.checkExpect(bfs.done, true);
+    t.checkExpect(dfs.done, false);
+    t.checkExpect(dfs.nodesExpanded, 3);
+    t.checkExpect(this.testingMaze1.solution, new int[] {0, 2, 3});
+    t.checkExpect(this.testingMaze1.retracing, 2);
+  }
+
+
+  // test the methods colorOf and stateOf
+  void testColorOf(Tester t) {
+    this.initMazeConditions();
+    t.checkExpect(this.testingMaze1.colorOf(0), Color.GREEN);
+    t.checkExpect(this.testingMaze1.colorOf(1), Color.LIGHT_GRAY);
+    t.checkExpect(this.testingMaze1.colorOf(3), Color.RED);
+
+    // the first search that visited a vertex gives it its color
+    this.testingMaze1.startSearch(MazeSolver.DFS);
+    this.testingMaze1.startSearch(MazeSolver.BFS);
+    this.testingMaze1.searches.get(1).state.markVisited(1);
+    t.checkExpect(this.testingMaze1.colorOf(0), Maze.DFS_COLOR);
+    t.checkExpect(this.testingMaze1.colorOf(1), Maze.SEEN_COLOR);
+    t.checkExpect(this.testingMaze1.colorOf(3), Color.RED);
+    t.checkExpect(this.testingMaze1.stateOf(0), MazeExporter.DFS_VISITED);
+    t.checkExpect(this.testingMaze1.stateOf(1), MazeExporter.VISITED);
+    t.checkExpect(this.testingMaze1.stateOf(2), MazeExporter.BACKGROUND);
+    t.checkExpect(this.testingMaze1.stateOf(3), MazeExporter.END);
+    t.checkExpect(Maze.searchState(MazeSolver.ASTAR), MazeExporter.VISITED);
   }
 
 
@@ -1080,12 +4768,10 @@ class ExamplesMaze {
 
     // testing the retracing of a maze after the dfs has been done
     t.checkExpect(this.testingMaze1.currentlySearchingMaze, true);
-    t.checkExpect(this.testingMaze1.currentRetracingVertex, 
-        this.testingMaze1.vertices.get(1).get(0));
+    t.checkExpect(this.testingMaze1.retracing, 1);
     t.checkExpect(this.testingMaze1.vertices.get(1).get(1).color, Color.BLUE);
     this.testingMaze1.retraceSolution();
-    t.checkExpect(this.testingMaze1.currentRetracingVertex, 
-        this.testingMaze1.vertices.get(0).get(0));
+    t.checkExpect(this.testingMaze1.retracing, 0);
     t.checkExpect(this.testingMaze1.vertices.get(1).get(0).color, Color.BLUE);
     this.testingMaze1.retraceSolution();
     t.checkExpect(this.testingMaze1.vertices.get(0).get(0).color, Color.BLUE);
@@ -1103,10 +4789,192 @@ class ExamplesMaze {
     t.checkException(new IllegalArgumentException("Value is too big or small!"), 
         u, "checkRange", 1000, 50, 100, "Value is too big or small!");
   }
-}
 
 
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ////////////////////////////// EXAMPLES AND TESTS FOR MAZEBENCHMARK /////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+  // test the method measure
+  void testMeasure(Tester t) {
+    this.initMazeConditions();
+    MazeBenchmark benchmark = new MazeBenchmark();
+
+    // every phase of a drawn maze can be measured and leaves the maze in a usable state
+    for (String phase : MazeBenchmark.DRAWN_PHASES) {
+      long[] result = benchmark.measure(this.testingMaze2, phase, 1, 2);
+      t.checkExpect(result[0] > 0, true);
+      t.checkExpect(result[1] >= 0, true);
+    }
+    t.checkExpect(this.testingMaze2.edgesInMaze().size(), 249);
+
+    // the seeded random makes every generation of the maze the same
+    ArrayList<Edge> edgesInMaze = this.testingMaze2.edgesInMaze();
+    benchmark.measure(this.testingMaze2, "generateEdgesOfMaze", 0, 1);
+    t.checkExpect(this.testingMaze2.edgesInMaze().size(), edgesInMaze.size());
+    for (int i = 0; i < edgesInMaze.size(); i++) {
+      t.checkExpect(this.testingMaze2.edgesInMaze().get(i).weight, edgesInMaze.get(i).weight);
+    }
+
+    // the searches run until the maze is solved and retraced
+    benchmark.measure(this.testingMaze2, "bfs", 0, 1);
+    t.checkExpect(this.testingMaze2.mazeSolved, true);
+    benchmark.measure(this.testingMaze2, "retraceSolution", 0, 1);
+    t.checkExpect(this.testingMaze2.currentlySearchingMaze, false);
+    t.checkExpect(this.testingMaze2.vertices.get(0).get(0).color, Color.BLUE);
+
+    t.checkException(new IllegalArgumentException("Unknown phase draw"), 
+        benchmark, "run", this.testingMaze2, "draw");
+  }
+
+
+  // test the method measureCompression of MazeBenchmark, which measures without printing
+  void testMeasureCompression(Tester t) {
+    double[] result = new MazeBenchmark().measureCompression(100, 100);
+    t.checkExpect(result.length, 6);
+    t.checkExpect(result[0] > 1 && result[0] < 100 * 100, true);
+    t.checkInexact(result[1], 100 * 100 / result[0], 0.001);
+    t.checkExpect(result[2] > 0 && result[3] > 0 && result[4] > 0, true);
+    t.checkInexact(result[5], result[4] / result[3], 0.001);
+  }
+
+
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+  ///////////////////////////////// EXAMPLES AND TESTS FOR MAZESERVICE ////////////////////////////
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
 
+  // test the service by sending requests to it with a load client
+  void testMazeService(Tester t) throws Exception {
+    MazeService service = new MazeService(0);
+    service.start();
+    try {
+      MazeLoadClient client = 
+          new MazeLoadClient(URI.create("http://localhost:" + service.port() + "/maze"));
+
+      // the maze that comes back is the one generated from the seed, along with its solution
+      MazeFile file = client.request(20, 10, 3);
+      Maze maze = new Maze(20, 10, 3L, Maze.KRUSKAL);
+      t.checkExpect(file.width, 20);
+      t.checkExpect(file.height, 10);
+      t.checkExpect(file.seed, 3L);
+      t.checkExpect(file.seeded, true);
+      t.checkExpect(file.toGrid().walls, maze.grid.walls);
+      t.checkExpect(file.solution(), new MazeSolver(maze.grid).bfs(0, 199).path);
+      t.checkExpect(service.generated.get(), 1L);
+
+      // a load test returns the latency of every request from the fastest to the slowest
+      long[] latencies = client.run(4, 3, 20, 10, 2);
+      t.checkExpect(latencies.length, 12);
+      for (int i = 1; i < latencies.length; i++) {
+        t.checkExpect(latencies[i - 1] <= latencies[i], true);
+      }
+      t.checkExpect(service.generated.get() + service.coalesced.get(), 13L);
+      t.checkExpect(service.inFlight.isEmpty(), true);
+
+      // requests for mazes that can't be generated are rejected
+      t.checkException(new IOException(
+          "Request failed with 400: Width must be between 2 and 32768"), 
+          client, "request", 1, 10, 0L);
+      t.checkException(new IOException(
+          "Request failed with 400: Mazes can have at most 16777216 cells"), 
+          client, "request", 5000, 5000, 0L);
+
+      // and requests whose generation fails in any other way are answered with a 500
+      CompletableFuture<byte[]> failed = new CompletableFuture<byte[]>();
+      service.inFlight.put("20x10:9:kruskal", failed);
+      failed.completeExceptionally(new OutOfMemoryError("Generation ran out of memory"));
+      t.checkException(new IOException("Request failed with 500: Maze could not be generated: "
+          + "java.lang.OutOfMemoryError: Generation ran out of memory"),
+          client, "request", 20, 10, 9L);
+      failed = new CompletableFuture<byte[]>();
+      service.inFlight.put("20x10:9:kruskal", failed);
+      failed.completeExceptionally(new IllegalStateException("Generation failed"));
+      t.checkException(new IOException("Request failed with 500: Maze could not be generated: "
+          + "java.lang.IllegalStateException: Generation failed"),
+          client, "request", 20, 10, 9L);
+    }
+    finally {
+      service.stop();
+    }
+  }
+
+
+  // test the method mazeBytes, which coalesces requests for a maze that is being generated
+  void testMazeBytes(Tester t) throws Exception {
+    MazeService service = new MazeService(0);
+
+    // a request for a maze that another request is generating gets that request's result
+    CompletableFuture<byte[]> pending = new CompletableFuture<byte[]>();
+    service.inFlight.put("20x10:3:kruskal", pending);
+    pending.complete(new byte[] {1, 2, 3});
+    t.checkExpect(service.mazeBytes(20, 10, 3, Maze.KRUSKAL), new byte[] {1, 2, 3});
+    t.checkExpect(service.coalesced.get(), 1L);
+    t.checkExpect(service.generated.get(), 0L);
+
+    // along with any exception it threw
+    CompletableFuture<byte[]> failed = new CompletableFuture<byte[]>();
+    service.inFlight.put("20x10:4:kruskal", failed);
+    failed.completeExceptionally(new IllegalArgumentException("Generation failed"));
+    t.checkException(new IllegalArgumentException("Generation failed"), 
+        service, "mazeBytes", 20, 10, 4L, Maze.KRUSKAL);
+
+    // or error, which is thrown as it is rather than failing to be cast
+    CompletableFuture<byte[]> error = new CompletableFuture<byte[]>();
+    service.inFlight.put("20x10:5:kruskal", error);
+    error.completeExceptionally(new OutOfMemoryError("Generation ran out of memory"));
+    Throwable thrown = null;
+    try {
+      service.mazeBytes(20, 10, 5, Maze.KRUSKAL);
+    }
+    catch (Error e) {
+      thrown = e;
+    }
+    t.checkExpect(thrown instanceof OutOfMemoryError, true);
+    t.checkExpect(thrown.getMessage(), "Generation ran out of memory");
+
+    // other requests generate the maze themselves and remove it from the mazes being generated
+    service.inFlight.clear();
+    byte[] bytes = service.mazeBytes(20, 10, 3, Maze.ELLER);
+    t.checkExpect(bytes, MazeService.generate(20, 10, 3, Maze.ELLER));
+    t.checkExpect(new MazeFile(ByteBuffer.wrap(bytes)).generator, Maze.ELLER);
+    t.checkExpect(service.generated.get(), 1L);
+    t.checkExpect(service.inFlight.isEmpty(), true);
+    t.checkException(new IllegalArgumentException("Generator must be kruskal, eller or parallel"), 
+        service, "mazeBytes", 20, 10, 3L, "prim");
+    t.checkExpect(service.inFlight.isEmpty(), true);
+    service.stop();
+  }
+
+
+  // test the methods that parse the query of a request
+  void testParseQuery(Tester t) {
+    Map<String, String> query = 
+        MazeService.parseQuery(URI.create("/maze?width=20&height=10&generator=eller&x"));
+    t.checkExpect(query.get("width"), "20");
+    t.checkExpect(query.get("generator"), "eller");
+    t.checkExpect(query.containsKey("x"), false);
+    t.checkExpect(MazeService.intParameter(query, "height"), 10);
+    t.checkExpect(MazeService.parseQuery(URI.create("/maze")).isEmpty(), true);
+    t.checkException(new IllegalArgumentException("Missing parameter seed"), 
+        this, "parameterOf", query, "seed");
+  }
 
 
+  // the parameter of the query with the given name, so that MazeService.parameter can be checked
+  String parameterOf(Map<String, String> query, String name) {
+    return MazeService.parameter(query, name);
+  }
+
 
+  // test the method percentile
+  void testPercentile(Tester t) {
+    long[] latencies = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    t.checkExpect(MazeLoadClient.percentile(latencies, 50), 5L);
+    t.checkExpect(MazeLoadClient.percentile(latencies, 99), 10L);
+    t.checkExpect(MazeLoadClient.percentile(latencies, 0), 1L);
+    t.checkExpect(MazeLoadClient.percentile(new long[] {4}, 99), 4L);
+  }
+}
@@ -0,0 +1,288 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.lang.management.ManagementFactory;
+
+
+// a benchmark harness for every phase of generating, solving and drawing a maze. Each phase is
+// run on its own, after a set up that isn't measured, on mazes made with a seeded Random so that
+// every run of a phase does exactly the same work. Along with the average time of each phase,
+// the bytes allocated by each run are reported so allocation regressions show up per phase.
+// Run with: java MazeBenchmark [width height]...
+// where every extra width and height is benchmarked after the default sizes
+class MazeBenchmark {
+  static final long SEED = 1;
+
+  // the phases that need the vertices of a drawn maze, and the ones that only need its grid
+  static final String[] DRAWN_PHASES = {"makeVertices", "makeAllEdges", "generateEdgesOfMaze",
+    "regenerate", "bfs", "dfs", "retraceSolution", "makeScene", "makeSceneRaster", "solverBfs", 
+    "solverAstar", "solverBidirectional", "solverDijkstra", "solverJunctions", 
+    "solverParallelBfs"};
+  static final String[] GRID_PHASES = {"makeVertices", "makeAllEdges", "generateEdgesOfMaze",
+    "regenerate", "solverBfs", "solverDfs", "solverAstar", "solverBidirectional", 
+    "solverDijkstra", "solverJunctions", "solverParallelBfs"};
+
+  // the searches whose expanded nodes are compared
+  static final String[] SEARCHES = {MazeSolver.BFS, MazeSolver.DFS, MazeSolver.ASTAR, 
+    MazeSolver.BIDIRECTIONAL, MazeSolver.DIJKSTRA};
+
+  // the most that moving into a cell costs in the terrain that dijkstra's algorithm is timed on
+  static final int MAX_TERRAIN_COST = 10;
+
+  // the sizes that are benchmarked by default, from 10 by 10 up to the largest maze that is
+  // drawn and a maze too large to draw
+  static final int[][] DEFAULT_SIZES = {{10, 10}, {25, 25}, {50, 50}, {100, 100},
+    {1000, 600}, {4000, 4000}};
+
+  com.sun.management.ThreadMXBean threads;
+
+
+
+  MazeBenchmark() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      this.threads = (com.sun.management.ThreadMXBean) bean;
+    }
+  }
+
+
+  public static void main(String[] args) {
+    ArrayList<int[]> sizes = new ArrayList<int[]>(Arrays.asList(DEFAULT_SIZES));
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      sizes.add(new int[] {Integer.parseInt(args[i]), Integer.parseInt(args[i + 1])});
+    }
+
+    MazeBenchmark benchmark = new MazeBenchmark();
+    System.out.printf("%-20s %12s %14s %14s %12s%n",
+        "phase", "size", "ms/op", "bytes/op", "MB/s");
+    for (int[] size : sizes) {
+      benchmark.runSize(size[0], size[1]);
+    }
+
+    System.out.printf("%n%-20s %12s %14s %14s%n", "search", "size", "expanded", "path");
+    for (int[] size : sizes) {
+      benchmark.compareSearches(size[0], size[1]);
+    }
+
+    System.out.printf("%n%12s %10s %10s %12s %12s %12s %10s%n", "size", "nodes", "ratio", 
+        "build ms", "solve ms", "grid ms", "speed-up");
+    for (int[] size : sizes) {
+      benchmark.compareCompression(size[0], size[1]);
+    }
+  }
+
+
+  // prints how far the junction graph of a maze of the given size compresses it, and how much
+  // faster a bfs of the graph is than a bfs of the grid, both on its own and with the time to
+  // build the graph
+  void compareCompression(int width, int height) {
+    double[] result = this.measureCompression(width, height);
+    System.out.printf("%12s %10d %10.2f %12.3f %12.3f %12.3f %9.1fx%n",
+        width + "x" + height, (long) result[0], result[1], result[2], result[3], result[4], 
+        result[5]);
+  }
+
+
+  // measures the junction graph of a maze of the given size, returning its number of nodes, its
+  // compression ratio, the milliseconds to build it, to search it with a bfs and to search the
+  // grid with a bfs, and the speed-up of the search of the graph over the search of the grid
+  double[] measureCompression(int width, int height) {
+    Maze maze = new Maze(width, height, new Random(SEED));
+    int goal = width * height - 1;
+    int iterations = Math.max(1, Math.min(20, 2000000 / (width * height)));
+
+    long buildNanos = 0;
+    long solveNanos = 0;
+    long gridNanos = 0;
+    JunctionGraph graph = null;
+    MazeSolver solver = new MazeSolver(maze.grid);
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      graph = new JunctionGraph(maze.grid, 0, goal);
+      buildNanos += System.nanoTime() - start;
+      solveNanos += graph.solve(MazeSolver.BFS).elapsedNanos;
+      gridNanos += solver.bfs(0, goal).elapsedNanos;
+    }
+
+    return new double[] {graph.nodeCount(), graph.compressionRatio(), 
+      buildNanos / 1e6 / iterations, solveNanos / 1e6 / iterations, 
+      gridNanos / 1e6 / iterations, (double) gridNanos / solveNanos};
+  }
+
+
+  // prints how many nodes every search expands to solve a maze of the given size from the top
+  // left corner to the bottom right one
+  void compareSearches(int width, int height) {
+    Maze maze = new Maze(width, height, new Random(SEED));
+    MazeSolver solver = new MazeSolver(maze.grid);
+    for (String search : SEARCHES) {
+      SolveResult result = solver.solve(0, width * height - 1, search);
+      System.out.printf("%-20s %12s %14d %14d%n",
+          search, width + "x" + height, result.nodesExpanded, result.path.length);
+    }
+  }
+
+
+  // runs every phase that applies to a maze of the given size and prints the results
+  void runSize(int width, int height) {
+    Maze maze = new Maze(width, height, new Random(SEED));
+    String[] phases;
+    if (maze.isDrawable()) {
+      phases = DRAWN_PHASES;
+    }
+    else {
+      phases = GRID_PHASES;
+    }
+
+    // fewer iterations are needed to get a stable average for larger mazes
+    int cells = width * height;
+    int warmup = Math.max(1, Math.min(20, 2000000 / cells));
+    int iterations = Math.max(3, Math.min(50, 5000000 / cells));
+
+    for (String phase : phases) {
+      long[] result = this.measure(maze, phase, warmup, iterations);
+      double millis = result[0] / 1e6 / iterations;
+      long bytes = result[1] / iterations;
+      double rate = result[1] / 1048576.0 / (result[0] / 1e9);
+      System.out.printf("%-20s %12s %14.3f %14d %12.1f%n",
+          phase, width + "x" + height, millis, bytes, rate);
+    }
+  }
+
+
+  // runs the given phase on the maze, returning the total nanoseconds and bytes allocated by the
+  // measured iterations. The bytes are -1 if the JVM can't count the allocations of a thread
+  long[] measure(Maze maze, String phase, int warmup, int iterations) {
+    for (int i = 0; i < warmup; i++) {
+      this.setUp(maze, phase);
+      this.run(maze, phase);
+    }
+
+    long nanos = 0;
+    long bytes = 0;
+    for (int i = 0; i < iterations; i++) {
+      this.setUp(maze, phase);
+      long startBytes = this.allocatedBytes();
+      long start = System.nanoTime();
+      this.run(maze, phase);
+      nanos += System.nanoTime() - start;
+      bytes += this.allocatedBytes() - startBytes;
+    }
+
+    if (this.threads == null) {
+      bytes = -1;
+    }
+    return new long[] {nanos, bytes};
+  }
+
+
+  // the number of bytes the current thread has allocated so far, or 0 if it can't be counted
+  long allocatedBytes() {
+    if (this.threads == null) {
+      return 0;
+    }
+    return this.threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+
+  // brings the maze to the state the given phase starts from, with the same seed every time
+  void setUp(Maze maze, String phase) {
+    maze.rand = new Random(SEED);
+    if (phase.equals("makeAllEdges")) {
+      maze.makeVertices();
+    }
+    else if (phase.equals("generateEdgesOfMaze")) {
+      maze.makeVertices();
+      maze.makeAllEdges();
+    }
+    else if (phase.equals("bfs") || phase.equals("dfs")) {
+      this.clearSearch(maze);
+      maze.onKeyEvent(phase.substring(0, 1));
+    }
+    else if (phase.equals("retraceSolution")) {
+      this.clearSearch(maze);
+      maze.onKeyEvent("b");
+      while (!maze.mazeSolved) {
+        maze.searchGrid();
+      }
+    }
+    else if (phase.equals("makeScene") || phase.equals("makeSceneRaster")) {
+      // a typical frame, where the scene has already been drawn and one step of a search has
+      // changed a single vertex since
+      this.clearSearch(maze);
+      if (phase.equals("makeSceneRaster") != (maze.raster != null)) {
+        maze.onKeyEvent("i");
+      }
+      maze.makeScene();
+      maze.onKeyEvent("b");
+      maze.searchGrid();
+    }
+    else if (phase.equals("solverDijkstra") 
+        && (maze.weights == null || maze.weights.grid != maze.grid)) {
+      // the terrain is made once for every grid, and outside of the measured run
+      maze.weights = MazeWeights.terrain(maze.grid, new Random(SEED), MAX_TERRAIN_COST);
+    }
+  }
+
+
+  // runs the given phase on the maze
+  void run(Maze maze, String phase) {
+    if (phase.equals("makeVertices")) {
+      maze.makeVertices();
+    }
+    else if (phase.equals("makeAllEdges")) {
+      maze.makeAllEdges();
+    }
+    else if (phase.equals("generateEdgesOfMaze")) {
+      maze.generateEdgesOfMaze();
+    }
+    else if (phase.equals("regenerate")) {
+      maze.regenerate();
+    }
+    else if (phase.equals("bfs") || phase.equals("dfs")) {
+      while (!maze.mazeSolved) {
+        maze.searchGrid();
+      }
+    }
+    else if (phase.equals("retraceSolution")) {
+      while (maze.currentlySearchingMaze) {
+        maze.retraceSolution();
+      }
+    }
+    else if (phase.equals("makeScene") || phase.equals("makeSceneRaster")) {
+      maze.makeScene();
+    }
+    else if (phase.equals("solverBfs")) {
+      new MazeSolver(maze.grid).bfs(0, maze.width * maze.height - 1);
+    }
+    else if (phase.equals("solverDfs")) {
+      new MazeSolver(maze.grid).dfs(0, maze.width * maze.height - 1);
+    }
+    else if (phase.equals("solverAstar")) {
+      new MazeSolver(maze.grid).astar(0, maze.width * maze.height - 1);
+    }
+    else if (phase.equals("solverBidirectional")) {
+      new MazeSolver(maze.grid).bidirectionalBfs(0, maze.width * maze.height - 1);
+    }
+    else if (phase.equals("solverDijkstra")) {
+      new MazeSolver(maze.grid, maze.weights)
+          .dijkstra(0, maze.width * maze.height - 1);
+    }
+    else if (phase.equals("solverParallelBfs")) {
+      new MazeSolver(maze.grid).parallelBfs(0, maze.width * maze.height - 1, 
+          ForkJoinPool.commonPool());
+    }
+    else if (phase.equals("solverJunctions")) {
+      new JunctionGraph(maze.grid, 0, maze.width * maze.height - 1).solve(MazeSolver.BFS);
+    }
+    else {
+      throw new IllegalArgumentException("Unknown phase " + phase);
+    }
+  }
+
+
+  // stops any search on the maze and clears it, so the maze is ready to be searched again
+  void clearSearch(Maze maze) {
+    maze.currentlySearchingMaze = false;
+    maze.onKeyEvent("c");
+  }
+}
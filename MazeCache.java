@@ -0,0 +1,166 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// a bounded cache of generated mazes, by their width, height, seed and generator, so that the same
+// seeded maze is only generated once however many times it is asked for. Every maze is kept as
+// the 2 bits per cell of its walls along with its solution from the top left cell to the bottom
+// right one, and once the mazes take up more than the capacity of the cache in bytes the least
+// recently used ones are evicted. A maze that is asked for while another thread is generating it
+// waits for that generation instead of starting its own, like the requests of a MazeService
+class MazeCache {
+  static final long DEFAULT_CAPACITY_BYTES = 256L << 20;
+
+  long capacityBytes; // the most bytes the cached mazes may take up
+  LinkedHashMap<String, CachedMaze> entries; // the cached mazes by their key, from the least
+  // recently used to the most recently used. Only used while holding the lock of the cache
+  long bytes; // the bytes taken up by the cached mazes, only used while holding the lock
+  ConcurrentHashMap<String, CompletableFuture<CachedMaze>> loading; // the mazes being generated
+  AtomicLong hits; // the number of mazes returned without generating them
+  AtomicLong misses; // the number of mazes generated
+  AtomicLong evictions; // the number of mazes evicted to keep within the capacity
+
+
+
+  MazeCache() {
+    this(MazeCache.DEFAULT_CAPACITY_BYTES);
+  }
+
+
+  MazeCache(long capacityBytes) {
+    if (capacityBytes < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative");
+    }
+    this.capacityBytes = capacityBytes;
+    this.entries = new LinkedHashMap<String, CachedMaze>(16, 0.75f, true);
+    this.bytes = 0;
+    this.loading = new ConcurrentHashMap<String, CompletableFuture<CachedMaze>>();
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.evictions = new AtomicLong();
+  }
+
+
+  // the given maze and its solution, which is generated by this call unless the cache already
+  // has it or another call is already generating it, in which case that one is returned
+  CachedMaze get(int width, int height, long seed, String generator) {
+    String key = MazeCache.key(width, height, seed, generator);
+    CachedMaze cached = this.lookup(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    CompletableFuture<CachedMaze> created = new CompletableFuture<CachedMaze>();
+    CompletableFuture<CachedMaze> existing = this.loading.putIfAbsent(key, created);
+    if (existing != null) {
+      try {
+        cached = existing.join();
+      }
+      catch (CompletionException e) {
+        throw MazeCache.failure(e);
+      }
+      this.hits.incrementAndGet();
+      return cached;
+    }
+
+    try {
+      // another call may have cached the maze between the lookup and claiming it
+      cached = this.lookup(key);
+      if (cached == null) {
+        this.misses.incrementAndGet();
+        cached = MazeCache.generate(key, width, height, seed, generator);
+        this.add(cached);
+      }
+      created.complete(cached);
+      return cached;
+    }
+    catch (RuntimeException | Error e) {
+      created.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      this.loading.remove(key, created);
+    }
+  }
+
+
+  // the exception to throw for a generation that another call was waiting for and that failed.
+  // Generating never throws a checked exception, so an Error it threw is thrown again from here
+  // and anything else is returned to be thrown by the caller
+  static RuntimeException failure(CompletionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    else if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    else {
+      return e;
+    }
+  }
+
+
+  // the key of the given maze in the cache
+  static String key(int width, int height, long seed, String generator) {
+    return width + "x" + height + ":" + seed + ":" + generator;
+  }
+
+
+  // generates and solves the given maze, straight into a grid since the cache only keeps its walls
+  static CachedMaze generate(String key, int width, int height, long seed, String generator) {
+    MazeGrid grid = Maze.generateGrid(width, height, seed, generator);
+    int[] solution = new MazeSolver(grid).bfs(0, width * height - 1).path;
+    return new CachedMaze(key, seed, generator, grid, solution);
+  }
+
+
+  // the cached maze with the given key, marking it as the most recently used, or null if the
+  // cache doesn't have it
+  synchronized CachedMaze lookup(String key) {
+    CachedMaze cached = this.entries.get(key);
+    if (cached != null) {
+      this.hits.incrementAndGet();
+    }
+    return cached;
+  }
+
+
+  // caches the given maze as the most recently used one, evicting the least recently used mazes
+  // until the cache is within its capacity again. A maze larger than the whole capacity is
+  // evicted straight away
+  synchronized void add(CachedMaze cached) {
+    CachedMaze replaced = this.entries.put(cached.key, cached);
+    if (replaced != null) {
+      this.bytes -= replaced.bytes;
+    }
+    this.bytes += cached.bytes;
+
+    Iterator<CachedMaze> eldest = this.entries.values().iterator();
+    while (this.bytes > this.capacityBytes) {
+      this.bytes -= eldest.next().bytes;
+      eldest.remove();
+      this.evictions.incrementAndGet();
+    }
+  }
+
+
+  // the number of mazes in the cache
+  synchronized int size() {
+    return this.entries.size();
+  }
+
+
+  // the bytes taken up by the mazes in the cache
+  synchronized long bytes() {
+    return this.bytes;
+  }
+
+
+  // removes every maze from the cache, without counting them as evicted
+  synchronized void clear() {
+    this.entries.clear();
+    this.bytes = 0;
+  }
+}
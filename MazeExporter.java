@@ -0,0 +1,383 @@
+import java.util.*;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.awt.Color;
+
+
+// exports a maze of any size to a PNG or SVG image without drawing it in a WorldScene, for mazes
+// too large to be drawn on screen. The walls are read from the grid in stripes of whole rows and
+// each stripe is written out before the next one is read, so only one stripe is ever kept in
+// memory however large the image is. The solution, as an array of cells, and the cells visited
+// by a search, as the SearchState it kept them in, can optionally be drawn too. In the image
+// every cell is cellSize pixels from one of its walls to the other, and neighbouring cells share
+// the line of pixels between them
+class MazeExporter {
+  // the number of cells that are read from the grid into each stripe
+  static final int STRIPE_CELLS = 1 << 16;
+
+  // the colors of the image, where every pixel of a PNG is an index into the palette
+  static final byte BACKGROUND = 0;
+  static final byte WALL = 1;
+  static final byte VISITED = 2;
+  static final byte SOLUTION = 3;
+  static final byte START = 4;
+  static final byte END = 5;
+  static final byte DFS_VISITED = 6;
+  static final Color[] PALETTE = {Color.LIGHT_GRAY, Color.BLACK, Maze.SEEN_COLOR, 
+    Color.BLUE, Color.GREEN, Color.RED, Maze.DFS_COLOR};
+
+  static final byte[] PNG_SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+  MazeGrid grid;
+  int cellSize;
+  int[] solution; // the cells on the solution in order of their rows and then of their columns,
+  // each as its index y * width + x, or null to not draw it
+  SearchState visited; // the search whose visited cells are drawn, or null to not draw them
+  int stripeRows; // the number of rows of cells in each stripe
+  int stripeTop; // the first row of the current stripe
+  byte[] stripe; // every cell of the current stripe and of the row above it, row by row, where
+  // bit 0 is its right wall, bit 1 its bottom wall and the bits above them its color
+
+
+
+  MazeExporter(MazeGrid grid, int cellSize, int[] solution, SearchState visited) {
+    this.grid = grid;
+    this.cellSize = new Utils().checkRange(cellSize, 2, 32, "Cell size must be between 2 and 32");
+    this.visited = visited;
+    if (solution != null) {
+      int cells = grid.width * grid.height;
+      this.solution = new int[solution.length];
+      for (int i = 0; i < solution.length; i++) {
+        int cell = new Utils().checkRange(solution[i], 0, cells - 1,
+            "Solution must only contain cells of the maze");
+        this.solution[i] = cell % grid.height * grid.width + cell / grid.height;
+      }
+      Arrays.sort(this.solution);
+    }
+    this.stripeRows = Math.max(1, Math.min(grid.height, MazeExporter.STRIPE_CELLS / grid.width));
+  }
+
+
+  // the width of the image in pixels
+  int imageWidth() {
+    return this.grid.width * this.cellSize + 1;
+  }
+
+
+  // the height of the image in pixels
+  int imageHeight() {
+    return this.grid.height * this.cellSize + 1;
+  }
+
+
+  // reads the given number of rows starting at the given one into the stripe, along with the
+  // row above them. The cells of each column are next to each other in the grid, so the stripe
+  // is filled one column at a time, and then the cells of the solution in those rows, which are
+  // next to each other in the sorted solution, are found with a binary search and colored
+  void readStripe(int top, int rows) {
+    int width = this.grid.width;
+    if (this.stripe == null || this.stripe.length < (this.stripeRows + 1) * width) {
+      this.stripe = new byte[(this.stripeRows + 1) * width];
+    }
+    this.stripeTop = top;
+    int first = Math.max(0, top - 1);
+    int lastCell = width * this.grid.height - 1;
+    for (int x = 0; x < width; x++) {
+      int cell = this.grid.index(x, first);
+      for (int y = first; y < top + rows; y++) {
+        byte color = MazeExporter.BACKGROUND;
+        if (cell == 0) {
+          color = MazeExporter.START;
+        }
+        else if (cell == lastCell) {
+          color = MazeExporter.END;
+        }
+        else if (this.visited != null && this.visited.isVisited(cell)) {
+          color = MazeExporter.VISITED;
+        }
+
+        int walls = 0;
+        if (this.grid.hasRightWall(cell)) {
+          walls |= 1;
+        }
+        if (this.grid.hasBottomWall(cell)) {
+          walls |= 2;
+        }
+        this.stripe[(y - top + 1) * width + x] = (byte) (color << 2 | walls);
+        cell++;
+      }
+    }
+
+    if (this.solution == null) {
+      return;
+    }
+    int i = Arrays.binarySearch(this.solution, first * width);
+    if (i < 0) {
+      i = -i - 1;
+    }
+    for (; i < this.solution.length && this.solution[i] < (top + rows) * width; i++) {
+      int index = this.solution[i] - (top - 1) * width;
+      if (this.solution[i] != 0 && this.solution[i] != lastCell) {
+        this.stripe[index] = (byte) (MazeExporter.SOLUTION << 2 | (this.stripe[index] & 3));
+      }
+    }
+  }
+
+
+  // the walls and color of the cell at the given x and y, which must be in the current stripe or
+  // the row above it
+  int cellAt(int x, int y) {
+    return this.stripe[(y - this.stripeTop + 1) * this.grid.width + x];
+  }
+
+
+  // the color of the cell at the given x and y
+  byte colorAt(int x, int y) {
+    return (byte) (this.cellAt(x, y) >>> 2);
+  }
+
+
+  // determines whether there is a wall on the line above the cell at the given x and y, where y
+  // can be one past the last row for the line below the maze
+  boolean horizontalWall(int x, int y) {
+    return y == 0 || y == this.grid.height || (this.cellAt(x, y - 1) & 2) != 0;
+  }
+
+
+  // determines whether there is a wall on the line to the left of the cell at the given x and y,
+  // where x can be one past the last column for the line to the right of the maze
+  boolean verticalWall(int x, int y) {
+    return x == 0 || x == this.grid.width || (this.cellAt(x - 1, y) & 1) != 0;
+  }
+
+
+  // determines whether any wall meets at the top left corner of the cell at the given x and y
+  boolean cornerWall(int x, int y) {
+    return (x > 0 && this.horizontalWall(x - 1, y)) 
+        || (x < this.grid.width && this.horizontalWall(x, y))
+        || (y > 0 && this.verticalWall(x, y - 1)) 
+        || (y < this.grid.height && this.verticalWall(x, y));
+  }
+
+
+  // the color of an open line between two cells, which joins them if they have the same color
+  byte between(byte first, byte second) {
+    if (first == second) {
+      return first;
+    }
+    else {
+      return MazeExporter.BACKGROUND;
+    }
+  }
+
+
+  // fills row with the filter byte and pixels of the given row of pixels of a PNG, which must be
+  // in the current stripe or be the line below the maze
+  void renderRow(int pixelY, byte[] row) {
+    int size = this.cellSize;
+    int y = pixelY / size;
+    boolean line = pixelY % size == 0;
+    int pixel = 1;
+    row[0] = 0;
+    for (int x = 0; x <= this.grid.width; x++) {
+
+      // the pixel on the line to the left of the cell
+      if (line && this.cornerWall(x, y)) {
+        row[pixel] = MazeExporter.WALL;
+      }
+      else if (line) {
+        row[pixel] = MazeExporter.BACKGROUND;
+      }
+      else if (this.verticalWall(x, y)) {
+        row[pixel] = MazeExporter.WALL;
+      }
+      else {
+        row[pixel] = this.between(this.colorAt(x - 1, y), this.colorAt(x, y));
+      }
+      pixel++;
+
+      // the pixels of the cell itself
+      if (x < this.grid.width) {
+        byte color;
+        if (!line) {
+          color = this.colorAt(x, y);
+        }
+        else if (this.horizontalWall(x, y)) {
+          color = MazeExporter.WALL;
+        }
+        else {
+          color = this.between(this.colorAt(x, y - 1), this.colorAt(x, y));
+        }
+        Arrays.fill(row, pixel, pixel + size - 1, color);
+        pixel += size - 1;
+      }
+    }
+  }
+
+
+  // writes the maze to the given stream as a PNG with a palette, compressing every row of
+  // pixels as soon as it is drawn. The stream is not closed
+  void writePng(OutputStream out) throws IOException {
+    out.write(MazeExporter.PNG_SIGNATURE);
+    ByteBuffer header = ByteBuffer.allocate(13);
+    header.putInt(this.imageWidth()).putInt(this.imageHeight());
+    header.put((byte) 8).put((byte) 3).put((byte) 0).put((byte) 0).put((byte) 0);
+    MazeExporter.writeChunk(out, "IHDR", header.array(), 13);
+
+    byte[] palette = new byte[MazeExporter.PALETTE.length * 3];
+    for (int i = 0; i < MazeExporter.PALETTE.length; i++) {
+      palette[i * 3] = (byte) MazeExporter.PALETTE[i].getRed();
+      palette[i * 3 + 1] = (byte) MazeExporter.PALETTE[i].getGreen();
+      palette[i * 3 + 2] = (byte) MazeExporter.PALETTE[i].getBlue();
+    }
+    MazeExporter.writeChunk(out, "PLTE", palette, palette.length);
+
+    PngChunkStream chunks = new PngChunkStream(out, "IDAT");
+    Deflater deflater = new Deflater();
+    DeflaterOutputStream compressed = new DeflaterOutputStream(chunks, deflater, 1 << 16);
+    byte[] row = new byte[this.imageWidth() + 1];
+    for (int top = 0; top < this.grid.height; top += this.stripeRows) {
+      int rows = Math.min(this.stripeRows, this.grid.height - top);
+      this.readStripe(top, rows);
+      for (int pixelY = top * this.cellSize; pixelY < (top + rows) * this.cellSize; pixelY++) {
+        this.renderRow(pixelY, row);
+        compressed.write(row);
+      }
+    }
+    this.renderRow(this.imageHeight() - 1, row);
+    compressed.write(row);
+    compressed.finish();
+    deflater.end();
+    chunks.flush();
+
+    MazeExporter.writeChunk(out, "IEND", new byte[0], 0);
+    out.flush();
+  }
+
+
+  // writes a chunk of a PNG with the given type and the first length bytes of data
+  static void writeChunk(OutputStream out, String type, byte[] data, int length) 
+      throws IOException {
+    byte[] typeBytes = type.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+    DataOutputStream chunk = new DataOutputStream(out);
+    chunk.writeInt(length);
+    chunk.write(typeBytes);
+    chunk.write(data, 0, length);
+    chunk.writeInt((int) crc.getValue());
+  }
+
+
+  // writes the maze to the given writer as an SVG, where the cells of each color in a stripe are
+  // filled in with one path of rectangles and the walls are drawn with one path in which every
+  // run of walls along the same line is a single segment. Each stripe is read once for all the
+  // colors of its cells and once more for its walls, which must be drawn over every cell. The
+  // writer is not closed
+  void writeSvg(Writer out) throws IOException {
+    int size = this.cellSize;
+    int width = this.grid.width;
+    int height = this.grid.height;
+    out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + this.imageWidth() 
+        + "\" height=\"" + this.imageHeight() + "\" viewBox=\"-0.5 -0.5 " + this.imageWidth() 
+        + " " + this.imageHeight() + "\">\n");
+    out.write("<rect x=\"0\" y=\"0\" width=\"" + width * size + "\" height=\"" 
+        + height * size + "\" fill=\"" + this.hex(MazeExporter.BACKGROUND) + "\"/>\n");
+
+    // the colored cells, a stripe at a time, with the runs of each color gathered while the
+    // stripe is read and written out as its path once the stripe is done
+    StringBuilder[] paths = new StringBuilder[MazeExporter.PALETTE.length];
+    for (int top = 0; top < height; top += this.stripeRows) {
+      int rows = Math.min(this.stripeRows, height - top);
+      this.readStripe(top, rows);
+      for (int y = top; y < top + rows; y++) {
+        int x = 0;
+        while (x < width) {
+          byte color = this.colorAt(x, y);
+          int run = 1;
+          while (x + run < width && this.colorAt(x + run, y) == color) {
+            run++;
+          }
+          if (color != MazeExporter.BACKGROUND) {
+            if (paths[color] == null) {
+              paths[color] = new StringBuilder();
+            }
+            paths[color].append("M" + x * size + " " + y * size + "h" + run * size + "v" + size
+                + "h-" + run * size + "z");
+          }
+          x += run;
+        }
+      }
+
+      for (int color = 0; color < paths.length; color++) {
+        if (paths[color] != null && paths[color].length() > 0) {
+          out.write("<path fill=\"" + this.hex((byte) color) + "\" d=\"");
+          out.write(paths[color].toString());
+          out.write("\"/>\n");
+          paths[color].setLength(0);
+        }
+      }
+    }
+
+    // the horizontal walls, a stripe at a time
+    out.write("<path stroke=\"" + this.hex(MazeExporter.WALL) 
+        + "\" stroke-linecap=\"square\" fill=\"none\" d=\"");
+    for (int top = 0; top < height; top += this.stripeRows) {
+      int rows = Math.min(this.stripeRows, height - top);
+      this.readStripe(top, rows);
+      for (int y = top; y < top + rows; y++) {
+        this.writeHorizontalWalls(out, y);
+      }
+    }
+    this.writeHorizontalWalls(out, height);
+
+    // the vertical walls, a column at a time since its cells are next to each other in the grid
+    for (int x = 0; x <= width; x++) {
+      int y = 0;
+      while (y < height) {
+        int run = 0;
+        while (y + run < height && (x == 0 || x == width 
+            || this.grid.hasRightWall(this.grid.index(x - 1, y + run)))) {
+          run++;
+        }
+        if (run > 0) {
+          out.write("M" + x * size + " " + y * size + "v" + run * size);
+        }
+        y += Math.max(run, 1);
+      }
+    }
+    out.write("\"/>\n</svg>\n");
+    out.flush();
+  }
+
+
+  // writes every run of walls along the line above the given row, which must be in the current
+  // stripe or be the line below the maze
+  void writeHorizontalWalls(Writer out, int y) throws IOException {
+    int x = 0;
+    while (x < this.grid.width) {
+      int run = 0;
+      while (x + run < this.grid.width && this.horizontalWall(x + run, y)) {
+        run++;
+      }
+      if (run > 0) {
+        out.write("M" + x * this.cellSize + " " + y * this.cellSize 
+            + "h" + run * this.cellSize);
+      }
+      x += Math.max(run, 1);
+    }
+  }
+
+
+  // the given color of the palette as an SVG color
+  String hex(byte color) {
+    return String.format("#%06x", MazeExporter.PALETTE[color].getRGB() & 0xFFFFFF);
+  }
+}
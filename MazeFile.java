@@ -0,0 +1,387 @@
+import java.util.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+// reads and writes mazes as compact binary files. A file starts with a header of HEADER_BYTES
+// bytes, in which every number is little-endian:
+//   int magic, short version, byte generator, byte flags, int width, int height, long seed,
+//   int start of the solution, int goal of the solution, int length of the solution, int unused
+// followed by the walls of every cell, 2 bits per cell laid out exactly like the walls of a
+// MazeGrid, and then, if the flags have HAS_SOLUTION, 1 bit per cell that is set for the cells on
+// the solution. If the flags have ROW_MAJOR the walls are laid out one row after another instead
+// of one column after another, as a MazeFileWriter streams them. A file is memory-mapped when it
+// is opened, so the walls of a maze of any size can be queried straight from the file without
+// loading them into a MazeGrid or any Vertex objects
+class MazeFile {
+  static final int MAGIC = 0x455A414D; // "MAZE" in the order the bytes are written
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 40;
+
+  // the flags of the header
+  static final byte HAS_SEED = 1;
+  static final byte HAS_SOLUTION = 2;
+  static final byte ROW_MAJOR = 4;
+
+  // the generators in the order they are numbered in the header
+  static final String[] GENERATORS = {Maze.KRUSKAL, Maze.ELLER, Maze.PARALLEL};
+
+  int width;
+  int height;
+  String generator;
+  long seed; // only meaningful if seeded is true
+  boolean seeded;
+  boolean hasSolution;
+  boolean rowMajor; // whether the walls are laid out row by row rather than column by column
+  int start; // the first cell of the solution
+  int goal; // the last cell of the solution
+  int solutionLength; // the number of cells on the solution
+  ByteBuffer buffer; // the contents of the whole file
+  int solutionOffset; // the position of the solution in the buffer
+
+
+
+  // opens the maze file at the given path, checking its header without reading any walls
+  MazeFile(Path path) throws IOException {
+    this(MazeFile.map(path));
+  }
+
+
+  // reads a maze from the contents of a maze file, such as the body of a response from a
+  // MazeService, checking its header without reading any walls
+  MazeFile(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (this.buffer.capacity() < MazeFile.HEADER_BYTES 
+        || this.buffer.getInt(0) != MazeFile.MAGIC) {
+      throw new IOException("Not a maze file");
+    }
+    short version = this.buffer.getShort(4);
+    if (version != MazeFile.VERSION) {
+      throw new IOException("Unsupported maze file version " + version);
+    }
+    byte generator = this.buffer.get(6);
+    if (generator < 0 || generator >= MazeFile.GENERATORS.length) {
+      throw new IOException("Unknown generator " + generator);
+    }
+    byte flags = this.buffer.get(7);
+    this.generator = MazeFile.GENERATORS[generator];
+    this.seeded = (flags & MazeFile.HAS_SEED) != 0;
+    this.hasSolution = (flags & MazeFile.HAS_SOLUTION) != 0;
+    this.rowMajor = (flags & MazeFile.ROW_MAJOR) != 0;
+    this.width = this.buffer.getInt(8);
+    this.height = this.buffer.getInt(12);
+    this.seed = this.buffer.getLong(16);
+    this.start = this.buffer.getInt(24);
+    this.goal = this.buffer.getInt(28);
+    this.solutionLength = this.buffer.getInt(32);
+    if (this.width < 2 || this.width > MazeGrid.MAX_SIDE 
+        || this.height < 2 || this.height > MazeGrid.MAX_SIDE) {
+      throw new IOException("Maze file is corrupt");
+    }
+
+    int cells = this.width * this.height;
+    this.solutionOffset = MazeFile.HEADER_BYTES + MazeFile.wallBytes(cells);
+    long expectedSize = this.solutionOffset;
+    if (this.hasSolution) {
+      expectedSize += MazeFile.solutionBytes(cells);
+    }
+    if (this.buffer.capacity() != expectedSize) {
+      throw new IOException("Maze file is corrupt");
+    }
+
+    // the solution must be made of cells of the maze, at least one of them if there is one
+    int shortest = 0;
+    if (this.hasSolution) {
+      shortest = 1;
+    }
+    if (this.solutionLength < shortest || this.solutionLength > cells
+        || this.start < 0 || this.start >= cells || this.goal < 0 || this.goal >= cells) {
+      throw new IOException("Maze file is corrupt");
+    }
+  }
+
+
+  // memory-maps the whole file at the given path
+  static ByteBuffer map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Not a maze file");
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+
+  // writes the given maze to a file at the given path, along with the cells of its solution from
+  // the first cell to the last one, or no solution if it is null
+  static void write(Path path, Maze maze, int[] solution) throws IOException {
+    MazeFile.checkSolution(maze.grid, solution);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, 
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, 
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, 
+          MazeFile.size(maze.grid, solution));
+      MazeFile.encode(mapped, maze.grid, maze.generator, maze.seeded, maze.seed, solution);
+      mapped.force();
+    }
+  }
+
+
+  // the contents of a maze file holding the walls of the given grid, generated by the given
+  // generator from the given seed if it is seeded, and the given solution, like write. Only the
+  // grid is needed, so a maze that is never drawn doesn't have to be made into a Maze
+  static byte[] toBytes(MazeGrid grid, String generator, boolean seeded, long seed,
+      int[] solution) {
+    MazeFile.checkSolution(grid, solution);
+    ByteBuffer buffer = ByteBuffer.allocate(MazeFile.size(grid, solution));
+    MazeFile.encode(buffer, grid, generator, seeded, seed, solution);
+    return buffer.array();
+  }
+
+
+  // the size of a maze file holding the given grid and solution
+  static int size(MazeGrid grid, int[] solution) {
+    int cells = grid.width * grid.height;
+    int size = MazeFile.HEADER_BYTES + MazeFile.wallBytes(cells);
+    if (solution != null && solution.length > 0) {
+      size += MazeFile.solutionBytes(cells);
+    }
+    return size;
+  }
+
+
+  // checks that the given solution is either missing or a path through the grid
+  static void checkSolution(MazeGrid grid, int[] solution) {
+    if (solution != null && solution.length > 0) {
+      MazeFile.checkPath(grid, solution);
+    }
+  }
+
+
+  // writes the walls of the grid, the header of the maze they come from and the solution into
+  // the given buffer, which must be as large as their file and start out cleared
+  static void encode(ByteBuffer buffer, MazeGrid grid, String generator, boolean seeded,
+      long seed, int[] solution) {
+    int cells = grid.width * grid.height;
+    boolean hasSolution = solution != null && solution.length > 0;
+    byte flags = 0;
+    if (seeded) {
+      flags |= MazeFile.HAS_SEED;
+    }
+    if (hasSolution) {
+      flags |= MazeFile.HAS_SOLUTION;
+    }
+
+    if (hasSolution) {
+      MazeFile.putHeader(buffer, generator, flags, grid.width, grid.height, seed, solution[0],
+          solution[solution.length - 1], solution.length);
+    }
+    else {
+      MazeFile.putHeader(buffer, generator, flags, grid.width, grid.height, seed, 0, 0, 0);
+    }
+    grid.copyWallsTo(buffer.asLongBuffer());
+
+    if (hasSolution) {
+      int offset = MazeFile.HEADER_BYTES + MazeFile.wallBytes(cells);
+      for (int cell : solution) {
+        int position = offset + (cell >>> 3);
+        buffer.put(position, (byte) (buffer.get(position) | 1 << (cell & 7)));
+      }
+    }
+  }
+
+
+  // writes the header of a maze file with the given fields at the start of the buffer, leaving
+  // the buffer at the first byte of the walls
+  static void putHeader(ByteBuffer buffer, String generator, byte flags, int width, int height,
+      long seed, int start, int goal, int solutionLength) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(0);
+    buffer.putInt(MazeFile.MAGIC);
+    buffer.putShort(MazeFile.VERSION);
+    buffer.put((byte) Arrays.asList(MazeFile.GENERATORS).indexOf(generator));
+    buffer.put(flags);
+    buffer.putInt(width);
+    buffer.putInt(height);
+    buffer.putLong(seed);
+    buffer.putInt(start);
+    buffer.putInt(goal);
+    buffer.putInt(solutionLength);
+    buffer.putInt(0);
+  }
+
+
+  // checks that the given cells are a path through the grid, where each cell is connected to
+  // the one before it, and throws an exception if not
+  static void checkPath(MazeGrid grid, int[] path) {
+    int[] neighbors = new int[4];
+    for (int i = 0; i < path.length; i++) {
+      new Utils().checkRange(path[i], 0, grid.width * grid.height - 1, 
+          "Solution must only contain cells of the maze");
+      if (i > 0) {
+        int count = grid.openNeighbors(path[i - 1], neighbors);
+        boolean connected = false;
+        for (int j = 0; j < count; j++) {
+          connected = connected || neighbors[j] == path[i];
+        }
+        if (!connected) {
+          throw new IllegalArgumentException("Solution must be a path through the maze");
+        }
+      }
+    }
+  }
+
+
+  // the number of bytes the walls of the given number of cells take up in a file, which is a
+  // whole number of longs like the walls of a MazeGrid
+  static int wallBytes(int cells) {
+    return (cells + 31) / 32 * 8;
+  }
+
+
+  // the number of bytes the solution of a maze with the given number of cells takes up
+  static int solutionBytes(int cells) {
+    return (cells + 63) / 64 * 8;
+  }
+
+
+  // the position of the walls of the given cell among the walls of the file, which is the cell
+  // itself unless the walls are laid out row by row
+  int wallIndex(int cell) {
+    if (this.rowMajor) {
+      return cell % this.height * this.width + cell / this.height;
+    }
+    else {
+      return cell;
+    }
+  }
+
+
+  // determines whether the given cell has a wall on its right
+  boolean hasRightWall(int cell) {
+    int index = this.wallIndex(cell);
+    return (this.buffer.get(MazeFile.HEADER_BYTES + (index >>> 2)) >>> ((index & 3) << 1) & 1) 
+        != 0;
+  }
+
+
+  // determines whether the given cell has a wall below it
+  boolean hasBottomWall(int cell) {
+    int index = this.wallIndex(cell);
+    return (this.buffer.get(MazeFile.HEADER_BYTES + (index >>> 2)) >>> (((index & 3) << 1) + 1) 
+        & 1) != 0;
+  }
+
+
+  // determines whether the given cell has a wall on its left
+  boolean hasLeftWall(int cell) {
+    return cell < this.height || this.hasRightWall(cell - this.height);
+  }
+
+
+  // determines whether the given cell has a wall above it
+  boolean hasTopWall(int cell) {
+    return cell % this.height == 0 || this.hasBottomWall(cell - 1);
+  }
+
+
+  // determines whether the given cell is on the solution stored in the file
+  boolean isOnSolution(int cell) {
+    return this.hasSolution 
+        && (this.buffer.get(this.solutionOffset + (cell >>> 3)) >>> (cell & 7) & 1) != 0;
+  }
+
+
+  // fills out with the cells that can be reached from the given cell without crossing a wall,
+  // in the same order as the openNeighbors of a MazeGrid, and returns how many there are
+  int openNeighbors(int cell, int[] out) {
+    int count = 0;
+    if (!this.hasRightWall(cell)) {
+      out[count] = cell + this.height;
+      count++;
+    }
+    if (!this.hasBottomWall(cell)) {
+      out[count] = cell + 1;
+      count++;
+    }
+    if (!this.hasLeftWall(cell)) {
+      out[count] = cell - this.height;
+      count++;
+    }
+    if (!this.hasTopWall(cell)) {
+      out[count] = cell - 1;
+      count++;
+    }
+    return count;
+  }
+
+
+  // reads the cells of the solution from its start to its goal by following the cells on it
+  // from the start, or returns no cells if the file has no solution. Since a solution never
+  // visits a cell twice, the next cell is always the one on the solution it didn't come from
+  int[] solution() throws IOException {
+    if (!this.hasSolution) {
+      return new int[0];
+    }
+
+    int[] path = new int[this.solutionLength];
+    int[] neighbors = new int[4];
+    int previous = -1;
+    int cell = this.start;
+    path[0] = cell;
+    for (int i = 1; i < path.length; i++) {
+      int count = this.openNeighbors(cell, neighbors);
+      int next = -1;
+      for (int j = 0; j < count; j++) {
+        if (neighbors[j] != previous && this.isOnSolution(neighbors[j])) {
+          next = neighbors[j];
+        }
+      }
+      if (next < 0) {
+        throw new IOException("Maze file is corrupt");
+      }
+      previous = cell;
+      cell = next;
+      path[i] = cell;
+    }
+    if (cell != this.goal) {
+      throw new IOException("Maze file is corrupt");
+    }
+    return path;
+  }
+
+
+  // loads the walls of the file into a new grid, which can then be searched
+  MazeGrid toGrid() {
+    MazeGrid grid = new MazeGrid(this.width, this.height);
+    this.readWalls(grid);
+    return grid;
+  }
+
+
+  // copies the walls of the file into a grid of the same size. Walls laid out row by row are
+  // removed from the grid one cell at a time, since the grid lays them out column by column
+  void readWalls(MazeGrid grid) {
+    if (this.rowMajor) {
+      grid.resetWalls();
+      for (int cell = 0; cell < this.width * this.height; cell++) {
+        if (!this.hasRightWall(cell)) {
+          grid.removeWall(cell, cell + this.height);
+        }
+        if (!this.hasBottomWall(cell)) {
+          grid.removeWall(cell, cell + 1);
+        }
+      }
+      return;
+    }
+    ByteBuffer buffer = this.buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(MazeFile.HEADER_BYTES);
+    grid.copyWallsFrom(buffer.asLongBuffer());
+  }
+}
@@ -0,0 +1,136 @@
+import java.util.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+// writes a maze file as its maze is generated, one row at a time, so that a maze is streamed to
+// disk without ever being held in a MazeGrid or any Vertex objects. Its walls are laid out row by
+// row, with the ROW_MAJOR flag, so every row is written next to the one before it, through a
+// window of the file that is mapped again further on once a row no longer fits in it. Only one
+// window is mapped at a time and every offset is a long, so the maze can be as large as the
+// format allows, with any int width and height, even though a MazeFile only opens files within
+// MazeGrid.MAX_SIDE on either side. It has no solution, which can only be found by searching the
+// whole maze
+class MazeFileWriter implements IRowSink {
+  // the default size of the window of the file that is mapped at a time
+  static final int WINDOW_BYTES = 1 << 26;
+
+  int width;
+  int height;
+  int windowBytes; // the size of each window, unless a single row takes up more
+  FileChannel channel; // the file, which stays open until the maze is finished
+  long fileBytes; // the size of the whole file
+  MappedByteBuffer window; // the part of the file being written, or null before the first row
+  long windowStart; // the position in the file of the first byte of the window
+  int rows; // the number of rows written so far
+
+
+
+  // creates the file at the given path, or replaces it, for a maze with the given width and
+  // height generated by Eller's algorithm from the given seed, and writes its header
+  MazeFileWriter(Path path, int width, int height, long seed) throws IOException {
+    this(path, width, height, seed, MazeFileWriter.WINDOW_BYTES);
+  }
+
+
+  // creates the file like the constructor above, mapping windows of the given number of bytes
+  MazeFileWriter(Path path, int width, int height, long seed, int windowBytes)
+      throws IOException {
+    this.width = new Utils().checkRange(width, 2, Integer.MAX_VALUE,
+        "Width must be at least 2");
+    this.height = new Utils().checkRange(height, 2, Integer.MAX_VALUE,
+        "Height must be at least 2");
+    this.windowBytes = new Utils().checkRange(windowBytes, 1, Integer.MAX_VALUE,
+        "Windows must be at least 1 byte");
+
+    // the walls take up a whole number of longs, like the walls of a MazeFile, and the file is
+    // given its whole size at once so that every window of it can be mapped
+    this.fileBytes = MazeFile.HEADER_BYTES + ((long) width * height + 31) / 32 * 8;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.channel.write(ByteBuffer.allocate(1), this.fileBytes - 1);
+    MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+        MazeFile.HEADER_BYTES);
+    MazeFile.putHeader(header, Maze.ELLER, (byte) (MazeFile.HAS_SEED | MazeFile.ROW_MAJOR),
+        width, height, seed, 0, 0, 0);
+    header.force();
+  }
+
+
+  // generates the maze with the given width and height from the given seed, the same maze as
+  // new Maze(width, height, seed, Maze.ELLER), straight into a file at the given path
+  static void generate(Path path, int width, int height, long seed) throws IOException {
+    MazeFileWriter writer = new MazeFileWriter(path, width, height, seed);
+    try {
+      new EllerGenerator(width, height, new Random(seed)).generate(writer);
+      writer.finish();
+    }
+    finally {
+      writer.channel.close();
+    }
+  }
+
+
+  // writes the walls of row y after those of the row above it. The walls of the file start out
+  // cleared, so only the walls the row has are set
+  public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+    if (y != this.rows) {
+      throw new IllegalArgumentException("Rows must be written in order");
+    }
+    long index = (long) y * this.width;
+    this.mapRow(index);
+    for (int x = 0; x < this.width; x++) {
+      int walls = 0;
+      if (rightWalls[x]) {
+        walls |= 1;
+      }
+      if (bottomWalls[x]) {
+        walls |= 2;
+      }
+      int position = (int) (MazeFile.HEADER_BYTES + (index >>> 2) - this.windowStart);
+      this.window.put(position, (byte) (this.window.get(position) | walls << ((index & 3) << 1)));
+      index++;
+    }
+    this.rows++;
+  }
+
+
+  // makes sure the window holds every byte of the row whose first cell is at the given index,
+  // otherwise mapping a new window that starts at the first of them. The byte a row starts in
+  // can be shared with the row before it, which is written to through both windows of the file
+  void mapRow(long index) {
+    long first = MazeFile.HEADER_BYTES + (index >>> 2);
+    long last = MazeFile.HEADER_BYTES + ((index + this.width - 1) >>> 2);
+    if (this.window != null && last < this.windowStart + this.window.capacity()) {
+      return;
+    }
+    if (this.window != null) {
+      this.window.force();
+    }
+    long size = Math.min(Math.max(this.windowBytes, last - first + 1), this.fileBytes - first);
+    try {
+      this.window = this.channel.map(FileChannel.MapMode.READ_WRITE, first, size);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.windowStart = first;
+  }
+
+
+  // checks that every row of the maze has been written, writes the file out to disk and closes
+  // it
+  void finish() throws IOException {
+    if (this.rows != this.height) {
+      throw new IllegalStateException("Every row must be written before finishing");
+    }
+    this.window.force();
+    this.channel.close();
+  }
+}
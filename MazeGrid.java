@@ -0,0 +1,187 @@
+import java.util.*;
+import java.lang.invoke.*;
+import java.nio.LongBuffer;
+
+
+// represents the walls of a maze in a compact form, where every cell is identified by its
+// row-major index x * height + y. Only the right and bottom wall of each cell is stored, as 2
+// bits packed into longs, because the left and top walls of a cell are the right and bottom
+// walls of its neighbours and the outer walls of the maze always exist. The walls are only
+// changed while the maze is generated, and a grid keeps no search of its own, so once generated
+// it can be read by any number of searches at once, each with a SearchState of its own
+class MazeGrid implements IRowSink {
+  // the largest width or height of a grid, chosen so that every edge id of a square grid, and so
+  // every cell index, fits in an int
+  static final int MAX_SIDE = 32768;
+
+  // the number of bytes each cell of a grid takes up, for its 2 bits of walls
+  static final double BYTES_PER_CELL = 2 / 8.0;
+
+  // gives atomic access to the longs of the walls, since several threads may remove walls that
+  // are packed into the same long
+  static final VarHandle WALLS = MethodHandles.arrayElementVarHandle(long[].class);
+  int width;
+  int height;
+  long[] walls; // bit 2 * cell is the right wall of the cell and the bit after it the bottom wall.
+  // The walls are null in an OffHeapGrid, which keeps them outside the heap
+
+
+
+  MazeGrid(int width, int height) {
+    this(width, height, new long[(width * height + 31) / 32]);
+    Arrays.fill(this.walls, -1L);
+  }
+
+
+  MazeGrid(int width, int height, long[] walls) {
+    this.width = width;
+    this.height = height;
+    this.walls = walls;
+  }
+
+
+  // computes the row-major index of the cell at the given x and y
+  int index(int x, int y) {
+    return x * this.height + y;
+  }
+
+
+  // determines whether the given cell has a wall on its right
+  boolean hasRightWall(int cell) {
+    return (this.walls[cell >>> 5] >>> ((cell & 31) << 1) & 1L) != 0;
+  }
+
+
+  // determines whether the given cell has a wall below it
+  boolean hasBottomWall(int cell) {
+    return (this.walls[cell >>> 5] >>> (((cell & 31) << 1) + 1) & 1L) != 0;
+  }
+
+
+  // determines whether the given cell has a wall on its left
+  boolean hasLeftWall(int cell) {
+    return cell < this.height || this.hasRightWall(cell - this.height);
+  }
+
+
+  // determines whether the given cell has a wall above it
+  boolean hasTopWall(int cell) {
+    return cell % this.height == 0 || this.hasBottomWall(cell - 1);
+  }
+
+
+  // removes the wall between two adjacent cells, where from is above or to the left of to
+  void removeWall(int from, int to) {
+    int bit = ((from & 31) << 1) + (to == from + 1 ? 1 : 0);
+    this.walls[from >>> 5] &= ~(1L << bit);
+  }
+
+
+  // removes the wall between two adjacent cells like removeWall, but atomically so that other
+  // threads can remove walls from the same grid at the same time
+  void removeWallConcurrently(int from, int to) {
+    int bit = ((from & 31) << 1) + (to == from + 1 ? 1 : 0);
+    WALLS.getAndBitwiseAnd(this.walls, from >>> 5, ~(1L << bit));
+  }
+
+
+  // the number of possible edges between every adjacent pair of cells in the grid, which must
+  // fit in an int for the edges to be numbered, as they are for Kruskal's algorithm
+  int edgeCount() {
+    long edges = (long) this.width * (this.height - 1) + (long) (this.width - 1) * this.height;
+    if (edges > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Mazes must have at most " + Integer.MAX_VALUE
+          + " edges");
+    }
+    return (int) edges;
+  }
+
+
+  // the cell above or to the left of the given edge, where the vertical edges are numbered
+  // first followed by the horizontal edges, in the same order makeAllEdges constructs them
+  int edgeFrom(int edge) {
+    int verticalEdges = this.width * (this.height - 1);
+    if (edge < verticalEdges) {
+      return edge + edge / (this.height - 1);
+    }
+    else {
+      return edge - verticalEdges;
+    }
+  }
+
+
+  // the cell below or to the right of the given edge
+  int edgeTo(int edge) {
+    if (edge < this.width * (this.height - 1)) {
+      return this.edgeFrom(edge) + 1;
+    }
+    else {
+      return this.edgeFrom(edge) + this.height;
+    }
+  }
+
+
+  // fills out with the cells that can be reached from the given cell without crossing a wall,
+  // in the order right, bottom, left, top, and returns how many there are. The walls on the
+  // outside of the grid are never removed, so they don't need to be checked separately
+  int openNeighbors(int cell, int[] out) {
+    int count = 0;
+    if (!this.hasRightWall(cell)) {
+      out[count] = cell + this.height;
+      count++;
+    }
+    if (!this.hasBottomWall(cell)) {
+      out[count] = cell + 1;
+      count++;
+    }
+    if (!this.hasLeftWall(cell)) {
+      out[count] = cell - this.height;
+      count++;
+    }
+    if (!this.hasTopWall(cell)) {
+      out[count] = cell - 1;
+      count++;
+    }
+    return count;
+  }
+
+
+  // takes the walls of row y from a generator, so that an EllerGenerator writes a maze straight
+  // into the grid
+  public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+    for (int x = 0; x < this.width; x++) {
+      int cell = this.index(x, y);
+      if (!rightWalls[x]) {
+        this.removeWall(cell, cell + this.height);
+      }
+      if (!bottomWalls[x]) {
+        this.removeWall(cell, cell + 1);
+      }
+    }
+  }
+
+
+  // puts every wall of the grid back in place, so that a new maze can be generated in the same
+  // memory
+  void resetWalls() {
+    Arrays.fill(this.walls, -1L);
+  }
+
+
+  // copies the walls of the grid into the given buffer, from its position onwards
+  void copyWallsTo(LongBuffer out) {
+    out.put(this.walls);
+  }
+
+
+  // replaces the walls of the grid with the ones in the given buffer, from its position onwards
+  void copyWallsFrom(LongBuffer in) {
+    in.get(this.walls);
+  }
+
+
+  // a new state for a search of the grid, which belongs to whichever search it is given to
+  SearchState newSearchState() {
+    return new SearchState(this.width * this.height);
+  }
+}
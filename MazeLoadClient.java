@@ -0,0 +1,156 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+
+
+// a load client for a MazeService, which sends requests for mazes from several threads at once
+// and reports the throughput and the median and 99th percentile latency of the requests. Only a
+// few distinct seeds are requested, so that many requests ask for the same maze at the same time
+// and are coalesced by the service. A service is started in this process unless the url of one
+// is given.
+// Run with: java MazeLoadClient [url [clients requests width height seeds]]
+class MazeLoadClient {
+  static final int CLIENTS = 32;
+  static final int REQUESTS = 50; // the requests each client sends
+  static final int WIDTH = 500;
+  static final int HEIGHT = 500;
+  static final int SEEDS = 4; // the number of distinct mazes requested
+
+  HttpClient http;
+  URI base; // the url of the maze endpoint of the service
+
+
+
+  MazeLoadClient(URI base) {
+    this.http = HttpClient.newHttpClient();
+    this.base = base;
+  }
+
+
+  public static void main(String[] args) throws Exception {
+    MazeService service = null;
+    URI base;
+    if (args.length > 0) {
+      base = URI.create(args[0]);
+    }
+    else {
+      service = new MazeService(0);
+      service.start();
+      base = URI.create("http://localhost:" + service.port() + "/maze");
+    }
+
+    int clients = MazeLoadClient.CLIENTS;
+    int requests = MazeLoadClient.REQUESTS;
+    int width = MazeLoadClient.WIDTH;
+    int height = MazeLoadClient.HEIGHT;
+    int seeds = MazeLoadClient.SEEDS;
+    if (args.length > 5) {
+      clients = Integer.parseInt(args[1]);
+      requests = Integer.parseInt(args[2]);
+      width = Integer.parseInt(args[3]);
+      height = Integer.parseInt(args[4]);
+      seeds = Integer.parseInt(args[5]);
+    }
+
+    MazeLoadClient client = new MazeLoadClient(base);
+    long start = System.nanoTime();
+    long[] latencies = client.run(clients, requests, width, height, seeds);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%d requests for %dx%d mazes from %d clients in %.2f s%n",
+        latencies.length, width, height, clients, seconds);
+    System.out.printf("throughput %.1f requests/s, p50 %.2f ms, p99 %.2f ms%n",
+        latencies.length / seconds, MazeLoadClient.percentile(latencies, 50) / 1e6,
+        MazeLoadClient.percentile(latencies, 99) / 1e6);
+    if (service != null) {
+      System.out.printf("generated %d mazes, coalesced %d requests%n",
+          service.generated.get(), service.coalesced.get());
+      service.stop();
+    }
+  }
+
+
+  // sends the given number of requests from each of the given number of client threads, all
+  // for mazes of the given size with one of the given number of seeds, and returns the latency
+  // of every request in nanoseconds from the fastest to the slowest
+  long[] run(int clients, int requests, int width, int height, int seeds)
+      throws InterruptedException, ExecutionException {
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+    for (int c = 0; c < clients; c++) {
+      results.add(pool.submit(new LoadClientTask(this, c, requests, width, height, seeds)));
+    }
+
+    long[] latencies = new long[clients * requests];
+    for (int c = 0; c < clients; c++) {
+      System.arraycopy(results.get(c).get(), 0, latencies, c * requests, requests);
+    }
+    pool.shutdown();
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+
+  // requests the given maze from the service and checks that a maze file came back
+  MazeFile request(int width, int height, long seed) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(this.base
+        + "?width=" + width + "&height=" + height + "&seed=" + seed)).GET().build();
+    HttpResponse<byte[]> response =
+        this.http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    if (response.statusCode() != 200) {
+      throw new IOException("Request failed with " + response.statusCode() + ": "
+          + new String(response.body(), java.nio.charset.StandardCharsets.UTF_8));
+    }
+    return new MazeFile(ByteBuffer.wrap(response.body()));
+  }
+
+
+  // the given percentile of latencies, which must be sorted
+  static long percentile(long[] latencies, double percentile) {
+    int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+    return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+  }
+}
+
+
+
+
+
+// sends the requests of a single client of a load test, one after another
+class LoadClientTask implements Callable<long[]> {
+  MazeLoadClient client;
+  int index; // which client this is, so that clients start with different seeds
+  int requests;
+  int width;
+  int height;
+  int seeds;
+
+
+
+  LoadClientTask(MazeLoadClient client, int index, int requests, int width, int height, 
+      int seeds) {
+    this.client = client;
+    this.index = index;
+    this.requests = requests;
+    this.width = width;
+    this.height = height;
+    this.seeds = seeds;
+  }
+
+
+  // sends every request and returns the latency of each in nanoseconds
+  public long[] call() throws IOException, InterruptedException {
+    long[] latencies = new long[this.requests];
+    for (int i = 0; i < this.requests; i++) {
+      long start = System.nanoTime();
+      this.client.request(this.width, this.height, (this.index + i) % this.seeds);
+      latencies[i] = System.nanoTime() - start;
+    }
+    return latencies;
+  }
+}
@@ -0,0 +1,242 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+
+// collects counters and latency histograms of generating, solving and drawing mazes, which can
+// be read with snapshot or, once they have been turned on, through JMX. Collecting is off unless
+// the maze.metrics system property is true or it is turned on with setEnabled, and while it is
+// off every instrumented method only reads the enabled flag, so the metrics cost next to nothing
+// unless they are wanted
+class MazeMetrics implements IMazeMetrics {
+  static final String OBJECT_NAME = "maze:type=MazeMetrics";
+
+  // the metrics of every maze in this process
+  static final MazeMetrics METRICS = new MazeMetrics();
+
+  static volatile boolean enabled = Boolean.getBoolean("maze.metrics");
+
+  // the metrics are only registered with JMX once they are turned on, so that a process that
+  // doesn't collect them never starts the platform MBean server
+  static {
+    if (MazeMetrics.enabled) {
+      MazeMetrics.METRICS.register();
+    }
+  }
+
+  boolean registered; // whether register has been called
+  LongAdder unionFindFinds; // the calls to find and union of Kruskal's algorithm
+  LongAdder unionFindUnions;
+  LongAdder edgesExamined;
+  LongAdder edgesAccepted;
+  LongAdder nodesExpanded; // by the animated bfs and dfs
+  AtomicLong peakFrontier; // the largest worklist of an animated bfs or dfs
+  LongAdder framesRendered;
+  LongAdder cellsDrawn;
+
+  LatencyHistogram makeVertices;
+  LatencyHistogram makeAllEdges;
+  LatencyHistogram generateEdgesOfMaze;
+  LatencyHistogram bfsStep;
+  LatencyHistogram dfsStep;
+  LatencyHistogram retraceStep;
+  LatencyHistogram frame; // the time makeScene takes
+
+
+
+  MazeMetrics() {
+    this.unionFindFinds = new LongAdder();
+    this.unionFindUnions = new LongAdder();
+    this.edgesExamined = new LongAdder();
+    this.edgesAccepted = new LongAdder();
+    this.nodesExpanded = new LongAdder();
+    this.peakFrontier = new AtomicLong();
+    this.framesRendered = new LongAdder();
+    this.cellsDrawn = new LongAdder();
+    this.makeVertices = new LatencyHistogram();
+    this.makeAllEdges = new LatencyHistogram();
+    this.generateEdgesOfMaze = new LatencyHistogram();
+    this.bfsStep = new LatencyHistogram();
+    this.dfsStep = new LatencyHistogram();
+    this.retraceStep = new LatencyHistogram();
+    this.frame = new LatencyHistogram();
+  }
+
+
+  // the time an instrumented method starts at, or 0 if metrics aren't being collected, in which
+  // case whatever the method records is ignored
+  static long start() {
+    if (MazeMetrics.enabled) {
+      return System.nanoTime();
+    }
+    else {
+      return 0;
+    }
+  }
+
+
+  // registers the metrics with the platform MBean server the first time it is called, unless
+  // something else already has
+  synchronized void register() {
+    if (this.registered) {
+      return;
+    }
+    this.registered = true;
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(
+          new StandardMBean(this, IMazeMetrics.class), new ObjectName(MazeMetrics.OBJECT_NAME));
+    }
+    catch (JMException e) {
+      // the metrics can still be read with snapshot
+    }
+  }
+
+
+  // records a run of Kruskal's algorithm that started at the given time and counted its calls
+  // in the given union-find
+  void recordGeneration(long start, int examined, int accepted, UnionFind sets) {
+    if (start != 0) {
+      this.edgesExamined.add(examined);
+      this.edgesAccepted.add(accepted);
+      this.unionFindFinds.add(sets.finds);
+      this.unionFindUnions.add(sets.unions);
+      this.generateEdgesOfMaze.recordSince(start);
+    }
+  }
+
+
+  // records a step of a search that started at the given time and expanded one node, leaving
+  // the given number of nodes in its worklist
+  void recordStep(LatencyHistogram steps, long start, int frontier) {
+    if (start != 0) {
+      this.nodesExpanded.increment();
+      LatencyHistogram.raise(this.peakFrontier, frontier);
+      steps.recordSince(start);
+    }
+  }
+
+
+  // records a frame that started at the given time and drew the given number of cells
+  void recordFrame(long start, int cells) {
+    if (start != 0) {
+      this.framesRendered.increment();
+      this.cellsDrawn.add(cells);
+      this.frame.recordSince(start);
+    }
+  }
+
+
+  public boolean isEnabled() {
+    return MazeMetrics.enabled;
+  }
+
+
+  public void setEnabled(boolean enabled) {
+    if (enabled) {
+      this.register();
+    }
+    MazeMetrics.enabled = enabled;
+  }
+
+
+  public void reset() {
+    this.unionFindFinds.reset();
+    this.unionFindUnions.reset();
+    this.edgesExamined.reset();
+    this.edgesAccepted.reset();
+    this.nodesExpanded.reset();
+    this.peakFrontier.set(0);
+    this.framesRendered.reset();
+    this.cellsDrawn.reset();
+    for (Map.Entry<String, LatencyHistogram> entry : this.histograms().entrySet()) {
+      entry.getValue().reset();
+    }
+  }
+
+
+  public long getUnionFindFinds() {
+    return this.unionFindFinds.sum();
+  }
+
+
+  public long getUnionFindUnions() {
+    return this.unionFindUnions.sum();
+  }
+
+
+  public long getEdgesExamined() {
+    return this.edgesExamined.sum();
+  }
+
+
+  public long getEdgesAccepted() {
+    return this.edgesAccepted.sum();
+  }
+
+
+  public long getNodesExpanded() {
+    return this.nodesExpanded.sum();
+  }
+
+
+  public long getPeakFrontier() {
+    return this.peakFrontier.get();
+  }
+
+
+  public long getFramesRendered() {
+    return this.framesRendered.sum();
+  }
+
+
+  public long getCellsDrawn() {
+    return this.cellsDrawn.sum();
+  }
+
+
+  public Map<String, Long> getSnapshot() {
+    return this.snapshot();
+  }
+
+
+  // every histogram by the name of what it measures
+  Map<String, LatencyHistogram> histograms() {
+    Map<String, LatencyHistogram> histograms = new LinkedHashMap<String, LatencyHistogram>();
+    histograms.put("makeVertices", this.makeVertices);
+    histograms.put("makeAllEdges", this.makeAllEdges);
+    histograms.put("generateEdgesOfMaze", this.generateEdgesOfMaze);
+    histograms.put("bfsStep", this.bfsStep);
+    histograms.put("dfsStep", this.dfsStep);
+    histograms.put("retraceStep", this.retraceStep);
+    histograms.put("frame", this.frame);
+    return histograms;
+  }
+
+
+  // the current value of every counter, and the count, total, maximum, median and 99th
+  // percentile of every histogram as name.count, name.totalNanos and so on, sorted by name
+  Map<String, Long> snapshot() {
+    Map<String, Long> snapshot = new TreeMap<String, Long>();
+    snapshot.put("unionFindFinds", this.getUnionFindFinds());
+    snapshot.put("unionFindUnions", this.getUnionFindUnions());
+    snapshot.put("edgesExamined", this.getEdgesExamined());
+    snapshot.put("edgesAccepted", this.getEdgesAccepted());
+    snapshot.put("nodesExpanded", this.getNodesExpanded());
+    snapshot.put("peakFrontier", this.getPeakFrontier());
+    snapshot.put("framesRendered", this.getFramesRendered());
+    snapshot.put("cellsDrawn", this.getCellsDrawn());
+    for (Map.Entry<String, LatencyHistogram> entry : this.histograms().entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      snapshot.put(entry.getKey() + ".count", histogram.count.sum());
+      snapshot.put(entry.getKey() + ".totalNanos", histogram.total.sum());
+      snapshot.put(entry.getKey() + ".maxNanos", histogram.max.get());
+      snapshot.put(entry.getKey() + ".p50Nanos", histogram.percentile(50));
+      snapshot.put(entry.getKey() + ".p99Nanos", histogram.percentile(99));
+    }
+    return snapshot;
+  }
+}
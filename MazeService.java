@@ -0,0 +1,217 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+// a local HTTP service that generates and solves mazes for other processes. A request
+//   GET /maze?width=W&height=H&seed=S[&generator=kruskal|eller|parallel]
+// is answered with the maze in the format of a MazeFile, along with its solution from the top
+// left cell to the bottom right one. Every request runs on its own pooled thread, and requests
+// for the same maze that arrive while it is still being generated wait for that generation
+// instead of starting their own, so a burst of identical requests only generates the maze once.
+// Run with: java MazeService [port]
+class MazeService {
+  static final int DEFAULT_PORT = 8080;
+
+  // the largest maze the service generates, so that one request can't exhaust its memory
+  static final int MAX_CELLS = 1 << 24;
+
+  HttpServer server;
+  ExecutorService executor;
+  ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight; // the mazes being generated,
+  // by their width, height, seed and generator
+  AtomicLong generated; // the number of mazes generated
+  AtomicLong coalesced; // the number of requests answered by another request's generation
+
+
+
+  // creates the service on the given port of the loopback address, or on any free port if it
+  // is 0. The service doesn't answer requests until it is started
+  MazeService(int port) throws IOException {
+    this.server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.executor = Executors.newCachedThreadPool();
+    this.server.setExecutor(this.executor);
+    this.server.createContext("/maze", new MazeHandler(this));
+    this.inFlight = new ConcurrentHashMap<String, CompletableFuture<byte[]>>();
+    this.generated = new AtomicLong();
+    this.coalesced = new AtomicLong();
+  }
+
+
+  public static void main(String[] args) throws IOException {
+    int port = MazeService.DEFAULT_PORT;
+    if (args.length > 0) {
+      port = Integer.parseInt(args[0]);
+    }
+    MazeService service = new MazeService(port);
+    service.start();
+    System.out.println("Serving mazes on http://localhost:" + service.port() + "/maze");
+  }
+
+
+  // starts answering requests
+  void start() {
+    this.server.start();
+  }
+
+
+  // stops answering requests and waits up to a second for the ones in progress to finish
+  void stop() {
+    this.server.stop(1);
+    this.executor.shutdown();
+  }
+
+
+  // the port the service is listening on
+  int port() {
+    return this.server.getAddress().getPort();
+  }
+
+
+  // answers a single request with the maze it asks for, a 400 and the reason it can't, or a 500
+  // if generating the maze failed in any other way, such as by running out of memory
+  void handle(HttpExchange exchange) throws IOException {
+    int status;
+    byte[] body;
+    try {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        status = 405;
+        body = "Only GET is supported".getBytes(StandardCharsets.UTF_8);
+      }
+      else {
+        Map<String, String> query = MazeService.parseQuery(exchange.getRequestURI());
+        body = this.mazeBytes(MazeService.intParameter(query, "width"),
+            MazeService.intParameter(query, "height"),
+            Long.parseLong(MazeService.parameter(query, "seed")),
+            query.getOrDefault("generator", Maze.KRUSKAL));
+        status = 200;
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+      }
+    }
+    catch (IllegalArgumentException e) {
+      status = 400;
+      body = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+    }
+    catch (RuntimeException | Error e) {
+      status = 500;
+      body = ("Maze could not be generated: " + e).getBytes(StandardCharsets.UTF_8);
+    }
+
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+
+  // the maze file of the given maze and its solution, which is generated by this call unless
+  // another call for the same maze is already generating it, in which case its result is used
+  byte[] mazeBytes(int width, int height, long seed, String generator) {
+    if ((long) width * height > MazeService.MAX_CELLS) {
+      throw new IllegalArgumentException("Mazes can have at most " + MazeService.MAX_CELLS
+          + " cells");
+    }
+
+    String key = width + "x" + height + ":" + seed + ":" + generator;
+    CompletableFuture<byte[]> created = new CompletableFuture<byte[]>();
+    CompletableFuture<byte[]> existing = this.inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      this.coalesced.incrementAndGet();
+      try {
+        return existing.join();
+      }
+      catch (CompletionException e) {
+        throw MazeCache.failure(e);
+      }
+    }
+
+    try {
+      byte[] bytes = MazeService.generate(width, height, seed, generator);
+      this.generated.incrementAndGet();
+      created.complete(bytes);
+      return bytes;
+    }
+    catch (RuntimeException | Error e) {
+      created.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      this.inFlight.remove(key, created);
+    }
+  }
+
+
+  // generates and solves the given maze, returning it as the contents of a maze file. The maze
+  // is generated straight into a grid, since no Vertex objects are needed to send its walls
+  static byte[] generate(int width, int height, long seed, String generator) {
+    MazeGrid grid = Maze.generateGrid(width, height, seed, generator);
+    int[] solution = new MazeSolver(grid).bfs(0, width * height - 1).path;
+    return MazeFile.toBytes(grid, generator, true, seed, solution);
+  }
+
+
+  // the parameters of the query of the given uri, by name
+  static Map<String, String> parseQuery(URI uri) {
+    Map<String, String> parameters = new HashMap<String, String>();
+    String query = uri.getRawQuery();
+    if (query == null) {
+      return parameters;
+    }
+    for (String pair : query.split("&")) {
+      int equals = pair.indexOf('=');
+      if (equals > 0) {
+        parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return parameters;
+  }
+
+
+  // the parameter with the given name, which the query must have
+  static String parameter(Map<String, String> query, String name) {
+    String value = query.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing parameter " + name);
+    }
+    return value;
+  }
+
+
+  // the parameter with the given name as an int
+  static int intParameter(Map<String, String> query, String name) {
+    return Integer.parseInt(MazeService.parameter(query, name));
+  }
+}
+
+
+
+
+
+// passes every request to the maze endpoint on to its service
+class MazeHandler implements HttpHandler {
+  MazeService service;
+
+
+
+  MazeHandler(MazeService service) {
+    this.service = service;
+  }
+
+
+  // answers the request
+  public void handle(HttpExchange exchange) throws IOException {
+    this.service.handle(exchange);
+  }
+}
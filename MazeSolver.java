@@ -0,0 +1,602 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// solves mazes without the World, either to completion in a tight loop for solving many mazes or
+// mazes too large to draw, or one step at a time for animating a search. The searches follow the
+// passages of the grid, which are opened by Kruskal's algorithm in the same place that the
+// bordering vertices of a drawn maze are added, and keep their parents and visited cells in a
+// SearchState that belongs to the solver alone, so the grid is never changed by a search and any
+// number of solvers can search it at once. A cell is marked as visited when it is added to a
+// worklist, so it is added at most once
+class MazeSolver {
+  // the searches that can be performed
+  static final String BFS = "bfs";
+  static final String DFS = "dfs";
+  static final String ASTAR = "astar";
+  static final String BIDIRECTIONAL = "bidirectional";
+  static final String DIJKSTRA = "dijkstra";
+
+  // the number of children of every entry of the heap of dijkstra's algorithm. A wider heap is
+  // shallower, so lowering the cost of a cell moves it up fewer levels, at the cost of comparing
+  // more children every time the cheapest cell is removed
+  static final int HEAP_ARITY = 4;
+
+  // the most cells of a level of a parallel bfs that are expanded by a single task, below which
+  // a level isn't worth splitting between threads
+  static final int FRONTIER_CELLS = 1024;
+
+  MazeGrid grid;
+  SearchState state; // the parents and visited cells of the search, which only this solver uses
+  String algorithm; // the search currently being performed
+  int start;
+  int goal;
+  int[] worklist; // a queue for a bfs, a stack for a dfs and the queue from the start for a
+  // bidirectional bfs, reused between solves
+  int head; // the front of the worklist, always 0 for a stack
+  int tail; // one past the back of the worklist
+  int[] goalWorklist; // the queue from the goal for a bidirectional bfs
+  int goalHead;
+  int goalTail;
+  long[] fromGoal; // the cells that the bidirectional bfs has reached from the goal
+  long[] heap; // the binary heap of A*, each entry the estimated length of the path through a
+  // cell in the upper 32 bits and the cell in the lower 32 bits
+  int heapSize;
+  int[] distances; // the length of the path from the start to every cell A* has reached
+  MazeWeights weights; // the cost of every move for dijkstra's algorithm, or null if every move
+  // costs 1
+  IndexedHeap frontier; // the cells dijkstra's algorithm has reached but not yet expanded, by
+  // the cost of the cheapest path to them found so far
+  int[] neighbors; // the open neighbors of the cell currently being expanded
+  int nodesExpanded;
+  int peakFrontier;
+  boolean done; // whether the search has finished, either by finding the goal or running out
+  int meetingFrom; // the cells where the two searches of a bidirectional bfs met, or the goal
+  int meetingTo; // twice for any other search
+  int[] nextFrontier; // the next level of a parallel bfs, while the worklist holds the current one
+  AtomicInteger nextFrontierSize; // the number of cells of the next level found so far
+
+
+
+  MazeSolver(MazeGrid grid) {
+    this(grid, null);
+  }
+
+
+  // creates a solver whose dijkstra's algorithm finds the cheapest path by the given costs, or
+  // the shortest one if they are null
+  MazeSolver(MazeGrid grid, MazeWeights weights) {
+    this.grid = grid;
+    this.state = grid.newSearchState();
+    this.weights = weights;
+    this.worklist = new int[grid.width * grid.height];
+    this.neighbors = new int[4];
+  }
+
+
+  // performs a breadth-first-search from the start to the goal
+  SolveResult bfs(int start, int goal) {
+    return this.solve(start, goal, MazeSolver.BFS);
+  }
+
+
+  // performs a depth-first-search from the start to the goal
+  SolveResult dfs(int start, int goal) {
+    return this.solve(start, goal, MazeSolver.DFS);
+  }
+
+
+  // performs an A* search from the start to the goal, guided by the manhattan distance
+  SolveResult astar(int start, int goal) {
+    return this.solve(start, goal, MazeSolver.ASTAR);
+  }
+
+
+  // performs a breadth-first-search from the start and the goal at the same time, which stops
+  // as soon as the two searches meet in the middle
+  SolveResult bidirectionalBfs(int start, int goal) {
+    return this.solve(start, goal, MazeSolver.BIDIRECTIONAL);
+  }
+
+
+  // performs dijkstra's algorithm from the start to the goal, which finds the cheapest path by
+  // the weights of the solver
+  SolveResult dijkstra(int start, int goal) {
+    return this.solve(start, goal, MazeSolver.DIJKSTRA);
+  }
+
+
+  // performs a breadth-first-search from the start to the goal one level at a time, where the
+  // cells of every large enough level are expanded in parallel on the given pool. Each cell of
+  // the next level is claimed by setting its visited bit atomically, so the thread that claims it
+  // is the only one to write its parent and add it to the next level, and no locks are needed.
+  // The search stops at the end of the level that reaches the goal, so it finds a path of the
+  // same length as a bfs
+  SolveResult parallelBfs(int start, int goal, ForkJoinPool pool) {
+    long startTime = System.nanoTime();
+    int cells = this.grid.width * this.grid.height;
+    new Utils().checkRange(start, 0, cells - 1, "Start must be a cell of the maze");
+    new Utils().checkRange(goal, 0, cells - 1, "Goal must be a cell of the maze");
+    if (this.nextFrontier == null) {
+      this.nextFrontier = new int[cells];
+      this.nextFrontierSize = new AtomicInteger();
+    }
+
+    this.algorithm = MazeSolver.BFS;
+    this.start = start;
+    this.goal = goal;
+    this.nodesExpanded = 0;
+    this.peakFrontier = 1;
+    this.state.clearSearch();
+    this.state.markVisited(start);
+    this.state.setParent(start, start);
+    this.worklist[0] = start;
+    this.head = 0;
+    this.tail = 1;
+    while (this.tail > 0 && !this.state.isVisited(goal)) {
+      this.nextFrontierSize.set(0);
+      if (this.tail <= MazeSolver.FRONTIER_CELLS) {
+        this.expandLevel();
+      }
+      else {
+        pool.invoke(new FrontierTask(this, 0, this.tail));
+      }
+      this.nodesExpanded += this.tail;
+
+      int[] expanded = this.worklist;
+      this.worklist = this.nextFrontier;
+      this.nextFrontier = expanded;
+      this.tail = this.nextFrontierSize.get();
+      this.peakFrontier = Math.max(this.peakFrontier, this.tail);
+    }
+
+    int[] path;
+    if (this.state.isVisited(goal)) {
+      this.finish(goal, goal);
+      path = this.path();
+    }
+    else {
+      this.done = true;
+      path = new int[0];
+    }
+    return new SolveResult(path, this.nodesExpanded, this.peakFrontier, 
+        System.nanoTime() - startTime);
+  }
+
+
+  // expands every cell of the current level of a parallel bfs on this thread, which needs
+  // neither atomic updates nor a buffer for the cells it claims
+  void expandLevel() {
+    int count = 0;
+    for (int i = 0; i < this.tail; i++) {
+      int cell = this.worklist[i];
+      int open = this.grid.openNeighbors(cell, this.neighbors);
+      for (int j = 0; j < open; j++) {
+        int v = this.neighbors[j];
+        if (!this.state.isVisited(v)) {
+          this.state.markVisited(v);
+          this.state.setParent(v, cell);
+          this.nextFrontier[count] = v;
+          count++;
+        }
+      }
+    }
+    this.nextFrontierSize.set(count);
+  }
+
+
+  // expands the cells of the current level of a parallel bfs from the given position of the
+  // worklist up to but not including the other, adding the cells they claim to the next level.
+  // The claimed cells are collected first so that space for all of them is reserved at once
+  void expandFrontier(int from, int to) {
+    int[] neighbors = new int[4];
+    int[] claimed = new int[3 * (to - from) + 1];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      int cell = this.worklist[i];
+      int open = this.grid.openNeighbors(cell, neighbors);
+      for (int j = 0; j < open; j++) {
+        if (this.state.claimVisited(neighbors[j])) {
+          this.state.setParent(neighbors[j], cell);
+          claimed[count] = neighbors[j];
+          count++;
+        }
+      }
+    }
+    int position = this.nextFrontierSize.getAndAdd(count);
+    System.arraycopy(claimed, 0, this.nextFrontier, position, count);
+  }
+
+
+  // performs the given search from the start until it reaches the goal
+  SolveResult solve(int start, int goal, String algorithm) {
+    long startTime = System.nanoTime();
+    this.begin(start, goal, algorithm);
+    while (!this.done) {
+      this.step();
+    }
+
+    int[] path;
+    if (this.meetingFrom >= 0) {
+      path = this.path();
+    }
+    else {
+      path = new int[0];
+    }
+    return new SolveResult(path, this.nodesExpanded, this.peakFrontier, 
+        System.nanoTime() - startTime);
+  }
+
+
+  // sets up the given search from the start to the goal, which is then performed by step
+  void begin(int start, int goal, String algorithm) {
+    int cells = this.grid.width * this.grid.height;
+    new Utils().checkRange(start, 0, cells - 1, "Start must be a cell of the maze");
+    new Utils().checkRange(goal, 0, cells - 1, "Goal must be a cell of the maze");
+    if (!algorithm.equals(MazeSolver.BFS) && !algorithm.equals(MazeSolver.DFS) 
+        && !algorithm.equals(MazeSolver.ASTAR) && !algorithm.equals(MazeSolver.BIDIRECTIONAL)
+        && !algorithm.equals(MazeSolver.DIJKSTRA)) {
+      throw new IllegalArgumentException("Unknown search " + algorithm);
+    }
+
+    this.algorithm = algorithm;
+    this.start = start;
+    this.goal = goal;
+    this.nodesExpanded = 0;
+    this.peakFrontier = 1;
+    this.done = false;
+    this.meetingFrom = -1;
+    this.meetingTo = -1;
+    this.state.clearSearch();
+    this.state.markVisited(start);
+    this.state.setParent(start, start);
+    this.worklist[0] = start;
+    this.head = 0;
+    this.tail = 1;
+
+    // the heap and the goal's queue are counted in the frontier of every search, so they are
+    // emptied even for the searches that don't use them
+    this.heapSize = 0;
+    this.goalHead = 0;
+    this.goalTail = 0;
+
+    if (algorithm.equals(MazeSolver.ASTAR)) {
+      if (this.heap == null) {
+        this.heap = new long[cells];
+        this.distances = new int[cells];
+      }
+      this.distances[start] = 0;
+      this.heap[0] = (long) this.estimate(start) << 32 | start;
+      this.heapSize = 1;
+      this.tail = 0;
+    }
+
+    if (algorithm.equals(MazeSolver.DIJKSTRA)) {
+      if (this.frontier == null) {
+        this.frontier = new IndexedHeap(cells, MazeSolver.HEAP_ARITY);
+      }
+      this.frontier.clear();
+      this.frontier.insert(start, 0);
+      this.tail = 0;
+    }
+
+    if (algorithm.equals(MazeSolver.BIDIRECTIONAL)) {
+      if (this.goalWorklist == null) {
+        this.goalWorklist = new int[cells];
+        this.fromGoal = new long[(cells + 63) / 64];
+      }
+      Arrays.fill(this.fromGoal, 0L);
+      this.fromGoal[goal >>> 6] |= 1L << goal;
+      if (goal != start) {
+        this.state.markVisited(goal);
+        this.state.setParent(goal, goal);
+        this.goalWorklist[0] = goal;
+        this.goalTail = 1;
+        this.peakFrontier = 2;
+      }
+    }
+  }
+
+
+  // expands one cell of the search and returns it, or returns -1 if the search is already done
+  int step() {
+    if (this.done) {
+      return -1;
+    }
+
+    int next;
+    if (this.algorithm.equals(MazeSolver.ASTAR)) {
+      next = this.stepAstar();
+    }
+    else if (this.algorithm.equals(MazeSolver.BIDIRECTIONAL)) {
+      next = this.stepBidirectional();
+    }
+    else if (this.algorithm.equals(MazeSolver.DIJKSTRA)) {
+      next = this.stepDijkstra();
+    }
+    else {
+      next = this.stepWorklist();
+    }
+
+    if (next >= 0) {
+      this.nodesExpanded++;
+      int frontier = this.tail - this.head + this.goalTail - this.goalHead + this.heapSize;
+      if (this.algorithm.equals(MazeSolver.DIJKSTRA)) {
+        frontier += this.frontier.size;
+      }
+      this.peakFrontier = Math.max(this.peakFrontier, frontier);
+    }
+    else {
+      this.done = true;
+    }
+    return next;
+  }
+
+
+  // expands the next cell of a bfs or dfs, taking it from the front of the worklist for a bfs
+  // and from the back of it for a dfs
+  int stepWorklist() {
+    if (this.head == this.tail) {
+      return -1;
+    }
+
+    int next;
+    if (this.algorithm.equals(MazeSolver.BFS)) {
+      next = this.worklist[this.head];
+      this.head++;
+    }
+    else {
+      this.tail--;
+      next = this.worklist[this.tail];
+    }
+
+    if (next == this.goal) {
+      this.finish(next, next);
+      return next;
+    }
+
+    // adding this cell's unvisited neighbors to the worklist
+    int count = this.grid.openNeighbors(next, this.neighbors);
+    for (int i = 0; i < count; i++) {
+      int v = this.neighbors[i];
+      if (!this.state.isVisited(v)) {
+        this.state.markVisited(v);
+        this.state.setParent(v, next);
+        this.worklist[this.tail] = v;
+        this.tail++;
+      }
+    }
+    return next;
+  }
+
+
+  // expands the cell with the shortest estimated path through it. Every cell of a perfect maze
+  // has only one path to it, so the first time a cell is reached is also the shortest
+  int stepAstar() {
+    if (this.heapSize == 0) {
+      return -1;
+    }
+
+    int next = (int) this.heap[0];
+    this.heapSize--;
+    this.heap[0] = this.heap[this.heapSize];
+    this.siftDown(0);
+
+    if (next == this.goal) {
+      this.finish(next, next);
+      return next;
+    }
+
+    // adding this cell's unvisited neighbors to the heap
+    int count = this.grid.openNeighbors(next, this.neighbors);
+    for (int i = 0; i < count; i++) {
+      int v = this.neighbors[i];
+      if (!this.state.isVisited(v)) {
+        this.state.markVisited(v);
+        this.state.setParent(v, next);
+        this.distances[v] = this.distances[next] + 1;
+        this.heap[this.heapSize] = (long) (this.distances[v] + this.estimate(v)) << 32 | v;
+        this.heapSize++;
+        this.siftUp(this.heapSize - 1);
+      }
+    }
+    return next;
+  }
+
+
+  // expands the cell with the cheapest path from the start of the cells that have been reached
+  // but not expanded, and lowers the cost of every neighbor that is cheaper to reach through it.
+  // No move costs less than nothing, so a cell's path is the cheapest one once it is expanded
+  int stepDijkstra() {
+    if (this.frontier.size == 0) {
+      return -1;
+    }
+
+    int next = this.frontier.poll();
+    if (next == this.goal) {
+      this.finish(next, next);
+      return next;
+    }
+
+    // adding this cell's unvisited neighbors to the heap, and moving the ones still in it up if
+    // the path through this cell is cheaper
+    long cost = this.frontier.key(next);
+    int count = this.grid.openNeighbors(next, this.neighbors);
+    for (int i = 0; i < count; i++) {
+      int v = this.neighbors[i];
+      long through = cost + this.moveCost(next, v);
+      if (!this.state.isVisited(v)) {
+        this.state.markVisited(v);
+        this.state.setParent(v, next);
+        this.frontier.insert(v, through);
+      }
+      else if (this.frontier.contains(v) && through < this.frontier.key(v)) {
+        this.state.setParent(v, next);
+        this.frontier.decreaseKey(v, through);
+      }
+    }
+    return next;
+  }
+
+
+  // the cost of moving from a cell to an adjacent one for dijkstra's algorithm
+  long moveCost(int from, int to) {
+    if (this.weights == null) {
+      return 1;
+    }
+    return this.weights.cost(from, to);
+  }
+
+
+  // the cost of the cheapest path from the start to the given cell that dijkstra's algorithm
+  // has found, only meaningful for the cells it has reached
+  long cost(int cell) {
+    return this.frontier.key(cell);
+  }
+
+
+  // expands the next cell from whichever side of a bidirectional bfs has the smaller frontier,
+  // finishing as soon as it reaches a cell the other side has reached
+  int stepBidirectional() {
+    if (this.start == this.goal) {
+      this.finish(this.start, this.start);
+      return this.start;
+    }
+
+    boolean forward = this.goalHead == this.goalTail 
+        || (this.head < this.tail && this.tail - this.head <= this.goalTail - this.goalHead);
+    int[] queue;
+    int next;
+    if (forward && this.head < this.tail) {
+      queue = this.worklist;
+      next = this.worklist[this.head];
+      this.head++;
+    }
+    else if (!forward) {
+      queue = this.goalWorklist;
+      next = this.goalWorklist[this.goalHead];
+      this.goalHead++;
+    }
+    else {
+      return -1;
+    }
+
+    boolean nextFromGoal = !forward;
+    int count = this.grid.openNeighbors(next, this.neighbors);
+    for (int i = 0; i < count; i++) {
+      int v = this.neighbors[i];
+      if (!this.state.isVisited(v)) {
+        this.state.markVisited(v);
+        this.state.setParent(v, next);
+        if (nextFromGoal) {
+          this.fromGoal[v >>> 6] |= 1L << v;
+          queue[this.goalTail] = v;
+          this.goalTail++;
+        }
+        else {
+          queue[this.tail] = v;
+          this.tail++;
+        }
+      }
+      else if (((this.fromGoal[v >>> 6] & (1L << v)) != 0) != nextFromGoal) {
+        
+        // the two searches have met between next and v
+        if (nextFromGoal) {
+          this.finish(v, next);
+        }
+        else {
+          this.finish(next, v);
+        }
+        return next;
+      }
+    }
+    return next;
+  }
+
+
+  // ends the search, where the path leads from the start to meetingFrom and then from
+  // meetingTo on to the goal
+  void finish(int meetingFrom, int meetingTo) {
+    this.meetingFrom = meetingFrom;
+    this.meetingTo = meetingTo;
+    this.done = true;
+  }
+
+
+  // the cells from the start to the goal on the path the search found
+  int[] path() {
+    int[] toMeeting = this.retrace(this.start, this.meetingFrom);
+    if (this.meetingFrom == this.meetingTo) {
+      return toMeeting;
+    }
+
+    // the parents on the goal's side of a bidirectional bfs lead back to the goal
+    int[] fromMeeting = this.retrace(this.goal, this.meetingTo);
+    int[] path = new int[toMeeting.length + fromMeeting.length];
+    System.arraycopy(toMeeting, 0, path, 0, toMeeting.length);
+    for (int i = 0; i < fromMeeting.length; i++) {
+      path[toMeeting.length + i] = fromMeeting[fromMeeting.length - 1 - i];
+    }
+    return path;
+  }
+
+
+  // follows the parents from the goal back to the start and returns the cells in between in order
+  int[] retrace(int start, int goal) {
+    int length = 1;
+    for (int cell = goal; cell != start; cell = this.state.parent(cell)) {
+      length++;
+    }
+
+    int[] path = new int[length];
+    int cell = goal;
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = cell;
+      cell = this.state.parent(cell);
+    }
+    return path;
+  }
+
+
+  // the manhattan distance from the given cell to the goal, which never overestimates the
+  // length of the path since every step moves to an adjacent cell
+  int estimate(int cell) {
+    int height = this.grid.height;
+    return Math.abs(cell / height - this.goal / height) 
+        + Math.abs(cell % height - this.goal % height);
+  }
+
+
+  // moves the entry at the given position of the heap up until its parent is smaller
+  void siftUp(int position) {
+    long entry = this.heap[position];
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (this.heap[parent] <= entry) {
+        break;
+      }
+      this.heap[position] = this.heap[parent];
+      position = parent;
+    }
+    this.heap[position] = entry;
+  }
+
+
+  // moves the entry at the given position of the heap down until its children are larger
+  void siftDown(int position) {
+    long entry = this.heap[position];
+    while (2 * position + 1 < this.heapSize) {
+      int child = 2 * position + 1;
+      if (child + 1 < this.heapSize && this.heap[child + 1] < this.heap[child]) {
+        child++;
+      }
+      if (entry <= this.heap[child]) {
+        break;
+      }
+      this.heap[position] = this.heap[child];
+      position = child;
+    }
+    this.heap[position] = entry;
+  }
+}
@@ -0,0 +1,87 @@
+import java.util.*;
+
+
+// the costs of moving through a maze whose cells aren't all as easy to cross, such as terrain.
+// Moving into a cell costs the cost of the cell plus the cost of the passage crossed to get
+// there. Every cell costs 1 and every passage nothing until they are set. The passages are
+// stored like the walls of a MazeGrid, with the right and then the bottom passage of each cell,
+// and only once the first one is set
+class MazeWeights {
+  MazeGrid grid;
+  int[] cellCosts; // the cost of moving into every cell
+  int[] passageCosts; // the cost of crossing the right passage of every cell at 2 * cell and
+  // its bottom passage at the position after it, or null while every passage costs nothing
+
+
+
+  MazeWeights(MazeGrid grid) {
+    this.grid = grid;
+    this.cellCosts = new int[grid.width * grid.height];
+    Arrays.fill(this.cellCosts, 1);
+  }
+
+
+  // terrain where moving into every cell costs a random amount from 1 up to and including the
+  // given most
+  static MazeWeights terrain(MazeGrid grid, Random rand, int maxCost) {
+    new Utils().checkRange(maxCost, 1, Integer.MAX_VALUE, "Costs must be positive");
+    MazeWeights weights = new MazeWeights(grid);
+    for (int cell = 0; cell < weights.cellCosts.length; cell++) {
+      weights.cellCosts[cell] = 1 + rand.nextInt(maxCost);
+    }
+    return weights;
+  }
+
+
+  // sets the cost of moving into the given cell
+  void setCellCost(int cell, int cost) {
+    this.cellCosts[cell] = new Utils().checkRange(cost, 0, Integer.MAX_VALUE, 
+        "Costs must not be negative");
+  }
+
+
+  // sets the cost of crossing the passage between two adjacent cells in either direction
+  void setPassageCost(int from, int to, int cost) {
+    new Utils().checkRange(cost, 0, Integer.MAX_VALUE, "Costs must not be negative");
+    if (this.passageCosts == null) {
+      this.passageCosts = new int[2 * this.cellCosts.length];
+    }
+    this.passageCosts[this.passage(from, to)] = cost;
+  }
+
+
+  // the cost of moving from a cell into an adjacent one
+  long cost(int from, int to) {
+    if (this.passageCosts == null) {
+      return this.cellCosts[to];
+    }
+    return (long) this.cellCosts[to] + this.passageCosts[this.passage(from, to)];
+  }
+
+
+  // the cost of following the given path of adjacent cells from its first cell to its last
+  long pathCost(int[] path) {
+    long cost = 0;
+    for (int i = 1; i < path.length; i++) {
+      cost += this.cost(path[i - 1], path[i]);
+    }
+    return cost;
+  }
+
+
+  // the position in passageCosts of the passage between two adjacent cells, which belongs to
+  // the one above or to the left of the other
+  int passage(int from, int to) {
+    int first = Math.min(from, to);
+    int second = Math.max(from, to);
+    if (second == first + this.grid.height) {
+      return 2 * first;
+    }
+    else if (second == first + 1 && second % this.grid.height != 0) {
+      return 2 * first + 1;
+    }
+    else {
+      throw new IllegalArgumentException("Cells " + from + " and " + to + " are not adjacent");
+    }
+  }
+}
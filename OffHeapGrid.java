@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+
+
+// a grid whose walls are kept in an OffHeapMemory, in direct buffers or mapped from a file, so
+// that a maze far larger than the heap can be generated, searched and exported. The walls are
+// laid out exactly like the walls of a MazeGrid and of a MazeFile, and its searches keep their
+// state outside the heap as well. Its cells are indexed by longs, so it can be larger than
+// MazeGrid.MAX_SIDE on either side and be generated a row at a time by an EllerGenerator. The
+// methods that take an int cell, and so every search and export of the grid, only work on grids
+// of at most Integer.MAX_VALUE cells
+class OffHeapGrid extends MazeGrid {
+  // the largest width or height of an off-heap grid, which at 2 bits a cell takes 256 GB of
+  // walls, so that even its smallest chunks can be counted by an int
+  static final int MAX_SIDE = 1 << 20;
+
+  OffHeapMemory memory; // the walls of the grid
+
+
+
+  // creates a grid of the given size in direct buffers, with every wall in place
+  OffHeapGrid(int width, int height) {
+    this(width, height, OffHeapMemory.CHUNK_SHIFT);
+    this.allocateDirect();
+  }
+
+
+  // creates a grid of the given size in the file at the given path, which is replaced if it
+  // exists, with every wall in place
+  OffHeapGrid(int width, int height, Path path) throws IOException {
+    this(width, height, OffHeapMemory.CHUNK_SHIFT);
+    this.map(path);
+  }
+
+
+  // lays out a grid of the given size in chunks of 2 ^ chunkShift bytes, which must then be
+  // either allocated or mapped before the grid is used
+  OffHeapGrid(int width, int height, int chunkShift) {
+    super(new Utils().checkRange(width, 2, OffHeapGrid.MAX_SIDE,
+        "Width must be between 2 and " + OffHeapGrid.MAX_SIDE),
+        new Utils().checkRange(height, 2, OffHeapGrid.MAX_SIDE,
+            "Height must be between 2 and " + OffHeapGrid.MAX_SIDE), null);
+    this.memory = new OffHeapMemory((this.cells() + 31) / 32 * 8, chunkShift);
+  }
+
+
+  // allocates the walls in direct buffers and puts every wall in place
+  void allocateDirect() {
+    this.memory.allocateDirect();
+    this.resetWalls();
+  }
+
+
+  // maps the walls from the file at the given path, which is replaced if it exists, and puts
+  // every wall in place
+  void map(Path path) throws IOException {
+    this.memory.map(path);
+    this.resetWalls();
+  }
+
+
+  // the number of cells of the grid, which may be more than an int can count
+  long cells() {
+    return (long) this.width * this.height;
+  }
+
+
+  // computes the row-major index of the cell at the given x and y, as a long
+  long cellAt(int x, int y) {
+    return (long) x * this.height + y;
+  }
+
+
+  // determines whether the given cell has a wall on its right
+  boolean hasRightWall(int cell) {
+    return this.hasRightWall((long) cell);
+  }
+
+
+  // determines whether the given cell has a wall on its right
+  boolean hasRightWall(long cell) {
+    return (this.memory.getLong((cell >>> 5) * 8) >>> ((cell & 31) << 1) & 1L) != 0;
+  }
+
+
+  // determines whether the given cell has a wall below it
+  boolean hasBottomWall(int cell) {
+    return this.hasBottomWall((long) cell);
+  }
+
+
+  // determines whether the given cell has a wall below it
+  boolean hasBottomWall(long cell) {
+    return (this.memory.getLong((cell >>> 5) * 8) >>> (((cell & 31) << 1) + 1) & 1L) != 0;
+  }
+
+
+  // removes the wall between two adjacent cells, where from is above or to the left of to
+  void removeWall(int from, int to) {
+    this.removeWall((long) from, (long) to);
+  }
+
+
+  // removes the wall between two adjacent cells, where from is above or to the left of to
+  void removeWall(long from, long to) {
+    long bit = ((from & 31) << 1) + (to == from + 1 ? 1 : 0);
+    long offset = (from >>> 5) * 8;
+    this.memory.putLong(offset, this.memory.getLong(offset) & ~(1L << bit));
+  }
+
+
+  // removes the wall between two adjacent cells like removeWall, but atomically so that other
+  // threads can remove walls from the same grid at the same time
+  void removeWallConcurrently(int from, int to) {
+    long bit = ((from & 31) << 1) + (to == from + 1 ? 1 : 0);
+    this.memory.andLong((from >>> 5) * 8L, ~(1L << bit));
+  }
+
+
+  // takes the walls of row y from a generator, so that an EllerGenerator writes a maze of any
+  // size into the grid while only one row of it is ever on the heap
+  public void acceptRow(int y, boolean[] rightWalls, boolean[] bottomWalls) {
+    for (int x = 0; x < this.width; x++) {
+      long cell = this.cellAt(x, y);
+      if (!rightWalls[x]) {
+        this.removeWall(cell, cell + this.height);
+      }
+      if (!bottomWalls[x]) {
+        this.removeWall(cell, cell + 1);
+      }
+    }
+  }
+
+
+  // puts every wall of the grid back in place
+  void resetWalls() {
+    for (long offset = 0; offset < this.memory.bytes; offset += 8) {
+      this.memory.putLong(offset, -1L);
+    }
+  }
+
+
+  // copies the walls of the grid into the given buffer, from its position onwards
+  void copyWallsTo(LongBuffer out) {
+    for (long offset = 0; offset < this.memory.bytes; offset += 8) {
+      out.put(this.memory.getLong(offset));
+    }
+  }
+
+
+  // replaces the walls of the grid with the ones in the given buffer, from its position onwards
+  void copyWallsFrom(LongBuffer in) {
+    for (long offset = 0; offset < this.memory.bytes; offset += 8) {
+      this.memory.putLong(offset, in.get());
+    }
+  }
+
+
+  // a new state for a search of the grid, kept in direct buffers in chunks of the same size as
+  // the walls
+  SearchState newSearchState() {
+    return new OffHeapSearchState(this.cells(), this.memory.chunkShift);
+  }
+
+
+  // writes any changes to a grid mapped from a file out to the file
+  void force() {
+    this.memory.force();
+  }
+}
@@ -0,0 +1,139 @@
+import java.lang.invoke.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+// a block of memory outside the heap, either in direct buffers or mapped from a file, so that
+// the cells of a maze far larger than the heap are never copied by the garbage collector. A
+// buffer can't be larger than 2 GB, so the block is split into chunks of 2 ^ chunkShift bytes,
+// which every value fits inside since the block only holds longs and ints that are aligned to
+// their size. The memory is freed once the block is no longer referenced, or for a mapped file
+// stays in the file
+class OffHeapMemory {
+  static final int CHUNK_SHIFT = 30;
+
+  // gives atomic access to the longs of a chunk, since several threads may change bits that are
+  // packed into the same long
+  static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  ByteBuffer[] chunks; // the block of memory, in chunks of 2 ^ chunkShift bytes
+  int chunkShift;
+  long bytes; // the size of the block
+
+
+
+  // lays out a block of the given size in chunks of 2 ^ chunkShift bytes, which must then be
+  // either allocated or mapped before the block is used
+  OffHeapMemory(long bytes, int chunkShift) {
+    this.chunkShift = new Utils().checkRange(chunkShift, 3, OffHeapMemory.CHUNK_SHIFT,
+        "Chunks must be between 8 bytes and 1 GB");
+    if ((bytes - 1 >>> chunkShift) >= Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Chunks must be larger to hold " + bytes + " bytes");
+    }
+    this.bytes = bytes;
+    this.chunks = new ByteBuffer[(int) ((bytes - 1 >>> chunkShift) + 1)];
+  }
+
+
+  // allocates every chunk as a direct buffer, which starts out cleared
+  void allocateDirect() {
+    for (int i = 0; i < this.chunks.length; i++) {
+      this.chunks[i] = ByteBuffer.allocateDirect(this.chunkSize(i)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+
+  // maps every chunk from the file at the given path, which is replaced if it exists and so
+  // starts out cleared. The mapped chunks stay valid once the file is closed
+  void map(Path path) throws IOException {
+    try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      for (int i = 0; i < this.chunks.length; i++) {
+        this.chunks[i] = file.map(FileChannel.MapMode.READ_WRITE,
+            (long) i << this.chunkShift, this.chunkSize(i)).order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+  }
+
+
+  // the size of the given chunk, where only the last chunk may be cut short
+  int chunkSize(int chunk) {
+    return (int) Math.min(1L << this.chunkShift, this.bytes - ((long) chunk << this.chunkShift));
+  }
+
+
+  // the chunk that holds the given position of the block
+  ByteBuffer chunk(long offset) {
+    return this.chunks[(int) (offset >>> this.chunkShift)];
+  }
+
+
+  // the position of the given position of the block within its chunk
+  int position(long offset) {
+    return (int) (offset & ((1L << this.chunkShift) - 1));
+  }
+
+
+  // the long at the given position of the block
+  long getLong(long offset) {
+    return this.chunk(offset).getLong(this.position(offset));
+  }
+
+
+  // sets the long at the given position of the block
+  void putLong(long offset, long value) {
+    this.chunk(offset).putLong(this.position(offset), value);
+  }
+
+
+  // the int at the given position of the block
+  int getInt(long offset) {
+    return this.chunk(offset).getInt(this.position(offset));
+  }
+
+
+  // sets the int at the given position of the block
+  void putInt(long offset, int value) {
+    this.chunk(offset).putInt(this.position(offset), value);
+  }
+
+
+  // clears the bits of the long at the given position of the block that aren't in the mask,
+  // atomically so that other threads can change the same long at the same time
+  void andLong(long offset, long mask) {
+    LONGS.getAndBitwiseAnd(this.chunk(offset), this.position(offset), mask);
+  }
+
+
+  // sets the given bits of the long at the given position of the block atomically, and returns
+  // whether this call set them rather than another one
+  boolean claimBits(long offset, long bits) {
+    ByteBuffer chunk = this.chunk(offset);
+    int position = this.position(offset);
+    long current = chunk.getLong(position);
+    while ((current & bits) == 0) {
+      if (LONGS.compareAndSet(chunk, position, current, current | bits)) {
+        return true;
+      }
+      current = (long) LONGS.getVolatile(chunk, position);
+    }
+    return false;
+  }
+
+
+  // writes any changes to a block mapped from a file out to the file
+  void force() {
+    for (ByteBuffer chunk : this.chunks) {
+      if (chunk instanceof MappedByteBuffer) {
+        ((MappedByteBuffer) chunk).force();
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+// the state of a search kept in an OffHeapMemory of direct buffers, so that searching a grid
+// far larger than the heap doesn't take 4 bytes of heap for every cell. The visited cells come
+// first, laid out like the bitset of a SearchState, followed by the parents. The parents are
+// ints, so a search is limited to grids of at most Integer.MAX_VALUE cells
+class OffHeapSearchState extends SearchState {
+  OffHeapMemory memory; // the visited cells and parents of the search
+  long parentsOffset; // the position of the parents in the block, after the visited cells
+
+
+
+  // creates the state of a search of a maze with the given number of cells, in chunks of
+  // 2 ^ chunkShift bytes
+  OffHeapSearchState(long cells, int chunkShift) {
+    super(null, null);
+    if (cells > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Searches must have at most " + Integer.MAX_VALUE 
+          + " cells");
+    }
+    this.parentsOffset = (cells + 63L) / 64 * 8;
+    this.memory = new OffHeapMemory(this.parentsOffset + 4L * cells, chunkShift);
+    this.memory.allocateDirect();
+  }
+
+
+  // determines whether the given cell has been visited by the search
+  boolean isVisited(int cell) {
+    return (this.memory.getLong((cell >>> 6) * 8L) & (1L << cell)) != 0;
+  }
+
+
+  // marks the given cell as visited by the search
+  void markVisited(int cell) {
+    long offset = (cell >>> 6) * 8L;
+    this.memory.putLong(offset, this.memory.getLong(offset) | 1L << cell);
+  }
+
+
+  // marks the given cell as visited atomically, and returns whether this call marked it rather
+  // than another one
+  boolean claimVisited(int cell) {
+    return this.memory.claimBits((cell >>> 6) * 8L, 1L << cell);
+  }
+
+
+  // the first cell from the given one onwards that the search has visited, or -1 if there is none
+  int nextVisited(int from) {
+    long offset = (from >>> 6) * 8L;
+    if (offset >= this.parentsOffset) {
+      return -1;
+    }
+    long bits = this.memory.getLong(offset) & (-1L << from);
+    while (bits == 0) {
+      offset += 8;
+      if (offset == this.parentsOffset) {
+        return -1;
+      }
+      bits = this.memory.getLong(offset);
+    }
+    return (int) (offset * 8) + Long.numberOfTrailingZeros(bits);
+  }
+
+
+  // forgets the visited cells of the search
+  void clearSearch() {
+    for (long offset = 0; offset < this.parentsOffset; offset += 8) {
+      this.memory.putLong(offset, 0L);
+    }
+  }
+
+
+  // the previous cell of the given cell on the search
+  int parent(int cell) {
+    return this.memory.getInt(this.parentsOffset + 4L * cell);
+  }
+
+
+  // sets the previous cell of the given cell on the search
+  void setParent(int cell, int parent) {
+    this.memory.putInt(this.parentsOffset + 4L * cell, parent);
+  }
+}
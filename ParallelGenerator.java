@@ -0,0 +1,149 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+
+// generates a maze in parallel by splitting its grid into square tiles, building a spanning tree
+// inside every tile at the same time on a fork-join pool, and then stitching the tiles together
+// by opening exactly one wall between the two tiles of every edge of a spanning tree of the
+// tiles themselves. A tree of trees joined by a tree is still a tree, so the maze is perfect.
+// Every tile gets its own random stream split off from the seed in the order of the tiles, so
+// the maze only depends on the seed and never on how many threads build it
+class ParallelGenerator {
+  // the width and height of every tile, except for the ones cut short by the edge of the grid
+  static final int TILE_SIZE = 256;
+
+  MazeGrid grid;
+  int tileSize;
+  int tilesAcross; // the number of tiles along the width of the grid
+  int tilesDown; // the number of tiles along the height of the grid
+  SplittableRandom stitchRandom; // the random stream that stitches the tiles together
+  SplittableRandom[] tileRandoms; // the random stream of every tile
+
+
+
+  ParallelGenerator(MazeGrid grid, long seed, int tileSize) {
+    this.grid = grid;
+    this.tileSize = new Utils().checkRange(tileSize, 1, Integer.MAX_VALUE, 
+        "Tile size must be positive");
+    this.tilesAcross = (grid.width + tileSize - 1) / tileSize;
+    this.tilesDown = (grid.height + tileSize - 1) / tileSize;
+
+    SplittableRandom seedRandom = new SplittableRandom(seed);
+    this.stitchRandom = seedRandom.split();
+    this.tileRandoms = new SplittableRandom[this.tilesAcross * this.tilesDown];
+    for (int tile = 0; tile < this.tileRandoms.length; tile++) {
+      this.tileRandoms[tile] = seedRandom.split();
+    }
+  }
+
+
+  // generates the maze, building the tiles on the given pool and stitching them on this thread
+  void generate(ForkJoinPool pool) {
+    pool.invoke(new TileTask(this, 0, this.tileRandoms.length));
+    this.stitchTiles();
+  }
+
+
+  // builds a spanning tree over the cells of the given tile with Kruskal's algorithm, numbering
+  // the edges inside the tile the same way the grid numbers the edges of the whole maze
+  void generateTile(int tile) {
+    int left = (tile / this.tilesDown) * this.tileSize;
+    int top = (tile % this.tilesDown) * this.tileSize;
+    int tileWidth = Math.min(this.tileSize, this.grid.width - left);
+    int tileHeight = Math.min(this.tileSize, this.grid.height - top);
+    int verticalEdges = tileWidth * (tileHeight - 1);
+    int[] worklist = new int[verticalEdges + (tileWidth - 1) * tileHeight];
+    for (int e = 0; e < worklist.length; e++) {
+      worklist[e] = e;
+    }
+
+    SplittableRandom rand = this.tileRandoms[tile];
+    UnionFind representatives = new UnionFind(tileWidth * tileHeight);
+    int edgesAdded = 0;
+    for (int next = worklist.length - 1; edgesAdded < tileWidth * tileHeight - 1; next--) {
+      int swap = rand.nextInt(next + 1);
+      int edge = worklist[swap];
+      worklist[swap] = worklist[next];
+      worklist[next] = edge;
+
+      // finding the cells of the edge inside the tile, where from is above or to the left of to
+      int from;
+      int to;
+      if (edge < verticalEdges) {
+        from = edge + edge / (tileHeight - 1);
+        to = from + 1;
+      }
+      else {
+        from = edge - verticalEdges;
+        to = from + tileHeight;
+      }
+
+      if (representatives.union(from, to)) {
+        edgesAdded++;
+        this.grid.removeWallConcurrently(this.cellOf(left, top, tileHeight, from), 
+            this.cellOf(left, top, tileHeight, to));
+      }
+    }
+  }
+
+
+  // the cell of the grid for a cell of a tile, which are numbered the same way within the tile
+  int cellOf(int left, int top, int tileHeight, int tileCell) {
+    return this.grid.index(left + tileCell / tileHeight, top + tileCell % tileHeight);
+  }
+
+
+  // joins the tiles with Kruskal's algorithm over the tiles, opening a random wall along the
+  // boundary between the two tiles of every edge it adds
+  void stitchTiles() {
+    int tiles = this.tilesAcross * this.tilesDown;
+    int verticalEdges = this.tilesAcross * (this.tilesDown - 1);
+    int[] worklist = new int[verticalEdges + (this.tilesAcross - 1) * this.tilesDown];
+    for (int e = 0; e < worklist.length; e++) {
+      worklist[e] = e;
+    }
+
+    UnionFind representatives = new UnionFind(tiles);
+    int edgesAdded = 0;
+    for (int next = worklist.length - 1; edgesAdded < tiles - 1; next--) {
+      int swap = this.stitchRandom.nextInt(next + 1);
+      int edge = worklist[swap];
+      worklist[swap] = worklist[next];
+      worklist[next] = edge;
+
+      int from;
+      int to;
+      if (edge < verticalEdges) {
+        from = edge + edge / (this.tilesDown - 1);
+        to = from + 1;
+      }
+      else {
+        from = edge - verticalEdges;
+        to = from + this.tilesDown;
+      }
+
+      if (representatives.union(from, to)) {
+        edgesAdded++;
+        this.openBoundary(from, to == from + 1);
+      }
+    }
+  }
+
+
+  // opens a random wall along the bottom of the given tile if below is true, or else along its
+  // right side
+  void openBoundary(int tile, boolean below) {
+    int left = (tile / this.tilesDown) * this.tileSize;
+    int top = (tile % this.tilesDown) * this.tileSize;
+    if (below) {
+      int x = left + this.stitchRandom.nextInt(Math.min(this.tileSize, this.grid.width - left));
+      int y = top + this.tileSize - 1;
+      this.grid.removeWall(this.grid.index(x, y), this.grid.index(x, y + 1));
+    }
+    else {
+      int x = left + this.tileSize - 1;
+      int y = top + this.stitchRandom.nextInt(Math.min(this.tileSize, this.grid.height - top));
+      this.grid.removeWall(this.grid.index(x, y), this.grid.index(x + 1, y));
+    }
+  }
+}
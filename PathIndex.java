@@ -0,0 +1,139 @@
+import java.util.*;
+
+
+// answers distance and path queries between any two cells of a perfect maze without searching
+// it. Every maze is a spanning tree, so the path between two cells is the path from each of them
+// up to their lowest common ancestor once the tree is rooted at the first cell. Besides its
+// parent and depth, every cell has a jump pointer to an ancestor further up, chosen like the
+// digits of a skew-binary number so that any ancestor is reached in O(log n) jumps. Unlike a
+// binary lifting table with log n ancestors per cell, this takes only 3 ints per cell
+class PathIndex {
+  MazeGrid grid;
+  int[] parents; // each cell's parent in the tree, where the root is its own parent
+  int[] depths; // each cell's distance from the root
+  int[] jumps; // each cell's jump pointer, an ancestor at most twice as far up as the previous
+  // jump along its path to the root
+
+
+
+  // builds the index of the given grid by searching it once from the first cell
+  PathIndex(MazeGrid grid) {
+    this.grid = grid;
+    int cells = grid.width * grid.height;
+    this.parents = new int[cells];
+    this.depths = new int[cells];
+    this.jumps = new int[cells];
+    Arrays.fill(this.depths, -1);
+
+    // a bfs reaches every parent before its children, so their jumps are known in time
+    int[] queue = new int[cells];
+    int[] neighbors = new int[4];
+    int tail = 1;
+    this.depths[0] = 0;
+    for (int head = 0; head < tail; head++) {
+      int cell = queue[head];
+      int count = grid.openNeighbors(cell, neighbors);
+      for (int i = 0; i < count; i++) {
+        int next = neighbors[i];
+        if (this.depths[next] < 0) {
+          this.parents[next] = cell;
+          this.depths[next] = this.depths[cell] + 1;
+          this.jumps[next] = this.jumpFrom(cell);
+          queue[tail] = next;
+          tail++;
+        }
+      }
+    }
+
+    if (tail < cells) {
+      throw new IllegalArgumentException("Maze must be a spanning tree");
+    }
+  }
+
+
+  // the jump pointer of a child of the given cell: if the cell's jump and its jump's jump cover
+  // the same distance, the child jumps over both of them, and otherwise it jumps to the cell
+  int jumpFrom(int cell) {
+    int jump = this.jumps[cell];
+    int nextJump = this.jumps[jump];
+    if (this.depths[cell] - this.depths[jump] == this.depths[jump] - this.depths[nextJump]) {
+      return nextJump;
+    }
+    else {
+      return cell;
+    }
+  }
+
+
+  // the ancestor of the given cell at the given depth, which must be at most the cell's depth
+  int ancestorAt(int cell, int depth) {
+    while (this.depths[cell] > depth) {
+      if (this.depths[this.jumps[cell]] >= depth) {
+        cell = this.jumps[cell];
+      }
+      else {
+        cell = this.parents[cell];
+      }
+    }
+    return cell;
+  }
+
+
+  // the lowest common ancestor of the two cells, where the paths from them to the root meet.
+  // Cells at the same depth have jumps to the same depth, so both cells jump together
+  int lowestCommonAncestor(int from, int to) {
+    this.checkCell(from);
+    this.checkCell(to);
+    if (this.depths[from] > this.depths[to]) {
+      from = this.ancestorAt(from, this.depths[to]);
+    }
+    else {
+      to = this.ancestorAt(to, this.depths[from]);
+    }
+
+    while (from != to) {
+      if (this.jumps[from] != this.jumps[to]) {
+        from = this.jumps[from];
+        to = this.jumps[to];
+      }
+      else {
+        from = this.parents[from];
+        to = this.parents[to];
+      }
+    }
+    return from;
+  }
+
+
+  // the number of passages between the two cells on the path from one to the other
+  int distance(int from, int to) {
+    int ancestor = this.lowestCommonAncestor(from, to);
+    return this.depths[from] + this.depths[to] - 2 * this.depths[ancestor];
+  }
+
+
+  // the cells on the path from one cell to the other, including both of them, which takes time
+  // proportional to the length of the path once their lowest common ancestor is found
+  int[] path(int from, int to) {
+    int ancestor = this.lowestCommonAncestor(from, to);
+    int[] path = new int[this.depths[from] + this.depths[to] - 2 * this.depths[ancestor] + 1];
+    int i = 0;
+    for (int cell = from; cell != ancestor; cell = this.parents[cell]) {
+      path[i] = cell;
+      i++;
+    }
+    path[i] = ancestor;
+    int j = path.length - 1;
+    for (int cell = to; cell != ancestor; cell = this.parents[cell]) {
+      path[j] = cell;
+      j--;
+    }
+    return path;
+  }
+
+
+  // checks that the given cell is a cell of the maze, and throws an exception if not
+  void checkCell(int cell) {
+    new Utils().checkRange(cell, 0, this.parents.length - 1, "Cell must be a cell of the maze");
+  }
+}
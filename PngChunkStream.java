@@ -0,0 +1,55 @@
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+// an output stream that splits everything written to it into chunks of a PNG of the given type,
+// each at most the size of its buffer
+class PngChunkStream extends OutputStream {
+  OutputStream out;
+  String type;
+  byte[] buffer;
+  int size; // the number of bytes in the buffer
+
+
+
+  PngChunkStream(OutputStream out, String type) {
+    this.out = out;
+    this.type = type;
+    this.buffer = new byte[1 << 16];
+    this.size = 0;
+  }
+
+
+  // writes a single byte
+  public void write(int b) throws IOException {
+    if (this.size == this.buffer.length) {
+      this.flush();
+    }
+    this.buffer[this.size] = (byte) b;
+    this.size++;
+  }
+
+
+  // writes len bytes of b starting at off
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (this.size == this.buffer.length) {
+        this.flush();
+      }
+      int count = Math.min(len, this.buffer.length - this.size);
+      System.arraycopy(b, off, this.buffer, this.size, count);
+      this.size += count;
+      off += count;
+      len -= count;
+    }
+  }
+
+
+  // writes the bytes in the buffer as a chunk, if there are any
+  public void flush() throws IOException {
+    if (this.size > 0) {
+      MazeExporter.writeChunk(this.out, this.type, this.buffer, this.size);
+      this.size = 0;
+    }
+  }
+}
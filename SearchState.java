@@ -0,0 +1,102 @@
+import java.util.*;
+import java.lang.invoke.*;
+
+
+// the state of a single search of a maze, kept apart from the walls of the maze so that several
+// searches can run on the same maze at once, even on different threads, without changing it.
+// The previous cell of every cell on the search is kept in a primitive array and the visited
+// cells in a bitset, indexed the same way as the cells of a MazeGrid
+class SearchState {
+  // the number of bytes each cell of a search takes up: a 4 byte parent and 1 bit for whether
+  // the cell has been visited
+  static final double BYTES_PER_CELL = (32 + 1) / 8.0;
+
+  // gives atomic access to the longs of the visited cells, since several threads of a parallel
+  // search may visit cells that are packed into the same long
+  static final VarHandle VISITED = MethodHandles.arrayElementVarHandle(long[].class);
+
+  int[] parents; // each cell's previous cell on the search, only meaningful for the cells that
+  // the search has reached
+  long[] visited; // bit cell is set once the cell has been visited by the search. The parents
+  // and visited cells are null in an OffHeapSearchState, which keeps them outside the heap
+
+
+
+  // creates the state of a search of a maze with the given number of cells
+  SearchState(int cells) {
+    this(new int[cells], new long[(cells + 63) / 64]);
+  }
+
+
+  SearchState(int[] parents, long[] visited) {
+    this.parents = parents;
+    this.visited = visited;
+  }
+
+
+  // determines whether the given cell has been visited by the search
+  boolean isVisited(int cell) {
+    return (this.visited[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+
+  // marks the given cell as visited by the search
+  void markVisited(int cell) {
+    this.visited[cell >>> 6] |= 1L << cell;
+  }
+
+
+  // marks the given cell as visited like markVisited, but atomically so that other threads can
+  // visit cells of the same search at the same time, and returns whether this call marked it
+  // rather than another one
+  boolean claimVisited(int cell) {
+    int word = cell >>> 6;
+    long bit = 1L << cell;
+    long current = this.visited[word];
+    while ((current & bit) == 0) {
+      if (VISITED.compareAndSet(this.visited, word, current, current | bit)) {
+        return true;
+      }
+      current = (long) VISITED.getVolatile(this.visited, word);
+    }
+    return false;
+  }
+
+
+  // the first cell from the given one onwards that the search has visited, or -1 if there is
+  // none, found a whole long of the bitset at a time
+  int nextVisited(int from) {
+    int word = from >>> 6;
+    if (word >= this.visited.length) {
+      return -1;
+    }
+    long bits = this.visited[word] & (-1L << from);
+    while (bits == 0) {
+      word++;
+      if (word == this.visited.length) {
+        return -1;
+      }
+      bits = this.visited[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+
+  // forgets the visited cells of the search. The parents are left as they are, since
+  // a search overwrites the parent of every cell it reaches before it is read
+  void clearSearch() {
+    Arrays.fill(this.visited, 0L);
+  }
+
+
+  // the previous cell of the given cell on the search
+  int parent(int cell) {
+    return this.parents[cell];
+  }
+
+
+  // sets the previous cell of the given cell on the search
+  void setParent(int cell, int parent) {
+    this.parents[cell] = parent;
+  }
+}
@@ -0,0 +1,16 @@
+// represents the outcome of solving a maze from a start cell to a goal cell without drawing it
+class SolveResult {
+  int[] path; // the cells from the start to the goal, empty if the goal can't be reached
+  int nodesExpanded; // the number of cells taken off the worklist and expanded
+  int peakFrontier; // the largest number of cells that were waiting in the worklist at once
+  long elapsedNanos; // the time the search took
+
+
+
+  SolveResult(int[] path, int nodesExpanded, int peakFrontier, long elapsedNanos) {
+    this.path = path;
+    this.nodesExpanded = nodesExpanded;
+    this.peakFrontier = peakFrontier;
+    this.elapsedNanos = elapsedNanos;
+  }
+}
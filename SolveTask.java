@@ -0,0 +1,26 @@
+import java.util.concurrent.*;
+
+
+// solves a cached maze with a solver of its own, so that several threads can solve the same
+// maze at once
+class SolveTask implements Callable<SolveResult> {
+  CachedMaze cached;
+  int start;
+  int goal;
+  String algorithm;
+
+
+
+  SolveTask(CachedMaze cached, int start, int goal, String algorithm) {
+    this.cached = cached;
+    this.start = start;
+    this.goal = goal;
+    this.algorithm = algorithm;
+  }
+
+
+  // solves the maze
+  public SolveResult call() {
+    return this.cached.solver().solve(this.start, this.goal, this.algorithm);
+  }
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.*;
+
+
+// builds a range of the tiles of a ParallelGenerator, splitting the range in half until only a
+// single tile is left so that the pool can spread the tiles over its threads
+class TileTask extends RecursiveAction {
+  // fork-join tasks are Serializable, although these are never serialized
+  static final long serialVersionUID = 1L;
+
+  ParallelGenerator generator;
+  int from; // the first tile of the range
+  int to; // one past the last tile of the range
+
+
+
+  TileTask(ParallelGenerator generator, int from, int to) {
+    this.generator = generator;
+    this.from = from;
+    this.to = to;
+  }
+
+
+  // builds the tiles of the range, forking half of them off when there is more than one
+  protected void compute() {
+    if (this.to - this.from == 1) {
+      this.generator.generateTile(this.from);
+    }
+    else if (this.to - this.from > 1) {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new TileTask(this.generator, this.from, middle), 
+          new TileTask(this.generator, middle, this.to));
+    }
+  }
+}
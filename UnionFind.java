@@ -0,0 +1,80 @@
+import java.util.*;
+
+
+// represents a disjoint-set forest over the cells of a maze, where every cell is identified by
+// its row-major index x * height + y. Path compression and union by rank keep every find
+// close to constant time, so Kruskal's algorithm stays near-linear in the number of cells
+class UnionFind {
+  int[] parents; // each cell's parent in the forest, a root is its own parent
+  byte[] ranks; // an upper bound on the height of the tree under each root
+  boolean counting; // whether finds and unions are counted for the metrics, decided when the
+  // forest is reset so that a find only reads this field while metrics are off
+  long finds; // the number of calls to find since the forest was reset, if they are counted
+  long unions; // the number of calls to union since the forest was reset, if they are counted
+
+
+
+  UnionFind(int size) {
+    this.parents = new int[size];
+    this.ranks = new byte[size];
+    this.reset();
+  }
+
+
+  // puts every cell back in a set of its own, so that the forest can be used for another maze
+  void reset() {
+    for (int i = 0; i < this.parents.length; i++) {
+      this.parents[i] = i;
+    }
+    Arrays.fill(this.ranks, (byte) 0);
+    this.counting = MazeMetrics.enabled;
+    this.finds = 0;
+    this.unions = 0;
+  }
+
+
+  // finds the representative of the given cell and points every cell on the way directly at it
+  int find(int cell) {
+    if (this.counting) {
+      this.finds++;
+    }
+    int root = cell;
+    while (this.parents[root] != root) {
+      root = this.parents[root];
+    }
+
+    // compressing the path so that later finds through these cells take a single step
+    while (this.parents[cell] != root) {
+      int next = this.parents[cell];
+      this.parents[cell] = root;
+      cell = next;
+    }
+    return root;
+  }
+
+
+  // unions the sets containing the two cells by hanging the shorter tree under the taller one,
+  // and returns whether the cells were in different sets before the union
+  boolean union(int from, int to) {
+    if (this.counting) {
+      this.unions++;
+    }
+    int fromRoot = this.find(from);
+    int toRoot = this.find(to);
+    if (fromRoot == toRoot) {
+      return false;
+    }
+
+    if (this.ranks[fromRoot] < this.ranks[toRoot]) {
+      this.parents[fromRoot] = toRoot;
+    }
+    else if (this.ranks[fromRoot] > this.ranks[toRoot]) {
+      this.parents[toRoot] = fromRoot;
+    }
+    else {
+      this.parents[fromRoot] = toRoot;
+      this.ranks[toRoot]++;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,13 @@
+// class for utility methods
+class Utils {
+
+  // checks that the given value within the allowed range, and throws an exception if not
+  int checkRange(int val, int minimum, int maximum, String message) {
+    if (val >= minimum && val <= maximum) {
+      return val;
+    } 
+    else {
+      throw new IllegalArgumentException(message);
+    }
+  }
+}